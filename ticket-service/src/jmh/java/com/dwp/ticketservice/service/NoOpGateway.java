@@ -0,0 +1,30 @@
+package com.dwp.ticketservice.service;
+
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Payment and seat reservation stub that does nothing, so the benchmarks only measure the ticket service itself.
+ */
+final class NoOpGateway implements TicketPaymentService, SeatReservationService {
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        // Intentionally empty.
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        // Intentionally empty.
+    }
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        // Intentionally empty.
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        // Intentionally empty.
+    }
+}
@@ -0,0 +1,61 @@
+package com.dwp.ticketservice.service;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the purchase benchmarks once per thread count with the GC profiler attached,
+ * so that every report carries throughput, latency and allocation rate (gc.alloc.rate.norm).
+ *
+ * System properties:
+ * jmh.threads   comma separated thread counts, defaults to 1, 2, 4 ... up to the available processors
+ * jmh.include   benchmark regex, defaults to every benchmark of the ticket service
+ * jmh.resultDir directory for the JSON results, one file per thread count
+ */
+public final class PurchaseBenchmarkRunner {
+
+    private PurchaseBenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getProperty("jmh.include", "com.dwp.ticketservice.*Benchmark.*");
+        File resultDir = new File(System.getProperty("jmh.resultDir", "target/jmh"));
+        resultDir.mkdirs();
+
+        for (int threads : threadCounts(System.getProperty("jmh.threads"))) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .jvmArgsAppend("-Djmh.log.level=" + System.getProperty("jmh.log.level", "WARN"))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir, "purchase-t" + threads + ".json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+    static List<Integer> threadCounts(String configured) {
+        List<Integer> threadCounts = new ArrayList<>();
+        if (configured != null && !configured.trim().isEmpty()) {
+            for (String value : configured.split(",")) {
+                threadCounts.add(Integer.parseInt(value.trim()));
+            }
+            return threadCounts;
+        }
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+        return threadCounts;
+    }
+}
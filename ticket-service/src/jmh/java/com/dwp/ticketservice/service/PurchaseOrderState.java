@@ -0,0 +1,63 @@
+package com.dwp.ticketservice.service;
+
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared benchmark state holding one ticket order of the requested size and outcome.
+ *
+ * A valid order is split across adult, child and infant tickets with at least one adult.
+ * A rejected order has the same size but no adult ticket, so it fails the business rules.
+ */
+@State(Scope.Benchmark)
+public class PurchaseOrderState {
+
+    public enum Outcome {
+        VALID, REJECTED
+    }
+
+    @Param({"1", "5", "10", "25"})
+    public int ticketCount;
+
+    @Param({"VALID", "REJECTED"})
+    public Outcome outcome;
+
+    public final long accountId = 1L;
+    public TicketServiceImpl ticketService;
+    public TicketTypeRequest[] ticketTypeRequests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        NoOpGateway gateway = new NoOpGateway();
+        ticketService = new TicketServiceImpl(gateway, gateway);
+        ticketTypeRequests = createOrder(ticketCount, outcome);
+    }
+
+    static TicketTypeRequest[] createOrder(int ticketCount, Outcome outcome) {
+        int childCount = ticketCount / 3;
+        int infantCount = ticketCount / 3;
+        int adultCount = ticketCount - childCount - infantCount;
+        if (outcome == Outcome.REJECTED) {
+            childCount += adultCount;
+            adultCount = 0;
+        }
+        List<TicketTypeRequest> requests = new ArrayList<>();
+        addIfPresent(requests, TicketTypeRequest.Type.adult, adultCount);
+        addIfPresent(requests, TicketTypeRequest.Type.child, childCount);
+        addIfPresent(requests, TicketTypeRequest.Type.infant, infantCount);
+        return requests.toArray(new TicketTypeRequest[0]);
+    }
+
+    private static void addIfPresent(List<TicketTypeRequest> requests, TicketTypeRequest.Type type, int quantity) {
+        if (quantity > 0) {
+            requests.add(new TicketTypeRequest(type, quantity));
+        }
+    }
+}
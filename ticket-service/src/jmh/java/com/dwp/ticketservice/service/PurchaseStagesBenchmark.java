@@ -0,0 +1,55 @@
+package com.dwp.ticketservice.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks each internal stage of {@link TicketServiceImpl#purchaseTickets} on its own.
+ *
+ * The input of every stage is prepared once per trial from the output of the stage before it. The business rules
+ * and the cost calculation are a single quote table lookup, so they are measured together.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseStagesBenchmark {
+
+    @State(Scope.Thread)
+    public static class StageInput {
+        final TicketTypeTally ticketTypeTally = new TicketTypeTally();
+        final TicketTypeTally scratchTally = new TicketTypeTally();
+
+        @Setup(Level.Trial)
+        public void setUp(PurchaseOrderState order) {
+            order.ticketService.groupingTicketCountByType(order.ticketTypeRequests, ticketTypeTally);
+        }
+    }
+
+    @Benchmark
+    public Object groupingTicketCountByType(PurchaseOrderState order, StageInput input) {
+        return order.ticketService.groupingTicketCountByType(order.ticketTypeRequests, input.scratchTally);
+    }
+
+    @Benchmark
+    public int calculateTotalTicketCount(PurchaseOrderState order, StageInput input) {
+        return order.ticketService.calculateTotalTicketCount(input.ticketTypeTally);
+    }
+
+    @Benchmark
+    public Object lookupQuote(PurchaseOrderState order, StageInput input) {
+        return order.ticketService.lookupQuote(input.ticketTypeTally);
+    }
+}
@@ -0,0 +1,45 @@
+package com.dwp.ticketservice.service;
+
+import com.dwp.ticketservice.exception.InvalidPurchaseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the full {@link TicketServiceImpl#purchaseTickets} call and its non-throwing
+ * {@link TicketServiceImpl#tryPurchase} variant against no-op gateways,
+ * and the {@link TicketServiceImpl#quote} lookup for the same orders.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseTicketsBenchmark {
+
+    @Benchmark
+    public Object purchaseTickets(PurchaseOrderState state) {
+        try {
+            state.ticketService.purchaseTickets(state.accountId, state.ticketTypeRequests);
+            return state;
+        } catch (InvalidPurchaseException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object tryPurchase(PurchaseOrderState state) {
+        return state.ticketService.tryPurchase(state.accountId, state.ticketTypeRequests);
+    }
+
+    @Benchmark
+    public Object quote(PurchaseOrderState state) {
+        return state.ticketService.quote(state.ticketTypeRequests);
+    }
+}
@@ -0,0 +1,48 @@
+package com.dwp.ticketservice.thirdparty.seatbooking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a reservation followed by its release on one shared seat inventory, so that running it
+ * at increasing thread counts shows how the striped inventory scales compared to a single stripe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeatInventoryBenchmark {
+
+    @Param({"1", "16"})
+    public int stripes;
+
+    private SeatInventory seatInventory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        seatInventory = new SeatInventory("benchmark", 1_000_000, stripes);
+    }
+
+    @Benchmark
+    public boolean allocateAndRelease() {
+        boolean allocated = seatInventory.tryAllocate(2);
+        if (allocated) {
+            seatInventory.release(2);
+        }
+        return allocated;
+    }
+}
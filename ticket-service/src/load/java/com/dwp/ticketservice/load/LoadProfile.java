@@ -0,0 +1,108 @@
+package com.dwp.ticketservice.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.File;
+import java.time.Duration;
+
+/**
+ * Settings of one load test run, read from {@code load.*} system properties.
+ *
+ * System properties:
+ * load.rate                    purchases started per second, whatever the response time, defaults to 1000
+ * load.warmup                  time run at the rate before measuring, defaults to 10s
+ * load.duration                time measured, defaults to 60s
+ * load.reportInterval          time between progress lines and histogram log entries, defaults to 5s
+ * load.concurrency             worker threads running purchases, defaults to 256
+ * load.invalidRatio            share of orders that break a rule, defaults to 0.1
+ * load.gateway.medianLatency   median latency of a payment or reservation call, defaults to 20ms
+ * load.gateway.latencySigma    spread of the log-normal gateway latency, defaults to 0.5
+ * load.gateway.tailProbability share of gateway calls taking the tail latency, defaults to 0.01
+ * load.gateway.tailLatency     latency of the slow tail, defaults to 1s
+ * load.gateway.failureRate     share of gateway calls failing, defaults to 0
+ * load.gateway.concurrent      reserve seats while the payment is taken, defaults to false
+ * load.payment.batchSize       largest batch of payments sent in one gateway call, 0 for no batching, defaults to 0
+ * load.payment.maxDelay        longest a payment waits for its batch to fill, defaults to 2ms
+ * load.engine.partitions       partitions of the account-partitioned purchase engine, 0 to call the service directly, defaults to 0
+ * load.engine.queueCapacity    purchases queued per engine partition, defaults to 1024
+ * load.admission.maxLimit      most purchases the adaptive concurrency limit admits at once, 0 for no admission control, defaults to 0
+ * load.admission.accountRate   purchases per second admitted per account, 0 for no per-account limit, defaults to 0
+ * load.resultDir               directory for the histogram log and percentile distribution, defaults to target/load
+ */
+final class LoadProfile {
+
+    final int rate;
+    final Duration warmup;
+    final Duration duration;
+    final Duration reportInterval;
+    final int concurrency;
+    final double invalidRatio;
+    final Duration gatewayMedianLatency;
+    final double gatewayLatencySigma;
+    final double gatewayTailProbability;
+    final Duration gatewayTailLatency;
+    final double gatewayFailureRate;
+    final boolean concurrentGatewayCalls;
+    final int paymentBatchSize;
+    final Duration paymentMaxDelay;
+    final Duration paymentTimeout;
+    final int enginePartitions;
+    final int engineQueueCapacity;
+    final int admissionMaxLimit;
+    final double admissionAccountRate;
+    final File resultDir;
+
+    private LoadProfile() {
+        rate = Integer.parseInt(property("load.rate", "1000"));
+        warmup = duration("load.warmup", "10s");
+        duration = duration("load.duration", "60s");
+        reportInterval = duration("load.reportInterval", "5s");
+        concurrency = Integer.parseInt(property("load.concurrency", "256"));
+        invalidRatio = Double.parseDouble(property("load.invalidRatio", "0.1"));
+        gatewayMedianLatency = duration("load.gateway.medianLatency", "20ms");
+        gatewayLatencySigma = Double.parseDouble(property("load.gateway.latencySigma", "0.5"));
+        gatewayTailProbability = Double.parseDouble(property("load.gateway.tailProbability", "0.01"));
+        gatewayTailLatency = duration("load.gateway.tailLatency", "1s");
+        gatewayFailureRate = Double.parseDouble(property("load.gateway.failureRate", "0"));
+        concurrentGatewayCalls = Boolean.parseBoolean(property("load.gateway.concurrent", "false"));
+        paymentBatchSize = Integer.parseInt(property("load.payment.batchSize", "0"));
+        paymentMaxDelay = duration("load.payment.maxDelay", "2ms");
+        paymentTimeout = duration("load.payment.timeout", "2s");
+        enginePartitions = Integer.parseInt(property("load.engine.partitions", "0"));
+        engineQueueCapacity = Integer.parseInt(property("load.engine.queueCapacity", "1024"));
+        admissionMaxLimit = Integer.parseInt(property("load.admission.maxLimit", "0"));
+        admissionAccountRate = Double.parseDouble(property("load.admission.accountRate", "0"));
+        resultDir = new File(property("load.resultDir", "target/load"));
+        if (rate <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("load.rate and load.concurrency must be positive");
+        }
+    }
+
+    static LoadProfile fromSystemProperties() {
+        return new LoadProfile();
+    }
+
+    /**
+     * Maven passes an unset profile property as an empty value, which falls back to the default like a missing one.
+     */
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    private static Duration duration(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(property(name, defaultValue));
+    }
+
+    @Override
+    public String toString() {
+        return "rate=" + rate + "/s warmup=" + warmup + " duration=" + duration + " concurrency=" + concurrency
+                + " invalidRatio=" + invalidRatio + " gatewayMedianLatency=" + gatewayMedianLatency
+                + " gatewayLatencySigma=" + gatewayLatencySigma + " gatewayTailProbability=" + gatewayTailProbability
+                + " gatewayTailLatency=" + gatewayTailLatency + " gatewayFailureRate=" + gatewayFailureRate
+                + " concurrentGatewayCalls=" + concurrentGatewayCalls + " paymentBatchSize=" + paymentBatchSize
+                + " paymentMaxDelay=" + paymentMaxDelay + " paymentTimeout=" + paymentTimeout + " enginePartitions=" + enginePartitions
+                + " engineQueueCapacity=" + engineQueueCapacity + " admissionMaxLimit=" + admissionMaxLimit
+                + " admissionAccountRate=" + admissionAccountRate;
+    }
+}
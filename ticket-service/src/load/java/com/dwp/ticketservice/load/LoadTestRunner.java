@@ -0,0 +1,241 @@
+package com.dwp.ticketservice.load;
+
+import com.dwp.ticketservice.admission.AccountRateLimiter;
+import com.dwp.ticketservice.admission.AdaptiveConcurrencyLimit;
+import com.dwp.ticketservice.admission.AdmissionController;
+import com.dwp.ticketservice.admission.PurchaseAdmission;
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.dwp.ticketservice.journal.PurchaseJournal;
+import com.dwp.ticketservice.ledger.PurchaseLedger;
+import com.dwp.ticketservice.logging.PurchaseEventLogger;
+import com.dwp.ticketservice.metrics.PurchaseMetrics;
+import com.dwp.ticketservice.service.GatewayCalls;
+import com.dwp.ticketservice.service.PartitionedPurchaseEngine;
+import com.dwp.ticketservice.service.PurchaseIdempotencyCache;
+import com.dwp.ticketservice.service.TicketServiceImpl;
+import com.dwp.ticketservice.thirdparty.batching.CoalescingTicketPaymentService;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.simulation.LatencyDistribution;
+import com.dwp.ticketservice.thirdparty.simulation.SimulatedGateway;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the ticket service in process at an open-loop purchase rate against simulated gateways, and reports
+ * coordinated-omission-corrected response time percentiles, throughput and garbage collection activity.
+ *
+ * A progress line is printed every report interval. At the end the summary is printed and written to
+ * summary.txt in the result directory, next to the full percentile distribution (response-times.hgrm)
+ * and the interval histogram log (response-times.hlog) for soak runs. See {@link LoadProfile} for the settings.
+ */
+public final class LoadTestRunner {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        profile.resultDir.mkdirs();
+
+        SimulatedGateway gateway = new SimulatedGateway(
+                LatencyDistribution.logNormal(profile.gatewayMedianLatency, profile.gatewayLatencySigma)
+                        .withTail(profile.gatewayTailProbability, profile.gatewayTailLatency),
+                profile.gatewayFailureRate);
+        ExecutorService gatewayExecutor = Executors.newCachedThreadPool(daemonThreads("load-gateway-"));
+        GatewayCalls gatewayCalls = profile.concurrentGatewayCalls ? GatewayCalls.concurrent(gatewayExecutor) : GatewayCalls.sequential();
+        TicketPaymentService paymentService = profile.paymentBatchSize > 0
+                ? new CoalescingTicketPaymentService(gateway, profile.paymentBatchSize, profile.paymentMaxDelay, profile.paymentTimeout, gatewayExecutor)
+                : gateway;
+        TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, gateway, ForkJoinPool.commonPool(),
+                new PurchaseIdempotencyCache(10_000, Duration.ofMinutes(10)), PurchaseMetrics.noop(),
+                new PurchaseEventLogger(PurchaseEventLogger.Mode.SUMMARY, 0.0, "load-test-account-hash-key", 100), PurchaseJournal.noop(), gatewayCalls,
+                PurchaseLedger.noop(), admission(profile));
+
+        PartitionedPurchaseEngine engine = profile.enginePartitions > 0
+                ? new PartitionedPurchaseEngine(ticketService, profile.enginePartitions, profile.engineQueueCapacity)
+                : null;
+        OpenLoopLoadGenerator.PurchaseTarget target = engine == null ? ticketService::tryPurchase : (accountId, ticketTypeRequests) -> {
+            try {
+                return engine.submit(accountId, ticketTypeRequests).join();
+            } catch (RejectedExecutionException e) {
+                return PurchaseResult.rejected(accountId, RejectionReason.PURCHASE_ENGINE_BUSY);
+            }
+        };
+
+        ExecutorService workers = Executors.newFixedThreadPool(profile.concurrency, daemonThreads("load-worker-"));
+        OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(target,
+                new OrderMix(profile.invalidRatio, 42L), profile.rate, workers);
+
+        System.out.println("Load test: " + profile);
+        long startNanos = System.nanoTime();
+        long measureStartNanos = startNanos + profile.warmup.toNanos();
+        long endNanos = measureStartNanos + profile.duration.toNanos();
+        Thread generatorThread = new Thread(() -> generator.run(startNanos, measureStartNanos, endNanos), "load-generator");
+        generatorThread.setDaemon(true);
+        generatorThread.start();
+
+        sleepUntil(measureStartNanos);
+        Map<String, long[]> gcBefore = gcSnapshot();
+        long measureStartMillis = System.currentTimeMillis();
+        Histogram responseTimes = new Histogram(3);
+        Histogram serviceTimes = new Histogram(3);
+        Histogram interval = null;
+        Histogram serviceInterval = null;
+        try (PrintStream hlog = new PrintStream(new File(profile.resultDir, "response-times.hlog"))) {
+            HistogramLogWriter logWriter = new HistogramLogWriter(hlog);
+            logWriter.outputLogFormatVersion();
+            logWriter.outputStartTime(measureStartMillis);
+            logWriter.setBaseTime(measureStartMillis);
+            logWriter.outputLegend();
+
+            long reportNanos = measureStartNanos;
+            while (reportNanos < endNanos) {
+                reportNanos = Math.min(reportNanos + profile.reportInterval.toNanos(), endNanos);
+                sleepUntil(reportNanos);
+                interval = generator.takeResponseTimes(interval);
+                serviceInterval = generator.takeServiceTimes(serviceInterval);
+                report(interval, reportNanos - measureStartNanos, logWriter, responseTimes, serviceTimes, serviceInterval);
+            }
+
+            generatorThread.join();
+            workers.shutdown();
+            if (!workers.awaitTermination(profile.gatewayTailLatency.toNanos() * 4 + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS)) {
+                System.out.println("Purchases still running after the end of the test were not recorded");
+            }
+            interval = generator.takeResponseTimes(interval);
+            serviceInterval = generator.takeServiceTimes(serviceInterval);
+            report(interval, System.nanoTime() - measureStartNanos, logWriter, responseTimes, serviceTimes, serviceInterval);
+        }
+        Map<String, long[]> gcAfter = gcSnapshot();
+        if (engine != null) {
+            engine.close();
+        }
+        gatewayExecutor.shutdownNow();
+
+        String summary = summary(profile, generator, responseTimes, serviceTimes, gcBefore, gcAfter);
+        System.out.print(summary);
+        writeResults(profile.resultDir, summary, responseTimes);
+    }
+
+    /**
+     * Admission control with the default starting and minimum limits of the service, capped by the profile.
+     */
+    private static PurchaseAdmission admission(LoadProfile profile) {
+        if (profile.admissionMaxLimit <= 0) {
+            return PurchaseAdmission.noop();
+        }
+        int minLimit = Math.min(8, profile.admissionMaxLimit);
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(Math.min(50, profile.admissionMaxLimit),
+                minLimit, profile.admissionMaxLimit, Duration.ofMillis(100));
+        AccountRateLimiter accountRateLimiter = profile.admissionAccountRate > 0
+                ? new AccountRateLimiter(16_384, profile.admissionAccountRate, 10)
+                : null;
+        return new AdmissionController(concurrencyLimit, accountRateLimiter);
+    }
+
+    private static void report(Histogram interval, long elapsedNanos, HistogramLogWriter logWriter,
+                               Histogram responseTimes, Histogram serviceTimes, Histogram serviceInterval) {
+        responseTimes.add(interval);
+        serviceTimes.add(serviceInterval);
+        logWriter.outputIntervalHistogram(interval);
+        System.out.printf("%7.1fs %8d purchases  p50 %8.2fms  p99 %8.2fms  p99.9 %8.2fms  max %8.2fms%n",
+                elapsedNanos / 1e9, interval.getTotalCount(), percentile(interval, 50.0), percentile(interval, 99.0),
+                percentile(interval, 99.9), interval.getMaxValue() / NANOS_PER_MILLI);
+    }
+
+    private static String summary(LoadProfile profile, OpenLoopLoadGenerator generator, Histogram responseTimes,
+                                  Histogram serviceTimes, Map<String, long[]> gcBefore, Map<String, long[]> gcAfter) {
+        double seconds = profile.duration.toNanos() / 1e9;
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%nTarget rate      %d purchases/s%n", profile.rate));
+        summary.append(String.format("Throughput       %.1f purchases/s (%d completed of %d started)%n",
+                responseTimes.getTotalCount() / seconds, responseTimes.getTotalCount(), generator.getStarted()));
+        summary.append(String.format("Outcomes         %d accepted, %d rejected, %d failed, %d unexpected%n",
+                generator.getAccepted(), generator.getRejected(), generator.getFailed(), generator.getUnexpectedOutcomes()));
+        summary.append(latencyLine("Response time", responseTimes));
+        summary.append(latencyLine("Service time", serviceTimes));
+
+        long totalCount = 0;
+        long totalMillis = 0;
+        for (Map.Entry<String, long[]> collector : gcAfter.entrySet()) {
+            long[] before = gcBefore.getOrDefault(collector.getKey(), new long[2]);
+            long count = collector.getValue()[0] - before[0];
+            long millis = collector.getValue()[1] - before[1];
+            totalCount += count;
+            totalMillis += millis;
+            summary.append(String.format("GC %-13s %d collections, %d ms%n", collector.getKey(), count, millis));
+        }
+        summary.append(String.format("GC total         %d collections, %d ms, %.2f%% of the run%n",
+                totalCount, totalMillis, totalMillis / (seconds * 10.0)));
+        summary.append(String.format("Heap used        %d MB of %d MB%n",
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20,
+                Runtime.getRuntime().maxMemory() >> 20));
+        return summary.toString();
+    }
+
+    private static String latencyLine(String name, Histogram histogram) {
+        return String.format("%-16s p50 %.2fms  p99 %.2fms  p99.9 %.2fms  max %.2fms%n", name,
+                percentile(histogram, 50.0), percentile(histogram, 99.0), percentile(histogram, 99.9),
+                histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+
+    private static double percentile(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    private static void writeResults(File resultDir, String summary, Histogram responseTimes) throws FileNotFoundException {
+        try (PrintStream out = new PrintStream(new File(resultDir, "summary.txt"))) {
+            out.print(summary);
+        }
+        try (PrintStream out = new PrintStream(new File(resultDir, "response-times.hgrm"))) {
+            responseTimes.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+
+    /**
+     * @return the collection count and time in milliseconds of each garbage collector
+     */
+    private static Map<String, long[]> gcSnapshot() {
+        Map<String, long[]> snapshot = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            snapshot.put(collector.getName(), new long[]{collector.getCollectionCount(), collector.getCollectionTime()});
+        }
+        return snapshot;
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long waitNanos;
+        while ((waitNanos = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(waitNanos);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package com.dwp.ticketservice.load;
+
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts purchases at a fixed rate on a worker pool, whether or not earlier purchases have completed.
+ *
+ * Every purchase has an intended start time on the schedule, and its response time is measured from that time
+ * rather than from when a worker picked it up. A stall therefore shows up in the latency of every purchase that
+ * should have started during it, which corrects for coordinated omission. The service time, measured from the
+ * actual start, is recorded next to it to show how much of the response time was spent waiting.
+ */
+final class OpenLoopLoadGenerator {
+
+    /**
+     * What the load is driven against, the ticket service in process or later its HTTP endpoint.
+     */
+    @FunctionalInterface
+    interface PurchaseTarget {
+        PurchaseResult purchase(long accountId, TicketTypeRequest... ticketTypeRequests);
+    }
+
+    private final PurchaseTarget target;
+    private final OrderMix orderMix;
+    private final int rate;
+    private final Executor workers;
+    private final Recorder responseTimes = new Recorder(3);
+    private final Recorder serviceTimes = new Recorder(3);
+    private final LongAdder started = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder unexpectedOutcomes = new LongAdder();
+
+    OpenLoopLoadGenerator(PurchaseTarget target, OrderMix orderMix, int rate, Executor workers) {
+        this.target = target;
+        this.orderMix = orderMix;
+        this.rate = rate;
+        this.workers = workers;
+    }
+
+    /**
+     * Starts purchases on schedule from the start time until the end time. Only purchases intended to start
+     * at or after the measure start time are recorded, the ones before it warm the service up.
+     */
+    void run(long startNanos, long measureStartNanos, long endNanos) {
+        for (long sequence = 0; ; sequence++) {
+            long intendedStartNanos = startNanos + sequence * TimeUnit.SECONDS.toNanos(1) / rate;
+            if (intendedStartNanos >= endNanos) {
+                return;
+            }
+            long waitNanos;
+            while ((waitNanos = intendedStartNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            OrderMix.Order order = orderMix.get(sequence);
+            boolean measured = intendedStartNanos >= measureStartNanos;
+            if (measured) {
+                started.increment();
+            }
+            workers.execute(() -> purchase(order, intendedStartNanos, measured));
+        }
+    }
+
+    private void purchase(OrderMix.Order order, long intendedStartNanos, boolean measured) {
+        long serviceStartNanos = System.nanoTime();
+        PurchaseResult result;
+        try {
+            result = target.purchase(order.accountId, order.ticketTypeRequests);
+        } catch (RuntimeException e) {
+            result = null;
+        }
+        long endNanos = System.nanoTime();
+        if (!measured) {
+            return;
+        }
+        responseTimes.recordValue(endNanos - intendedStartNanos);
+        serviceTimes.recordValue(endNanos - serviceStartNanos);
+        if (result == null || result.getStatus() == PurchaseResult.Status.FAILED || result.getStatus() == PurchaseResult.Status.UNKNOWN) {
+            failed.increment();
+        } else if (result.isAccepted()) {
+            accepted.increment();
+            if (!order.valid) {
+                unexpectedOutcomes.increment();
+            }
+        } else {
+            rejected.increment();
+            if (order.valid) {
+                unexpectedOutcomes.increment();
+            }
+        }
+    }
+
+    /**
+     * @return the response times, in nanoseconds, recorded since the last call
+     */
+    Histogram takeResponseTimes(Histogram recycled) {
+        return responseTimes.getIntervalHistogram(recycled);
+    }
+
+    /**
+     * @return the service times, in nanoseconds, recorded since the last call
+     */
+    Histogram takeServiceTimes(Histogram recycled) {
+        return serviceTimes.getIntervalHistogram(recycled);
+    }
+
+    long getStarted() {
+        return started.sum();
+    }
+
+    long getAccepted() {
+        return accepted.sum();
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return the valid orders that were rejected and the invalid orders that were accepted
+     */
+    long getUnexpectedOutcomes() {
+        return unexpectedOutcomes.sum();
+    }
+}
@@ -0,0 +1,82 @@
+package com.dwp.ticketservice.load;
+
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import com.dwp.ticketservice.domain.TicketTypeRequest.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fixed pool of ticket orders cycled through by the load generator, built up front so that generating
+ * an order costs nothing during the run.
+ *
+ * A valid order is a family or group booking of one to six adults with a few children and infants.
+ * An invalid order is, in equal shares, an order without an adult, an order over the ticket limit
+ * or an order from an invalid account.
+ */
+final class OrderMix {
+
+    private static final int POOL_SIZE = 4096;
+    private static final int ACCOUNTS = 100_000;
+
+    static final class Order {
+
+        final long accountId;
+        final TicketTypeRequest[] ticketTypeRequests;
+        final boolean valid;
+
+        private Order(long accountId, TicketTypeRequest[] ticketTypeRequests, boolean valid) {
+            this.accountId = accountId;
+            this.ticketTypeRequests = ticketTypeRequests;
+            this.valid = valid;
+        }
+    }
+
+    private final Order[] orders;
+
+    OrderMix(double invalidRatio, long seed) {
+        Random random = new Random(seed);
+        orders = new Order[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            orders[i] = random.nextDouble() < invalidRatio ? invalidOrder(random) : validOrder(random);
+        }
+    }
+
+    Order get(long sequence) {
+        return orders[(int) (sequence % POOL_SIZE)];
+    }
+
+    private static Order validOrder(Random random) {
+        return new Order(account(random), requests(1 + random.nextInt(6), random.nextInt(5), random.nextInt(3)), true);
+    }
+
+    private static Order invalidOrder(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return new Order(account(random), requests(0, 1 + random.nextInt(4), random.nextInt(2)), false);
+            case 1:
+                return new Order(account(random), requests(20, 6 + random.nextInt(10), 0), false);
+            default:
+                return new Order(0L, requests(2, 1, 0), false);
+        }
+    }
+
+    private static long account(Random random) {
+        return 1 + random.nextInt(ACCOUNTS);
+    }
+
+    private static TicketTypeRequest[] requests(int adultCount, int childCount, int infantCount) {
+        List<TicketTypeRequest> requests = new ArrayList<>(3);
+        if (adultCount > 0) {
+            requests.add(new TicketTypeRequest(Type.adult, adultCount));
+        }
+        if (childCount > 0) {
+            requests.add(new TicketTypeRequest(Type.child, childCount));
+        }
+        if (infantCount > 0) {
+            requests.add(new TicketTypeRequest(Type.infant, infantCount));
+        }
+        return requests.toArray(new TicketTypeRequest[0]);
+    }
+}
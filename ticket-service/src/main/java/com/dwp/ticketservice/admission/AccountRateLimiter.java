@@ -0,0 +1,68 @@
+package com.dwp.ticketservice.admission;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets limiting the purchase rate of each account, striped over a fixed array so that memory does not grow
+ * with the number of accounts. Accounts sharing a stripe share its bucket, which only ever makes the limit stricter
+ * for them, and with enough stripes such collisions are rare among the accounts active at once.
+ *
+ * Each bucket is kept as a single theoretical arrival time, the generic cell rate algorithm form of a token bucket:
+ * a purchase is admitted when that time is no further ahead of now than the burst allows, and moves it on by one
+ * emission interval. Admitting a purchase is a read and a compare-and-set, with no lock and no allocation.
+ */
+public class AccountRateLimiter {
+
+    private final AtomicLongArray arrivalNanos;
+    private final int mask;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier nanoClock;
+    private final long originNanos;
+
+    /**
+     * @param stripes the number of buckets, rounded up to a power of two
+     * @param purchasesPerSecond the rate each account is refilled at
+     * @param burst the purchases an idle account can make at once
+     */
+    public AccountRateLimiter(int stripes, double purchasesPerSecond, int burst) {
+        this(stripes, purchasesPerSecond, burst, System::nanoTime);
+    }
+
+    public AccountRateLimiter(int stripes, double purchasesPerSecond, int burst, LongSupplier nanoClock) {
+        if (stripes < 1 || stripes > 1 << 30 || purchasesPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Account rate limit needs at least 1 stripe, a positive rate and a burst of at least 1");
+        }
+        int size = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+        this.arrivalNanos = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.emissionIntervalNanos = (long) (1_000_000_000L / purchasesPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.nanoClock = nanoClock;
+        this.originNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return true when the account has a token for this purchase, false when it is over its rate
+     */
+    public boolean tryAcquire(long accountId) {
+        int stripe = stripeOf(accountId);
+        long nowNanos = nanoClock.getAsLong() - originNanos;
+        while (true) {
+            long arrival = arrivalNanos.get(stripe);
+            long start = Math.max(arrival, nowNanos);
+            if (start - nowNanos > burstToleranceNanos) {
+                return false;
+            }
+            if (arrivalNanos.compareAndSet(stripe, arrival, start + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    private int stripeOf(long accountId) {
+        long hash = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,150 @@
+package com.dwp.ticketservice.admission;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limit on the purchases in flight at once that adapts to the latency of the gateways, after the gradient
+ * algorithm of TCP Vegas style concurrency limiters.
+ *
+ * Gateway latencies are averaged over short windows and compared with a slowly moving baseline. While the latest
+ * window is no slower than the baseline times the tolerance, the limit grows by about its square root per window,
+ * provided the purchases in flight actually came near it. When the latency rises beyond the tolerance the limit
+ * shrinks in proportion, down to half per window. Those changes are smoothed into the current limit, while a window
+ * in which the gateways were overloaded backs it off by a tenth at once. The limit is kept between the minimum and maximum.
+ *
+ * Taking a permit is a compare-and-set on the count in flight. Latency samples are added to striped counters
+ * without a lock. The first sample to find the window over closes it under a lock that no other sample waits for,
+ * and samples arriving meanwhile count towards the next window.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_DECAY = 0.05;
+    private static final double BACKOFF = 0.9;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private final LongAdder windowLatencySumNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private volatile boolean windowOverloaded;
+    private volatile long windowStartNanos;
+
+    private final ReentrantLock windowLock = new ReentrantLock();
+    private double estimatedLimit;
+    private double baselineLatencyNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration window) {
+        this(initialLimit, minLimit, maxLimit, window, System::nanoTime);
+    }
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration window, LongSupplier nanoClock) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max, got "
+                    + minLimit + ", " + initialLimit + " and " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.windowStartNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return true when a permit was taken, false when the limit is reached
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Folds in the gateway latency of one purchase, and moves the limit when the window is over.
+     */
+    public void onSample(long latencyNanos, boolean overloaded) {
+        windowLatencySumNanos.add(latencyNanos);
+        windowSamples.increment();
+        int currentInFlight = inFlight.get();
+        if (currentInFlight > windowMaxInFlight.get()) {
+            windowMaxInFlight.accumulateAndGet(currentInFlight, Math::max);
+        }
+        if (overloaded) {
+            windowOverloaded = true;
+        }
+        long nowNanos = nanoClock.getAsLong();
+        if (nowNanos - windowStartNanos < windowNanos || !windowLock.tryLock()) {
+            return;
+        }
+        try {
+            if (nowNanos - windowStartNanos >= windowNanos && windowSamples.sum() >= MIN_WINDOW_SAMPLES) {
+                closeWindow(nowNanos);
+            }
+        } finally {
+            windowLock.unlock();
+        }
+    }
+
+    /**
+     * Moves the limit by the window that is over and starts the next one, called under the window lock.
+     */
+    private void closeWindow(long nowNanos) {
+        long samples = windowSamples.sumThenReset();
+        long latencySumNanos = windowLatencySumNanos.sumThenReset();
+        int maxInFlight = windowMaxInFlight.getAndSet(0);
+        boolean overloaded = windowOverloaded;
+        windowOverloaded = false;
+        windowStartNanos = nowNanos;
+
+        double windowLatencyNanos = Math.max(1.0, (double) latencySumNanos / Math.max(1L, samples));
+        if (baselineLatencyNanos == 0.0) {
+            baselineLatencyNanos = windowLatencyNanos;
+        } else {
+            baselineLatencyNanos += (windowLatencyNanos - baselineLatencyNanos) * BASELINE_DECAY;
+        }
+        double newLimit;
+        if (overloaded) {
+            newLimit = estimatedLimit * BACKOFF;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineLatencyNanos / windowLatencyNanos));
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            if (maxInFlight < estimatedLimit / 2) {
+                newLimit = Math.min(newLimit, estimatedLimit);
+            }
+            newLimit = estimatedLimit + (newLimit - estimatedLimit) * SMOOTHING;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,49 @@
+package com.dwp.ticketservice.admission;
+
+import com.dwp.ticketservice.domain.RejectionReason;
+
+/**
+ * Admission stage combining the adaptive global concurrency limit with the per-account rate limit.
+ *
+ * The global limit is checked first, and its permit handed back when the account is over its rate, so a purchase
+ * shed because the service is full does not also use up a token of its account.
+ */
+public class AdmissionController implements PurchaseAdmission {
+
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final AccountRateLimiter accountRateLimiter;
+
+    /**
+     * @param accountRateLimiter the per-account rate limit, or null for none
+     */
+    public AdmissionController(AdaptiveConcurrencyLimit concurrencyLimit, AccountRateLimiter accountRateLimiter) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.accountRateLimiter = accountRateLimiter;
+    }
+
+    @Override
+    public RejectionReason tryAdmit(long accountId) {
+        if (!concurrencyLimit.tryAcquire()) {
+            return RejectionReason.OVER_CONCURRENCY_LIMIT;
+        }
+        if (accountRateLimiter != null && !accountRateLimiter.tryAcquire(accountId)) {
+            concurrencyLimit.release();
+            return RejectionReason.ACCOUNT_RATE_LIMITED;
+        }
+        return null;
+    }
+
+    @Override
+    public void recordGatewayLatency(long latencyNanos, boolean overloaded) {
+        concurrencyLimit.onSample(latencyNanos, overloaded);
+    }
+
+    @Override
+    public void release() {
+        concurrencyLimit.release();
+    }
+
+    public AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+}
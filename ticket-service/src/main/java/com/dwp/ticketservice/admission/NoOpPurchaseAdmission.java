@@ -0,0 +1,27 @@
+package com.dwp.ticketservice.admission;
+
+import com.dwp.ticketservice.domain.RejectionReason;
+
+/**
+ * Admission stage used when admission control is disabled.
+ */
+final class NoOpPurchaseAdmission implements PurchaseAdmission {
+
+    static final NoOpPurchaseAdmission INSTANCE = new NoOpPurchaseAdmission();
+
+    private NoOpPurchaseAdmission() {
+    }
+
+    @Override
+    public RejectionReason tryAdmit(long accountId) {
+        return null;
+    }
+
+    @Override
+    public void recordGatewayLatency(long latencyNanos, boolean overloaded) {
+    }
+
+    @Override
+    public void release() {
+    }
+}
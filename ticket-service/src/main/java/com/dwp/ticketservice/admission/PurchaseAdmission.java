@@ -0,0 +1,39 @@
+package com.dwp.ticketservice.admission;
+
+import com.dwp.ticketservice.domain.RejectionReason;
+
+/**
+ * Admission stage at the front of the purchase path, shedding purchases over budget before they are validated
+ * or reach a gateway, so a flash sale does not tie up threads and gateway capacity with purchases that would fail.
+ *
+ * Every admitted purchase must be released once it is done, and reports the latency of its gateway calls
+ * when it made them, so the admission budget can follow how the gateways are coping.
+ */
+public interface PurchaseAdmission {
+
+    /**
+     * Admits a purchase of the account if it is within the global and per-account budgets.
+     *
+     * @return null when the purchase was admitted, or the budget it is over
+     */
+    RejectionReason tryAdmit(long accountId);
+
+    /**
+     * Reports the time an admitted purchase spent in its payment and seat reservation calls.
+     *
+     * @param overloaded true when the gateways could not take the call, a timeout or an open circuit
+     */
+    void recordGatewayLatency(long latencyNanos, boolean overloaded);
+
+    /**
+     * Ends an admitted purchase.
+     */
+    void release();
+
+    /**
+     * @return an admission stage that admits every purchase
+     */
+    static PurchaseAdmission noop() {
+        return NoOpPurchaseAdmission.INSTANCE;
+    }
+}
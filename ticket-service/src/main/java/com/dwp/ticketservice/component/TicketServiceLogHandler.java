@@ -12,6 +12,29 @@ public class TicketServiceLogHandler {
     public static final String INVALID_PERCHES_ERROR = "Error during ticket purchase for account {}: {}";
     public static final String COMMON_ERROR = "Unexpected error occurred while processing ticket purchase";
     public static final String UNEXPECTED_ERROR ="Unexpected error during ticket purchase";
+    public static final String STARTED_PURCHASING_BATCH = "Started purchasing ticket batch of {} orders";
+    public static final String PURCHASED_BATCH = "Purchased ticket batch, {} of {} orders accepted";
+    public static final String BATCH_ORDER_ERROR = "Unexpected error during batch ticket purchase for account {}";
+    public static final String MALFORMED_PURCHASE_LINE = "Malformed purchase order on line {}: {}";
+    public static final String COMPLETED_PURCHASE_STREAM = "Completed purchase stream of {} orders";
+    public static final String UNCONFIRMED_JOURNALED_PAYMENT = "Journaled purchase {} for account {} stopped before its payment of {} was confirmed, check it with the payment provider";
+    public static final String RESERVED_JOURNALED_PURCHASE = "Journaled purchase {} for account {} was paid, reserved its {} seats";
+    public static final String IN_DOUBT_JOURNALED_PAYMENT = "Journaled purchase {} for account {} timed out waiting for its payment of {}, check it with the payment provider and refund it if it was taken";
+    public static final String UNRESERVED_JOURNALED_PURCHASE = "Journaled purchase {} for account {} was paid {} but its {} seats could not be reserved, refund required";
+    public static final String IN_DOUBT_RESERVED_JOURNALED_PAYMENT = "Journaled purchase {} for account {} timed out waiting for its payment of {} and holds {} seats, check it with the payment provider and release the seats if it was not taken";
+    public static final String RELEASED_JOURNALED_PURCHASE = "Journaled purchase {} for account {} was not paid, released its {} seats";
+    public static final String UNRELEASED_JOURNALED_PURCHASE = "Journaled purchase {} for account {} was not paid but its {} seats could not be released, release required";
+    public static final String RECONCILED_JOURNAL = "Reconciled {} incomplete purchases from the purchase journal";
+    public static final String REFUNDED_PAYMENT = "Refunded payment of {} to account {} as the purchase could not be completed";
+    public static final String RELEASED_SEATS = "Released {} seats of account {} as the purchase could not be completed";
+    public static final String PAYMENT_OUTCOME_UNKNOWN = "Payment of {} for account {} timed out and may still be taken, the purchase is left in doubt for reconciliation";
+    public static final String REFUND_ERROR = "Could not refund payment of {} to account {}, refund required";
+    public static final String RELEASE_ERROR = "Could not release {} seats of account {}";
+    public static final String UNLOGGED_REJECTIONS = "{} rejected purchases were not logged, over the rejection log rate";
+    public static final String LOADED_PRICING_RULES = "Loaded pricing rules {} from {}: adult {}, child {}, infant {}, at most {} tickets";
+    public static final String INVALID_PRICING_RULES = "Could not load pricing rules from {}, keeping version {}";
+    public static final String STARTED_PURCHASE_ENGINE = "Started purchase engine with {} partitions of {} queued purchases each";
+    public static final String REJECTED_BY_PURCHASE_ENGINE = "Purchase on line {} was rejected by the purchase engine: {}";
     public static final String START_TEST_CASE ="*************Start the test case name : {}**************";
 }
 
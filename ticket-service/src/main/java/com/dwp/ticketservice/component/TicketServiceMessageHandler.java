@@ -14,4 +14,13 @@ public class TicketServiceMessageHandler {
     public static final String INVALID_ACCOUNT_ID = "Account ID must be greater than zero";
     public static final String MISSING_ADULT_TICKET = "Child or Infant tickets cannot be purchased without purchasing an Adult ticket.";
     public static final String EXCEEDED_TICKET_LIMIT = "Your ticket limit is exceeded at once.";
+    public static final String SEATS_UNAVAILABLE = "Not enough seats are available for this performance.";
+    public static final String MALFORMED_PURCHASE_ORDER = "Purchase order could not be read.";
+    public static final String EXCEEDED_ROLLING_TICKET_LIMIT = "Your ticket limit for this period is exceeded.";
+    public static final String EXCEEDED_SPEND_CAP = "Your spending limit for this period is exceeded.";
+    public static final String OVER_CONCURRENCY_LIMIT = "Too many purchases are in progress, please retry.";
+    public static final String ACCOUNT_RATE_LIMITED = "Too many purchases for this account, please slow down.";
+    public static final String PAYMENT_OUTCOME_UNKNOWN = "The payment could not be confirmed, it will be checked and refunded if it was taken.";
+    public static final String PURCHASE_ENGINE_BUSY = "Too many purchases are queued for this account, please retry.";
+    public static final String IDEMPOTENCY_KEY_REUSED = "This idempotency key was already used for a different purchase.";
 }
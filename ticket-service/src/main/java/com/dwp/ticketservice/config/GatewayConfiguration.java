@@ -0,0 +1,139 @@
+package com.dwp.ticketservice.config;
+
+import com.dwp.ticketservice.exception.PaymentDeclinedException;
+import com.dwp.ticketservice.exception.SeatsUnavailableException;
+import com.dwp.ticketservice.service.GatewayCalls;
+import com.dwp.ticketservice.thirdparty.batching.CoalescingTicketPaymentService;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentServiceImpl;
+import com.dwp.ticketservice.thirdparty.resilience.CircuitBreaker;
+import com.dwp.ticketservice.thirdparty.resilience.GatewayGuard;
+import com.dwp.ticketservice.thirdparty.resilience.ResilientSeatReservationService;
+import com.dwp.ticketservice.thirdparty.resilience.ResilientTicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.InventorySeatReservationService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatInventory;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationServiceImpl;
+import com.dwp.ticketservice.thirdparty.simulation.LatencyDistribution;
+import com.dwp.ticketservice.thirdparty.simulation.SimulatedGateway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+/**
+ * Chooses the payment and seat reservation gateways the ticket service talks to.
+ *
+ * The seat inventory or the simulated gateway replace the stub gateways when enabled, and
+ * the resilient decorators wrap whichever gateway is chosen when resilience is enabled. Payment batching
+ * cannot be combined with resilience: batched payments carry no idempotency key the gateway could be asked about,
+ * so a guarded batch that timed out would leave every payment in it in doubt.
+ */
+@Configuration
+public class GatewayConfiguration {
+
+    public static final String GATEWAY_EXECUTOR = "gatewayExecutor";
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ticket-service.gateway.simulation", name = "enabled", havingValue = "true")
+    public SimulatedGateway simulatedGateway(TicketServiceProperties properties) {
+        TicketServiceProperties.Simulation simulation = properties.getGateway().getSimulation();
+        LatencyDistribution latency = LatencyDistribution.logNormal(simulation.getMedianLatency(), simulation.getLatencySigma())
+                .withTail(simulation.getTailProbability(), simulation.getTailLatency());
+        return new SimulatedGateway(latency, simulation.getFailureRate());
+    }
+
+    @Bean(name = GATEWAY_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService gatewayExecutor(TicketServiceProperties properties) {
+        if (properties.getThreads().isVirtual()) {
+            ExecutorService virtualThreadExecutor = PurchaseExecutorConfiguration.newVirtualThreadPerTaskExecutor();
+            if (virtualThreadExecutor != null) {
+                return virtualThreadExecutor;
+            }
+        }
+        // Unbounded on purpose, the bulkhead of each gateway bounds the calls in flight.
+        return Executors.newCachedThreadPool(new PurchaseExecutorConfiguration.DaemonThreadFactory("gateway-"));
+    }
+
+    @Bean
+    public GatewayCalls gatewayCalls(TicketServiceProperties properties, @Qualifier(GATEWAY_EXECUTOR) ExecutorService gatewayExecutor) {
+        return properties.getGateway().isConcurrentCalls() ? GatewayCalls.concurrent(gatewayExecutor) : GatewayCalls.sequential();
+    }
+
+    @Bean
+    @Primary
+    public TicketPaymentService ticketPaymentGateway(TicketServiceProperties properties, TicketPaymentServiceImpl stubPaymentService,
+                                                     ObjectProvider<SimulatedGateway> simulatedGateway,
+                                                     @Qualifier(GATEWAY_EXECUTOR) ExecutorService gatewayExecutor) {
+        SimulatedGateway simulated = simulatedGateway.getIfAvailable();
+        TicketPaymentService paymentService = simulated != null ? simulated : stubPaymentService;
+        TicketServiceProperties.Resilience resilience = properties.getGateway().getResilience();
+        if (resilience.isEnabled()) {
+            paymentService = new ResilientTicketPaymentService(paymentService,
+                    gatewayGuard("Payment gateway", resilience, gatewayExecutor, GatewayConfiguration::isPaymentGatewayFailure));
+        }
+        TicketServiceProperties.PaymentBatching paymentBatching = properties.getGateway().getPaymentBatching();
+        if (paymentBatching.isEnabled() && resilience.isEnabled()) {
+            throw new IllegalStateException("ticket-service.gateway.payment-batching.enabled cannot be combined with "
+                    + "ticket-service.gateway.resilience.enabled, a timed out batch would leave all of its payments in doubt");
+        }
+        if (paymentBatching.isEnabled()) {
+            paymentService = new CoalescingTicketPaymentService(paymentService, paymentBatching.getMaxBatchSize(),
+                    paymentBatching.getMaxDelay(), paymentBatching.getTimeout(), gatewayExecutor);
+        }
+        return paymentService;
+    }
+
+    @Bean
+    @Primary
+    public SeatReservationService seatReservationGateway(TicketServiceProperties properties, SeatReservationServiceImpl stubReservationService,
+                                                         ObjectProvider<SimulatedGateway> simulatedGateway,
+                                                         @Qualifier(GATEWAY_EXECUTOR) ExecutorService gatewayExecutor) {
+        SeatReservationService reservationService = stubReservationService;
+        TicketServiceProperties.SeatInventory seatInventory = properties.getSeatInventory();
+        SimulatedGateway simulated = simulatedGateway.getIfAvailable();
+        if (seatInventory.isEnabled()) {
+            reservationService = new InventorySeatReservationService(new SeatInventory(seatInventory.getPerformanceId(),
+                    seatInventory.getCapacity(), seatInventory.getStripes()));
+        } else if (simulated != null) {
+            reservationService = simulated;
+        }
+        TicketServiceProperties.Resilience resilience = properties.getGateway().getResilience();
+        if (!resilience.isEnabled()) {
+            return reservationService;
+        }
+        return new ResilientSeatReservationService(reservationService, gatewayGuard("Seat reservation gateway", resilience,
+                gatewayExecutor, GatewayConfiguration::isSeatReservationGatewayFailure));
+    }
+
+    /**
+     * A declined payment is an answer from a healthy gateway, and an invalid request a fault of the caller,
+     * so neither opens the breaker for every other account.
+     */
+    public static boolean isPaymentGatewayFailure(Throwable failure) {
+        return !(failure instanceof PaymentDeclinedException) && !(failure instanceof IllegalArgumentException);
+    }
+
+    /**
+     * A sold out performance is an answer from a healthy gateway, not a failure of it.
+     */
+    public static boolean isSeatReservationGatewayFailure(Throwable failure) {
+        return !(failure instanceof SeatsUnavailableException) && !(failure instanceof IllegalArgumentException);
+    }
+
+    /**
+     * Builds the guard of one gateway from the resilience settings.
+     */
+    private static GatewayGuard gatewayGuard(String gatewayName, TicketServiceProperties.Resilience resilience,
+                                             ExecutorService gatewayExecutor, Predicate<Throwable> isGatewayFailure) {
+        return new GatewayGuard(gatewayName, gatewayExecutor, resilience.getMaxConcurrentCalls(),
+                new CircuitBreaker(resilience.getFailureThreshold(), resilience.getOpenDuration()),
+                resilience.getTimeout(), isGatewayFailure);
+    }
+}
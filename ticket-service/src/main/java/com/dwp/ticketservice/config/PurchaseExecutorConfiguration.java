@@ -0,0 +1,82 @@
+package com.dwp.ticketservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the executor that runs asynchronous purchases and, when virtual threads are enabled,
+ * moves Tomcat request handling onto virtual threads as well.
+ *
+ * Virtual threads are looked up reflectively so that the same source builds on Java 11 and on the java21 profile.
+ */
+@Configuration
+@EnableConfigurationProperties(TicketServiceProperties.class)
+public class PurchaseExecutorConfiguration {
+
+    public static final String PURCHASE_EXECUTOR = "purchaseExecutor";
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseExecutorConfiguration.class);
+
+    @Bean(name = PURCHASE_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService purchaseExecutor(TicketServiceProperties properties) {
+        TicketServiceProperties.Threads threads = properties.getThreads();
+        if (threads.isVirtual()) {
+            ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+            if (virtualThreadExecutor != null) {
+                return virtualThreadExecutor;
+            }
+            logger.warn("Virtual threads are not available on Java {}, falling back to {} platform threads",
+                    System.getProperty("java.specification.version"), threads.getPurchasePoolSize());
+        }
+        return Executors.newFixedThreadPool(threads.getPurchasePoolSize(), new DaemonThreadFactory("purchase-"));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ticket-service.threads", name = "virtual", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+            if (virtualThreadExecutor != null) {
+                protocolHandler.setExecutor(virtualThreadExecutor);
+            }
+        };
+    }
+
+    /**
+     * Creates a virtual thread per task executor, or returns null when the runtime does not support virtual threads.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final String namePrefix;
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        DaemonThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
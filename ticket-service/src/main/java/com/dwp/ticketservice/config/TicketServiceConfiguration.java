@@ -0,0 +1,125 @@
+package com.dwp.ticketservice.config;
+
+import com.dwp.ticketservice.admission.AccountRateLimiter;
+import com.dwp.ticketservice.admission.AdaptiveConcurrencyLimit;
+import com.dwp.ticketservice.admission.AdmissionController;
+import com.dwp.ticketservice.admission.PurchaseAdmission;
+import com.dwp.ticketservice.journal.MappedPurchaseJournal;
+import com.dwp.ticketservice.journal.PurchaseJournal;
+import com.dwp.ticketservice.journal.PurchaseJournalReconciler;
+import com.dwp.ticketservice.ledger.PurchaseLedger;
+import com.dwp.ticketservice.ledger.RollingPurchaseLedger;
+import com.dwp.ticketservice.logging.PurchaseEventLogger;
+import com.dwp.ticketservice.metrics.PurchaseMetrics;
+import com.dwp.ticketservice.pricing.PricingRulesWatcher;
+import com.dwp.ticketservice.service.PartitionedPurchaseEngine;
+import com.dwp.ticketservice.service.PurchaseIdempotencyCache;
+import com.dwp.ticketservice.service.TicketServiceImpl;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Provides the collaborators of the ticket service that are built from the {@code ticket-service.*} properties.
+ */
+@Configuration
+public class TicketServiceConfiguration {
+
+    /**
+     * Keeps the beans that must be ready before the first request eager when lazy initialization is on:
+     * the ticket service builds its quote table, the journal opens its segments and the pricing rules watcher
+     * is not used by any other bean, so it would never start.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerTicketServiceBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(TicketServiceImpl.class, PurchaseJournal.class, PricingRulesWatcher.class);
+    }
+
+    @Bean
+    public PurchaseIdempotencyCache purchaseIdempotencyCache(TicketServiceProperties properties) {
+        TicketServiceProperties.Idempotency idempotency = properties.getIdempotency();
+        return new PurchaseIdempotencyCache(idempotency.getMaximumSize(), idempotency.getTimeToLive());
+    }
+
+    @Bean
+    public PurchaseMetrics purchaseMetrics(MeterRegistry meterRegistry) {
+        return new PurchaseMetrics(meterRegistry);
+    }
+
+    @Bean
+    public PurchaseEventLogger purchaseEventLogger(TicketServiceProperties properties) {
+        TicketServiceProperties.Logging logging = properties.getLogging();
+        return new PurchaseEventLogger(logging.getMode(), logging.getStageSampleRate(), logging.getAccountHashKey(),
+                logging.getRejectionLogRate());
+    }
+
+    @Bean
+    public PurchaseJournal purchaseJournal(TicketServiceProperties properties) throws IOException {
+        TicketServiceProperties.Journal journal = properties.getJournal();
+        if (!journal.isEnabled()) {
+            return PurchaseJournal.noop();
+        }
+        return MappedPurchaseJournal.open(Paths.get(journal.getDirectory()), journal.getSegmentSize().toBytes(),
+                journal.getRetainedSegments());
+    }
+
+    @Bean
+    public PurchaseLedger purchaseLedger(TicketServiceProperties properties) {
+        TicketServiceProperties.Ledger ledger = properties.getLedger();
+        if (!ledger.isEnabled()) {
+            return PurchaseLedger.noop();
+        }
+        return new RollingPurchaseLedger(ledger.getSegments(), ledger.getWindow(), ledger.getBuckets(),
+                ledger.getMaxTickets(), ledger.getMaxSpend());
+    }
+
+    /**
+     * Builds the admission stage, with the current concurrency limit published as a gauge.
+     */
+    @Bean
+    public PurchaseAdmission purchaseAdmission(TicketServiceProperties properties, MeterRegistry meterRegistry) {
+        TicketServiceProperties.Admission admission = properties.getAdmission();
+        if (!admission.isEnabled()) {
+            return PurchaseAdmission.noop();
+        }
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(admission.getInitialLimit(),
+                admission.getMinLimit(), admission.getMaxLimit(), admission.getWindow());
+        AccountRateLimiter accountRateLimiter = admission.getAccountRate() > 0
+                ? new AccountRateLimiter(admission.getAccountStripes(), admission.getAccountRate(), admission.getAccountBurst())
+                : null;
+        Gauge.builder(PurchaseMetrics.ADMISSION_LIMIT_GAUGE, concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Purchases admitted in flight at once")
+                .register(meterRegistry);
+        return new AdmissionController(concurrencyLimit, accountRateLimiter);
+    }
+
+    @Bean
+    public ApplicationRunner purchaseJournalReconciliation(PurchaseJournal journal, SeatReservationService reservationService) {
+        return args -> new PurchaseJournalReconciler(journal, reservationService).reconcile();
+    }
+
+    /**
+     * Loads the pricing rules before the service takes requests and keeps them in step with the file.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty("ticket-service.pricing.file")
+    public PricingRulesWatcher pricingRulesWatcher(TicketServiceProperties properties, TicketServiceImpl ticketService) {
+        TicketServiceProperties.Pricing pricing = properties.getPricing();
+        return new PricingRulesWatcher(Paths.get(pricing.getFile()), pricing.getPollInterval(), ticketService::applyPricingRules);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("ticket-service.engine.enabled")
+    public PartitionedPurchaseEngine partitionedPurchaseEngine(TicketServiceProperties properties, TicketServiceImpl ticketService) {
+        TicketServiceProperties.Engine engine = properties.getEngine();
+        return new PartitionedPurchaseEngine(ticketService, engine.getPartitions(), engine.getQueueCapacity());
+    }
+}
@@ -0,0 +1,854 @@
+package com.dwp.ticketservice.config;
+
+import com.dwp.ticketservice.logging.PurchaseEventLogger;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Externalised settings of the ticket service, bound from the {@code ticket-service.*} properties.
+ */
+@ConfigurationProperties(prefix = "ticket-service")
+public class TicketServiceProperties {
+
+    private final Threads threads = new Threads();
+    private final Idempotency idempotency = new Idempotency();
+    private final Logging logging = new Logging();
+    private final SeatInventory seatInventory = new SeatInventory();
+    private final Gateway gateway = new Gateway();
+    private final Journal journal = new Journal();
+    private final Pricing pricing = new Pricing();
+    private final Engine engine = new Engine();
+    private final Ledger ledger = new Ledger();
+    private final Admission admission = new Admission();
+
+    public Threads getThreads() {
+        return threads;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public Logging getLogging() {
+        return logging;
+    }
+
+    public SeatInventory getSeatInventory() {
+        return seatInventory;
+    }
+
+    public Gateway getGateway() {
+        return gateway;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public Pricing getPricing() {
+        return pricing;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public Ledger getLedger() {
+        return ledger;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    /**
+     * Threads used for request handling and for the asynchronous purchase path.
+     */
+    public static class Threads {
+
+        /**
+         * Run request handling and gateway calls on virtual threads. Needs a Java 21 runtime,
+         * platform threads are used otherwise.
+         */
+        private boolean virtual;
+
+        /**
+         * Number of platform threads running asynchronous purchases when virtual threads are not used.
+         */
+        private int purchasePoolSize = 50;
+
+        public boolean isVirtual() {
+            return virtual;
+        }
+
+        public void setVirtual(boolean virtual) {
+            this.virtual = virtual;
+        }
+
+        public int getPurchasePoolSize() {
+            return purchasePoolSize;
+        }
+
+        public void setPurchasePoolSize(int purchasePoolSize) {
+            this.purchasePoolSize = purchasePoolSize;
+        }
+    }
+
+    /**
+     * Deduplication of retried purchases carrying the same idempotency key.
+     */
+    public static class Idempotency {
+
+        /**
+         * Maximum number of purchases remembered, the oldest completed ones are evicted first.
+         */
+        private int maximumSize = 100_000;
+
+        /**
+         * How long the outcome of a completed purchase is replayed to retries.
+         */
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    /**
+     * Purchase logging, either every stage line of every purchase or one summary event per purchase.
+     */
+    public static class Logging {
+
+        /**
+         * VERBOSE logs every stage of every purchase, SUMMARY logs one structured event per purchase
+         * to the asynchronous purchase event log.
+         */
+        private PurchaseEventLogger.Mode mode = PurchaseEventLogger.Mode.VERBOSE;
+
+        /**
+         * Fraction of purchases, between 0 and 1, whose per-stage lines are still logged in summary mode.
+         */
+        private double stageSampleRate = 0.0;
+
+        /**
+         * Secret key of the HMAC-SHA256 account hash of summary events, at least 16 characters.
+         * It has no default and must be set in summary mode.
+         */
+        private String accountHashKey;
+
+        /**
+         * File the summary events are written to, read by logback-spring.xml.
+         */
+        private String eventFile = "./logs/tickets-purchase-events.log";
+
+        /**
+         * Capacity of the asynchronous event queue, events are dropped rather than blocking when it is full.
+         */
+        private int eventQueueSize = 8192;
+
+        /**
+         * Maximum number of rejected purchases logged per second, the rest are only counted.
+         */
+        private int rejectionLogRate = 100;
+
+        public PurchaseEventLogger.Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(PurchaseEventLogger.Mode mode) {
+            this.mode = mode;
+        }
+
+        public double getStageSampleRate() {
+            return stageSampleRate;
+        }
+
+        public void setStageSampleRate(double stageSampleRate) {
+            this.stageSampleRate = stageSampleRate;
+        }
+
+        public String getAccountHashKey() {
+            return accountHashKey;
+        }
+
+        public void setAccountHashKey(String accountHashKey) {
+            this.accountHashKey = accountHashKey;
+        }
+
+        public String getEventFile() {
+            return eventFile;
+        }
+
+        public void setEventFile(String eventFile) {
+            this.eventFile = eventFile;
+        }
+
+        public int getEventQueueSize() {
+            return eventQueueSize;
+        }
+
+        public void setEventQueueSize(int eventQueueSize) {
+            this.eventQueueSize = eventQueueSize;
+        }
+
+        public int getRejectionLogRate() {
+            return rejectionLogRate;
+        }
+
+        public void setRejectionLogRate(int rejectionLogRate) {
+            this.rejectionLogRate = rejectionLogRate;
+        }
+    }
+
+    /**
+     * In-memory seat inventory used in place of the stub seat reservation gateway.
+     */
+    public static class SeatInventory {
+
+        /**
+         * Reserve seats against a fixed capacity instead of the stub gateway, which accepts any reservation.
+         */
+        private boolean enabled;
+
+        /**
+         * Event or performance the seats belong to.
+         */
+        private String performanceId = "default";
+
+        /**
+         * Number of seats of the performance.
+         */
+        private int capacity = 10_000;
+
+        /**
+         * Number of stripes the free seats are split across, defaults to the number of available processors.
+         */
+        private int stripes = Runtime.getRuntime().availableProcessors();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPerformanceId() {
+            return performanceId;
+        }
+
+        public void setPerformanceId(String performanceId) {
+            this.performanceId = performanceId;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+    }
+
+    /**
+     * Protection of the ticket service from slow or failing payment and seat reservation gateways.
+     */
+    public static class Gateway {
+
+        /**
+         * Reserve the seats while the payment is taken instead of after it, refunding the payment or releasing
+         * the seats when only one of them succeeds.
+         */
+        private boolean concurrentCalls;
+
+        private final Resilience resilience = new Resilience();
+        private final Simulation simulation = new Simulation();
+        private final PaymentBatching paymentBatching = new PaymentBatching();
+
+        public boolean isConcurrentCalls() {
+            return concurrentCalls;
+        }
+
+        public void setConcurrentCalls(boolean concurrentCalls) {
+            this.concurrentCalls = concurrentCalls;
+        }
+
+        public Resilience getResilience() {
+            return resilience;
+        }
+
+        public Simulation getSimulation() {
+            return simulation;
+        }
+
+        public PaymentBatching getPaymentBatching() {
+            return paymentBatching;
+        }
+    }
+
+    /**
+     * Gathers the payments of concurrent purchases into batched payment gateway calls.
+     */
+    public static class PaymentBatching {
+
+        /**
+         * Send payments in batches instead of one gateway call per purchase.
+         */
+        private boolean enabled;
+
+        /**
+         * Largest number of payments sent in one batch.
+         */
+        private int maxBatchSize = 64;
+
+        /**
+         * Longest a payment waits for its batch to fill before the batch is sent.
+         */
+        private Duration maxDelay = Duration.ofMillis(2);
+
+        /**
+         * Longest a payment waits for the outcome of its batch before it is treated as in doubt.
+         */
+        private Duration timeout = Duration.ofSeconds(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * Timeouts, bulkhead and circuit breaker applied to each gateway separately.
+     */
+    public static class Resilience {
+
+        /**
+         * Call the gateways through the timeout, bulkhead and circuit breaker.
+         */
+        private boolean enabled;
+
+        /**
+         * How long a purchase waits for one gateway call.
+         */
+        private Duration timeout = Duration.ofSeconds(2);
+
+        /**
+         * Maximum number of calls in flight to one gateway, further calls are refused.
+         */
+        private int maxConcurrentCalls = 100;
+
+        /**
+         * Number of consecutive failed calls that opens the circuit breaker of a gateway.
+         */
+        private int failureThreshold = 5;
+
+        /**
+         * How long an open circuit breaker fails calls fast before letting a trial call through.
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+    }
+
+    /**
+     * Local gateway with injected latency and faults, used in place of the stub gateways for offline testing.
+     */
+    public static class Simulation {
+
+        /**
+         * Replace the stub payment and seat reservation gateways with the simulated gateway.
+         */
+        private boolean enabled;
+
+        /**
+         * Median latency of a gateway call, drawn from a log-normal distribution.
+         */
+        private Duration medianLatency = Duration.ofMillis(20);
+
+        /**
+         * Spread of the log-normal latency distribution.
+         */
+        private double latencySigma = 0.5;
+
+        /**
+         * Fraction of calls, between 0 and 1, that take the tail latency instead.
+         */
+        private double tailProbability = 0.01;
+
+        /**
+         * Latency of the slow tail calls.
+         */
+        private Duration tailLatency = Duration.ofSeconds(1);
+
+        /**
+         * Fraction of calls, between 0 and 1, that fail.
+         */
+        private double failureRate = 0.0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getMedianLatency() {
+            return medianLatency;
+        }
+
+        public void setMedianLatency(Duration medianLatency) {
+            this.medianLatency = medianLatency;
+        }
+
+        public double getLatencySigma() {
+            return latencySigma;
+        }
+
+        public void setLatencySigma(double latencySigma) {
+            this.latencySigma = latencySigma;
+        }
+
+        public double getTailProbability() {
+            return tailProbability;
+        }
+
+        public void setTailProbability(double tailProbability) {
+            this.tailProbability = tailProbability;
+        }
+
+        public Duration getTailLatency() {
+            return tailLatency;
+        }
+
+        public void setTailLatency(Duration tailLatency) {
+            this.tailLatency = tailLatency;
+        }
+
+        public double getFailureRate() {
+            return failureRate;
+        }
+
+        public void setFailureRate(double failureRate) {
+            this.failureRate = failureRate;
+        }
+    }
+
+    /**
+     * Write-ahead journal of purchases, replayed at startup to finish purchases interrupted by a crash.
+     */
+    public static class Journal {
+
+        /**
+         * Journal every purchase to memory-mapped segment files.
+         */
+        private boolean enabled;
+
+        /**
+         * Directory holding the journal segments.
+         */
+        private String directory = "./journal";
+
+        /**
+         * Size of one journal segment, each purchase takes 96 bytes.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Number of newest segments kept on disk.
+         */
+        private int retainedSegments = 4;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public int getRetainedSegments() {
+            return retainedSegments;
+        }
+
+        public void setRetainedSegments(int retainedSegments) {
+            this.retainedSegments = retainedSegments;
+        }
+    }
+
+    /**
+     * Ticket prices and limits loaded from an external file and reloaded when it changes.
+     */
+    public static class Pricing {
+
+        /**
+         * Properties file holding the pricing rules. The rules compiled into the service are used when not set.
+         */
+        private String file;
+
+        /**
+         * How often the pricing rules file is checked for changes.
+         */
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+    }
+
+    /**
+     * Account-partitioned purchase engine, running the purchases of each account in order on a single worker thread.
+     */
+    public static class Engine {
+
+        /**
+         * Run the purchases of the streaming endpoint on the partitioned engine.
+         */
+        private boolean enabled;
+
+        /**
+         * Number of partitions, each with its own worker thread holding one purchase at a time.
+         */
+        private int partitions = 16;
+
+        /**
+         * Purchases queued per partition before new ones are refused, rounded up to a power of two of at least 2.
+         */
+        private int queueCapacity = 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public void setPartitions(int partitions) {
+            this.partitions = partitions;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Rolling per-account limits on tickets and spend across purchases, held in an in-memory ledger.
+     */
+    public static class Ledger {
+
+        /**
+         * Enforce the rolling limits on every purchase.
+         */
+        private boolean enabled;
+
+        /**
+         * Period the limits apply to.
+         */
+        private Duration window = Duration.ofHours(24);
+
+        /**
+         * Number of buckets the window is split into, the limits roll forward one bucket at a time.
+         */
+        private int buckets = 6;
+
+        /**
+         * Most tickets an account may buy within the window, 0 for no limit.
+         */
+        private int maxTickets = 100;
+
+        /**
+         * Most an account may spend within the window, 0 for no limit.
+         */
+        private int maxSpend = 2000;
+
+        /**
+         * Number of independently locked segments, best a multiple of the engine partition count.
+         */
+        private int segments = 64;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getBuckets() {
+            return buckets;
+        }
+
+        public void setBuckets(int buckets) {
+            this.buckets = buckets;
+        }
+
+        public int getMaxTickets() {
+            return maxTickets;
+        }
+
+        public void setMaxTickets(int maxTickets) {
+            this.maxTickets = maxTickets;
+        }
+
+        public int getMaxSpend() {
+            return maxSpend;
+        }
+
+        public void setMaxSpend(int maxSpend) {
+            this.maxSpend = maxSpend;
+        }
+
+        public int getSegments() {
+            return segments;
+        }
+
+        public void setSegments(int segments) {
+            this.segments = segments;
+        }
+    }
+
+    /**
+     * Admission control at the front of the purchase pipeline: a global limit on purchases in flight that adapts
+     * to the gateway latency, and a token bucket rate limit per account.
+     */
+    public static class Admission {
+
+        /**
+         * Shed purchases over the concurrency limit or the rate of their account before they are validated.
+         */
+        private boolean enabled;
+
+        /**
+         * Purchases allowed in flight at once before the limit has adapted to the gateway latency.
+         */
+        private int initialLimit = 50;
+
+        /**
+         * Fewest purchases allowed in flight however slow the gateways get.
+         */
+        private int minLimit = 8;
+
+        /**
+         * Most purchases allowed in flight however fast the gateways are.
+         */
+        private int maxLimit = 1000;
+
+        /**
+         * Period gateway latencies are averaged over before the limit moves.
+         */
+        private Duration window = Duration.ofMillis(100);
+
+        /**
+         * Purchases per second each account is refilled at, 0 for no per-account limit.
+         */
+        private double accountRate = 2.0;
+
+        /**
+         * Purchases an idle account can make at once.
+         */
+        private int accountBurst = 10;
+
+        /**
+         * Number of token buckets the accounts are spread over, rounded up to a power of two.
+         */
+        private int accountStripes = 16384;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public double getAccountRate() {
+            return accountRate;
+        }
+
+        public void setAccountRate(double accountRate) {
+            this.accountRate = accountRate;
+        }
+
+        public int getAccountBurst() {
+            return accountBurst;
+        }
+
+        public void setAccountBurst(int accountBurst) {
+            this.accountBurst = accountBurst;
+        }
+
+        public int getAccountStripes() {
+            return accountStripes;
+        }
+
+        public void setAccountStripes(int accountStripes) {
+            this.accountStripes = accountStripes;
+        }
+    }
+}
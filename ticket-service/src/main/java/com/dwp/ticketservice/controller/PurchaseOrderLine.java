@@ -0,0 +1,72 @@
+package com.dwp.ticketservice.controller;
+
+import com.dwp.ticketservice.domain.PurchaseOrder;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of a newline delimited JSON purchase upload, for example
+ * {@code {"accountId":1,"tickets":[{"type":"adult","quantity":2},{"type":"child","quantity":1}]}}
+ */
+public class PurchaseOrderLine {
+
+    private Long accountId;
+    private List<TicketLine> tickets = new ArrayList<>();
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public List<TicketLine> getTickets() {
+        return tickets;
+    }
+
+    public void setTickets(List<TicketLine> tickets) {
+        this.tickets = tickets;
+    }
+
+    /**
+     * Converts the line into the purchase order handed to the ticket service.
+     *
+     * @throws IllegalArgumentException when a ticket of the line is null or has no type
+     */
+    public PurchaseOrder toPurchaseOrder() {
+        TicketTypeRequest[] ticketTypeRequests = new TicketTypeRequest[tickets == null ? 0 : tickets.size()];
+        for (int i = 0; i < ticketTypeRequests.length; i++) {
+            TicketLine ticket = tickets.get(i);
+            if (ticket == null || ticket.getType() == null) {
+                throw new IllegalArgumentException("Ticket " + (i + 1) + " has no type");
+            }
+            ticketTypeRequests[i] = new TicketTypeRequest(ticket.getType(), ticket.getQuantity());
+        }
+        return new PurchaseOrder(accountId, ticketTypeRequests);
+    }
+
+    public static class TicketLine {
+
+        private TicketTypeRequest.Type type;
+        private int quantity;
+
+        public TicketTypeRequest.Type getType() {
+            return type;
+        }
+
+        public void setType(TicketTypeRequest.Type type) {
+            this.type = type;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.dwp.ticketservice.controller;
+
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of the newline delimited JSON response, the outcome of the purchase order on the same line of the upload.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PurchaseResultLine {
+
+    private final long line;
+    private final Long accountId;
+    private final PurchaseResult.Status status;
+    private final String reason;
+    private final RejectionReason code;
+    private final Integer totalTicketCost;
+    private final Integer totalSeatCount;
+
+    private PurchaseResultLine(long line, Long accountId, PurchaseResult.Status status, String reason, RejectionReason code,
+                               Integer totalTicketCost, Integer totalSeatCount) {
+        this.line = line;
+        this.accountId = accountId;
+        this.status = status;
+        this.reason = reason;
+        this.code = code;
+        this.totalTicketCost = totalTicketCost;
+        this.totalSeatCount = totalSeatCount;
+    }
+
+    public static PurchaseResultLine of(long line, PurchaseResult purchaseResult) {
+        if (purchaseResult.isAccepted()) {
+            return new PurchaseResultLine(line, purchaseResult.getAccountId(), purchaseResult.getStatus(), null, null,
+                    purchaseResult.getTotalTicketCost(), purchaseResult.getTotalSeatCount());
+        }
+        return new PurchaseResultLine(line, purchaseResult.getAccountId(), purchaseResult.getStatus(),
+                purchaseResult.getReason(), purchaseResult.getRejectionReason(), null, null);
+    }
+
+    public static PurchaseResultLine rejected(long line, RejectionReason code) {
+        return new PurchaseResultLine(line, null, PurchaseResult.Status.REJECTED, code.getMessage(), code, null, null);
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public PurchaseResult.Status getStatus() {
+        return status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public RejectionReason getCode() {
+        return code;
+    }
+
+    public Integer getTotalTicketCost() {
+        return totalTicketCost;
+    }
+
+    public Integer getTotalSeatCount() {
+        return totalSeatCount;
+    }
+}
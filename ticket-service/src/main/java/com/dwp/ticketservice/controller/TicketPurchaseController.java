@@ -0,0 +1,163 @@
+package com.dwp.ticketservice.controller;
+
+import com.dwp.ticketservice.domain.PurchaseOrder;
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.dwp.ticketservice.service.PartitionedPurchaseEngine;
+import com.dwp.ticketservice.service.TicketService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.dwp.ticketservice.component.TicketServiceLogHandler.*;
+
+/**
+ * HTTP endpoint for bulk ticket purchases streamed as newline delimited JSON.
+ *
+ * The upload is read one line at a time and each order is purchased as soon as its line arrives.
+ * Its result line is written and flushed straight away, so memory stays flat however large the upload is
+ * and the first results reach the client before the upload has finished.
+ *
+ * When the partitioned purchase engine is enabled, orders are submitted to it as their lines arrive and up to
+ * {@value #MAX_ORDERS_IN_FLIGHT} of them run at once on their partitions. Result lines are still written in upload
+ * order. A full partition queue holds the upload back until an earlier order of the stream completes, and rejects
+ * the order only when the stream has none left in flight.
+ */
+@RestController
+@RequestMapping("/tickets")
+public class TicketPurchaseController {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketPurchaseController.class);
+    private static final byte[] LINE_SEPARATOR = "\n".getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_ORDERS_IN_FLIGHT = 64;
+
+    private final TicketService ticketService;
+    private final PartitionedPurchaseEngine purchaseEngine;
+    private final ObjectReader orderReader;
+    private final ObjectWriter resultWriter;
+
+    public TicketPurchaseController(TicketService ticketService, ObjectMapper objectMapper) {
+        this(ticketService, objectMapper, null);
+    }
+
+    @Autowired
+    public TicketPurchaseController(TicketService ticketService, ObjectMapper objectMapper,
+                                    @Nullable PartitionedPurchaseEngine purchaseEngine) {
+        this.ticketService = ticketService;
+        this.purchaseEngine = purchaseEngine;
+        this.orderReader = objectMapper.readerFor(PurchaseOrderLine.class);
+        this.resultWriter = objectMapper.writerFor(PurchaseResultLine.class);
+    }
+
+    @PostMapping(path = "/purchases/stream", consumes = APPLICATION_NDJSON, produces = APPLICATION_NDJSON)
+    public void streamPurchases(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        long lineNumber = 0;
+        long orderCount = 0;
+        Deque<CompletableFuture<PurchaseResultLine>> inFlight = new ArrayDeque<>();
+        try (BufferedReader reader = request.getReader()) {
+            OutputStream out = response.getOutputStream();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                orderCount++;
+                if (purchaseEngine == null) {
+                    write(out, purchase(lineNumber, line));
+                    continue;
+                }
+                inFlight.add(submit(lineNumber, line, inFlight, out));
+                while (!inFlight.isEmpty() && (inFlight.size() >= MAX_ORDERS_IN_FLIGHT || inFlight.peek().isDone())) {
+                    write(out, inFlight.poll().join());
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                write(out, inFlight.poll().join());
+            }
+        }
+        logger.info(COMPLETED_PURCHASE_STREAM, orderCount);
+    }
+
+    private PurchaseResultLine purchase(long lineNumber, String line) {
+        PurchaseOrder purchaseOrder = read(lineNumber, line);
+        if (purchaseOrder == null) {
+            return PurchaseResultLine.rejected(lineNumber, RejectionReason.MALFORMED_PURCHASE_ORDER);
+        }
+        PurchaseResult purchaseResult = ticketService.tryPurchase(purchaseOrder.getAccountId(), purchaseOrder.getTicketTypeRequests());
+        return PurchaseResultLine.of(lineNumber, purchaseResult);
+    }
+
+    /**
+     * Submits the order to the purchase engine, writing out earlier orders of the stream while its partition is full.
+     */
+    private CompletableFuture<PurchaseResultLine> submit(long lineNumber, String line,
+                                                         Deque<CompletableFuture<PurchaseResultLine>> inFlight,
+                                                         OutputStream out) throws IOException {
+        PurchaseOrder purchaseOrder = read(lineNumber, line);
+        if (purchaseOrder == null) {
+            return CompletableFuture.completedFuture(PurchaseResultLine.rejected(lineNumber, RejectionReason.MALFORMED_PURCHASE_ORDER));
+        }
+        while (true) {
+            try {
+                return purchaseEngine.submit(purchaseOrder.getAccountId(), purchaseOrder.getTicketTypeRequests())
+                        .thenApply(purchaseResult -> PurchaseResultLine.of(lineNumber, purchaseResult));
+            } catch (RejectedExecutionException e) {
+                if (inFlight.isEmpty()) {
+                    logger.warn(REJECTED_BY_PURCHASE_ENGINE, lineNumber, e.getMessage());
+                    return CompletableFuture.completedFuture(PurchaseResultLine.of(lineNumber,
+                            PurchaseResult.rejected(purchaseOrder.getAccountId(), RejectionReason.PURCHASE_ENGINE_BUSY)));
+                }
+                write(out, inFlight.poll().join());
+            }
+        }
+    }
+
+    /**
+     * @return the order on the line, or null when it could not be read
+     */
+    private PurchaseOrder read(long lineNumber, String line) {
+        try {
+            PurchaseOrderLine orderLine = orderReader.readValue(line);
+            if (orderLine == null) {
+                logger.warn(MALFORMED_PURCHASE_LINE, lineNumber, "null order");
+                return null;
+            }
+            return orderLine.toPurchaseOrder();
+        } catch (JsonProcessingException e) {
+            logger.warn(MALFORMED_PURCHASE_LINE, lineNumber, e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            logger.warn(MALFORMED_PURCHASE_LINE, lineNumber, e.getMessage());
+        }
+        return null;
+    }
+
+    private void write(OutputStream out, PurchaseResultLine resultLine) throws IOException {
+        out.write(resultWriter.writeValueAsBytes(resultLine));
+        out.write(LINE_SEPARATOR);
+        out.flush();
+    }
+}
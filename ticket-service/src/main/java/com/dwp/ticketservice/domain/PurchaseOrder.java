@@ -0,0 +1,27 @@
+package com.dwp.ticketservice.domain;
+
+/**
+ * Immutable Object
+ *
+ * One ticket order of a batch purchase, the account paying for it and the tickets requested.
+ */
+public class PurchaseOrder
+{
+
+    private final Long accountId;
+    private final TicketTypeRequest[] ticketTypeRequests;
+
+    public PurchaseOrder(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        this.accountId = accountId;
+        this.ticketTypeRequests = ticketTypeRequests == null ? null : ticketTypeRequests.clone();
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public TicketTypeRequest[] getTicketTypeRequests() {
+        return ticketTypeRequests == null ? null : ticketTypeRequests.clone();
+    }
+
+}
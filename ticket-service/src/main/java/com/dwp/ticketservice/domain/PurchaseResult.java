@@ -0,0 +1,81 @@
+package com.dwp.ticketservice.domain;
+
+/**
+ * Immutable Object
+ *
+ * Outcome of one ticket order. An accepted order carries the amount paid and the seats reserved,
+ * a rejected or failed order carries the reason it was not completed, and a rejected order its reason code.
+ * An order whose payment may or may not have been taken is unknown until it is checked with the payment provider.
+ */
+public class PurchaseResult
+{
+
+    private final Long accountId;
+    private final Status status;
+    private final String reason;
+    private final RejectionReason rejectionReason;
+    private final int totalTicketCost;
+    private final int totalSeatCount;
+
+    public enum Status {
+        ACCEPTED, REJECTED, FAILED, UNKNOWN
+    }
+
+    private PurchaseResult(Long accountId, Status status, String reason, RejectionReason rejectionReason,
+                           int totalTicketCost, int totalSeatCount) {
+        this.accountId = accountId;
+        this.status = status;
+        this.reason = reason;
+        this.rejectionReason = rejectionReason;
+        this.totalTicketCost = totalTicketCost;
+        this.totalSeatCount = totalSeatCount;
+    }
+
+    public static PurchaseResult accepted(Long accountId, int totalTicketCost, int totalSeatCount) {
+        return new PurchaseResult(accountId, Status.ACCEPTED, null, null, totalTicketCost, totalSeatCount);
+    }
+
+    public static PurchaseResult rejected(Long accountId, RejectionReason rejectionReason) {
+        return new PurchaseResult(accountId, Status.REJECTED, rejectionReason.getMessage(), rejectionReason, 0, 0);
+    }
+
+    public static PurchaseResult failed(Long accountId, String reason) {
+        return new PurchaseResult(accountId, Status.FAILED, reason, null, 0, 0);
+    }
+
+    public static PurchaseResult unknown(Long accountId, String reason) {
+        return new PurchaseResult(accountId, Status.UNKNOWN, reason, null, 0, 0);
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isAccepted() {
+        return status == Status.ACCEPTED;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * @return the reason code of a rejected order, null otherwise
+     */
+    public RejectionReason getRejectionReason() {
+        return rejectionReason;
+    }
+
+    public int getTotalTicketCost() {
+        return totalTicketCost;
+    }
+
+    public int getTotalSeatCount() {
+        return totalSeatCount;
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.dwp.ticketservice.domain;
+
+import com.dwp.ticketservice.component.TicketServiceMessageHandler;
+import com.dwp.ticketservice.exception.InvalidPurchaseException;
+
+/**
+ * Reason code of a rejected purchase, one per {@code TicketServiceMessageHandler} message.
+ *
+ * Each reason holds one preallocated InvalidPurchaseException without a stack trace, thrown by every purchase
+ * rejected for that reason, so a rejection costs no more than an accepted purchase.
+ */
+public enum RejectionReason {
+
+    NO_TICKETS_REQUESTED(TicketServiceMessageHandler.NO_TICKETS_REQUESTED, "no_tickets_requested"),
+    INVALID_ACCOUNT_ID(TicketServiceMessageHandler.INVALID_ACCOUNT_ID, "invalid_account_id"),
+    MISSING_ADULT_TICKET(TicketServiceMessageHandler.MISSING_ADULT_TICKET, "missing_adult_ticket"),
+    EXCEEDED_TICKET_LIMIT(TicketServiceMessageHandler.EXCEEDED_TICKET_LIMIT, "exceeded_ticket_limit"),
+    SEATS_UNAVAILABLE(TicketServiceMessageHandler.SEATS_UNAVAILABLE, "seats_unavailable"),
+    EXCEEDED_ROLLING_TICKET_LIMIT(TicketServiceMessageHandler.EXCEEDED_ROLLING_TICKET_LIMIT, "exceeded_rolling_ticket_limit"),
+    EXCEEDED_SPEND_CAP(TicketServiceMessageHandler.EXCEEDED_SPEND_CAP, "exceeded_spend_cap"),
+    MALFORMED_PURCHASE_ORDER(TicketServiceMessageHandler.MALFORMED_PURCHASE_ORDER, "malformed_purchase_order"),
+    OVER_CONCURRENCY_LIMIT(TicketServiceMessageHandler.OVER_CONCURRENCY_LIMIT, "over_concurrency_limit"),
+    ACCOUNT_RATE_LIMITED(TicketServiceMessageHandler.ACCOUNT_RATE_LIMITED, "account_rate_limited"),
+    PURCHASE_ENGINE_BUSY(TicketServiceMessageHandler.PURCHASE_ENGINE_BUSY, "purchase_engine_busy"),
+    IDEMPOTENCY_KEY_REUSED(TicketServiceMessageHandler.IDEMPOTENCY_KEY_REUSED, "idempotency_key_reused");
+
+    private final String message;
+    private final String tag;
+    private final InvalidPurchaseException exception;
+
+    RejectionReason(String message, String tag) {
+        this.message = message;
+        this.tag = tag;
+        this.exception = new InvalidPurchaseException(this);
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the reason as a metric tag
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * @return true when the purchase was shed for lack of capacity rather than judged, so a retry may be accepted
+     */
+    public boolean isRetryable() {
+        return this == OVER_CONCURRENCY_LIMIT || this == ACCOUNT_RATE_LIMITED || this == PURCHASE_ENGINE_BUSY;
+    }
+
+    /**
+     * @return the shared stackless exception of this reason
+     */
+    public InvalidPurchaseException exception() {
+        return exception;
+    }
+}
@@ -0,0 +1,57 @@
+package com.dwp.ticketservice.domain;
+
+/**
+ * Immutable Object
+ *
+ * Price and seat count of one mix of adult, child and infant tickets, or the reason the mix cannot be purchased.
+ */
+public class TicketQuote
+{
+
+    private final boolean valid;
+    private final RejectionReason rejectionReason;
+    private final int totalTicketCount;
+    private final int totalTicketCost;
+    private final int totalSeatCount;
+
+    private TicketQuote(boolean valid, RejectionReason rejectionReason, int totalTicketCount, int totalTicketCost, int totalSeatCount) {
+        this.valid = valid;
+        this.rejectionReason = rejectionReason;
+        this.totalTicketCount = totalTicketCount;
+        this.totalTicketCost = totalTicketCost;
+        this.totalSeatCount = totalSeatCount;
+    }
+
+    public static TicketQuote valid(int totalTicketCount, int totalTicketCost, int totalSeatCount) {
+        return new TicketQuote(true, null, totalTicketCount, totalTicketCost, totalSeatCount);
+    }
+
+    public static TicketQuote invalid(RejectionReason rejectionReason) {
+        return new TicketQuote(false, rejectionReason, 0, 0, 0);
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public String getReason() {
+        return rejectionReason == null ? null : rejectionReason.getMessage();
+    }
+
+    public RejectionReason getRejectionReason() {
+        return rejectionReason;
+    }
+
+    public int getTotalTicketCount() {
+        return totalTicketCount;
+    }
+
+    public int getTotalTicketCost() {
+        return totalTicketCost;
+    }
+
+    public int getTotalSeatCount() {
+        return totalSeatCount;
+    }
+
+}
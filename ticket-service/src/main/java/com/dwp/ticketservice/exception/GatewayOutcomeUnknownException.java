@@ -0,0 +1,29 @@
+package com.dwp.ticketservice.exception;
+
+/**
+ * Exception thrown when a gateway call was sent but stopped being waited for, so it may still have gone through.
+ *
+ * This runtime exception is thrown when the call times out or the waiting thread is interrupted. Unlike the other
+ * GatewayUnavailableExceptions it does not mean the call was not made, so the caller must not treat it as failed.
+ */
+public class GatewayOutcomeUnknownException extends GatewayUnavailableException {
+
+    /**
+     * Constructs a new GatewayOutcomeUnknownException with the specified detail message.
+     *
+     * @param message the detail message that explains the exception
+     */
+    public GatewayOutcomeUnknownException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new GatewayOutcomeUnknownException with the specified detail message and cause.
+     *
+     * @param message the detail message that explains the exception
+     * @param cause the failure of the gateway call
+     */
+    public GatewayOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,30 @@
+package com.dwp.ticketservice.exception;
+
+/**
+ * Exception thrown when a payment or seat reservation gateway call is refused or abandoned
+ * to protect the ticket service from a slow or failing gateway.
+ *
+ * This runtime exception is thrown when the call times out, when too many calls to the gateway
+ * are already in flight, or when the circuit breaker of the gateway is open.
+ */
+public class GatewayUnavailableException extends RuntimeException {
+
+    /**
+     * Constructs a new GatewayUnavailableException with the specified detail message.
+     *
+     * @param message the detail message that explains the exception
+     */
+    public GatewayUnavailableException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new GatewayUnavailableException with the specified detail message and cause.
+     *
+     * @param message the detail message that explains the exception
+     * @param cause the failure of the gateway call
+     */
+    public GatewayUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
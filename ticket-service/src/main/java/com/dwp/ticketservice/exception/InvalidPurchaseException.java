@@ -1,5 +1,7 @@
 package com.dwp.ticketservice.exception;
 
+import com.dwp.ticketservice.domain.RejectionReason;
+
 /**
  * Exception thrown when a ticket purchase violates business rules and constraints
  *
@@ -8,6 +10,8 @@ package com.dwp.ticketservice.exception;
  */
 public class InvalidPurchaseException extends RuntimeException {
 
+    private final RejectionReason rejectionReason;
+
     /**
      * Constructs a new InvalidPurchaseException with the specified detail message.
      *
@@ -15,5 +19,24 @@ public class InvalidPurchaseException extends RuntimeException {
      */
     public InvalidPurchaseException(String message) {
         super(message);
+        this.rejectionReason = null;
+    }
+
+    /**
+     * Constructs the shared InvalidPurchaseException of a rejection reason. It has no stack trace and no suppressed
+     * exceptions, so one instance can be thrown by every purchase rejected for the reason.
+     *
+     * @param rejectionReason the reason code whose message explains the exception
+     */
+    public InvalidPurchaseException(RejectionReason rejectionReason) {
+        super(rejectionReason.getMessage(), null, false, false);
+        this.rejectionReason = rejectionReason;
+    }
+
+    /**
+     * @return the reason code of the rejection, or null when the exception was created from a message only
+     */
+    public RejectionReason getRejectionReason() {
+        return rejectionReason;
     }
 }
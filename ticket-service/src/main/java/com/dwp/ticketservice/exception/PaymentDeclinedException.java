@@ -0,0 +1,19 @@
+package com.dwp.ticketservice.exception;
+
+/**
+ * Exception thrown when the payment gateway refuses the payment of one account, for example for a declined card.
+ *
+ * This runtime exception is an answer from a healthy payment gateway, so it does not count towards its circuit breaker.
+ * No payment is taken when it is thrown.
+ */
+public class PaymentDeclinedException extends RuntimeException {
+
+    /**
+     * Constructs a new PaymentDeclinedException with the specified detail message.
+     *
+     * @param message the detail message that explains the exception
+     */
+    public PaymentDeclinedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.dwp.ticketservice.exception;
+
+/**
+ * Exception thrown when a purchase stops without knowing whether its payment was taken.
+ *
+ * This runtime exception is thrown when the payment gateway call timed out. The purchase is journaled as in doubt,
+ * so it is checked with the payment provider and refunded if the payment went through.
+ */
+public class PaymentOutcomeUnknownException extends RuntimeException {
+
+    /**
+     * Constructs a new PaymentOutcomeUnknownException with the specified detail message and cause.
+     *
+     * @param message the detail message that explains the exception
+     * @param cause the gateway call whose outcome is unknown
+     */
+    public PaymentOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
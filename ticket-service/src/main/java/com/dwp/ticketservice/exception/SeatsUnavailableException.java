@@ -0,0 +1,19 @@
+package com.dwp.ticketservice.exception;
+
+/**
+ * Exception thrown when a seat reservation asks for more seats than the performance has left.
+ *
+ * This runtime exception is thrown by the seat inventory instead of overbooking the performance,
+ * no seats are reserved when it is thrown.
+ */
+public class SeatsUnavailableException extends RuntimeException {
+
+    /**
+     * Constructs a new SeatsUnavailableException with the specified detail message.
+     *
+     * @param message the detail message that explains the exception
+     */
+    public SeatsUnavailableException(String message) {
+        super(message);
+    }
+}
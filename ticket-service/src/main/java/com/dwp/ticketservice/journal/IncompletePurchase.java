@@ -0,0 +1,83 @@
+package com.dwp.ticketservice.journal;
+
+/**
+ * Immutable Object
+ *
+ * A purchase found in the journal without a final outcome.
+ */
+public class IncompletePurchase
+{
+
+    private final long purchaseId;
+    private final long accountId;
+    private final int totalTicketCost;
+    private final int totalSeatCount;
+    private final boolean paymentTaken;
+    private final boolean seatsReserved;
+    private final boolean paymentUnknown;
+
+    public IncompletePurchase(long purchaseId, long accountId, int totalTicketCost, int totalSeatCount, boolean paymentTaken,
+                              boolean seatsReserved) {
+        this(purchaseId, accountId, totalTicketCost, totalSeatCount, paymentTaken, seatsReserved, false);
+    }
+
+    public IncompletePurchase(long purchaseId, long accountId, int totalTicketCost, int totalSeatCount, boolean paymentTaken,
+                              boolean seatsReserved, boolean paymentUnknown) {
+        this.purchaseId = purchaseId;
+        this.accountId = accountId;
+        this.totalTicketCost = totalTicketCost;
+        this.totalSeatCount = totalSeatCount;
+        this.paymentTaken = paymentTaken;
+        this.seatsReserved = seatsReserved;
+        this.paymentUnknown = paymentUnknown;
+    }
+
+    IncompletePurchase withPaymentTaken() {
+        return new IncompletePurchase(purchaseId, accountId, totalTicketCost, totalSeatCount, true, seatsReserved, paymentUnknown);
+    }
+
+    IncompletePurchase withSeatsReserved() {
+        return new IncompletePurchase(purchaseId, accountId, totalTicketCost, totalSeatCount, paymentTaken, true, paymentUnknown);
+    }
+
+    IncompletePurchase withPaymentUnknown() {
+        return new IncompletePurchase(purchaseId, accountId, totalTicketCost, totalSeatCount, paymentTaken, seatsReserved, true);
+    }
+
+    public long getPurchaseId() {
+        return purchaseId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getTotalTicketCost() {
+        return totalTicketCost;
+    }
+
+    public int getTotalSeatCount() {
+        return totalSeatCount;
+    }
+
+    /**
+     * @return true if the payment is known to be taken, false if the purchase stopped before the payment was confirmed
+     */
+    public boolean isPaymentTaken() {
+        return paymentTaken;
+    }
+
+    /**
+     * @return true if the seats are known to be reserved
+     */
+    public boolean isSeatsReserved() {
+        return seatsReserved;
+    }
+
+    /**
+     * @return true if the payment gateway call timed out, so only the payment provider can tell whether it was taken
+     */
+    public boolean isPaymentUnknown() {
+        return paymentUnknown;
+    }
+}
@@ -0,0 +1,331 @@
+package com.dwp.ticketservice.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Purchase journal written to memory-mapped, append-only segment files.
+ *
+ * Records have a fixed size of 32 bytes and carry a checksum, so replay stops cleanly at a record torn by a crash.
+ * Every open of the journal starts a new segment, so a torn tail is never written over, and a segment
+ * is rolled when full, keeping only the newest retained segments.
+ *
+ * Fsyncs are group committed. A single flusher thread forces the current segment to disk while writers keep appending,
+ * and every writer waiting for durability is released by the first force that covers its record. The cost of one
+ * fsync is shared by all the purchases that arrived while the previous one ran.
+ */
+public class MappedPurchaseJournal implements PurchaseJournal, Closeable {
+
+    static final int RECORD_SIZE = 32;
+    static final String SEGMENT_PREFIX = "purchase-journal-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final byte INTENT = 1;
+    private static final byte PAYMENT_TAKEN = 2;
+    private static final byte COMPLETED = 3;
+    private static final byte FAILED = 4;
+    private static final byte SEATS_RESERVED = 5;
+    private static final byte PAYMENT_UNKNOWN = 6;
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int retainedSegments;
+    private final List<IncompletePurchase> incompletePurchases;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition recordAppended = lock.newCondition();
+    private final Condition recordsFlushed = lock.newCondition();
+    private final Thread flusher;
+
+    // Guarded by lock
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private int segmentRecords;
+    private long nextPurchaseId;
+    private long appendedRecords;
+    private long durableRecords;
+    private RuntimeException flushFailure;
+    private boolean closed;
+
+    private MappedPurchaseJournal(Path directory, int recordsPerSegment, int retainedSegments,
+                                  List<IncompletePurchase> incompletePurchases, long nextPurchaseId, long segmentIndex) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.retainedSegments = retainedSegments;
+        this.incompletePurchases = incompletePurchases;
+        this.nextPurchaseId = nextPurchaseId;
+        this.segmentIndex = segmentIndex;
+        this.segment = mapSegment(segmentIndex);
+        this.flusher = new Thread(this::flushLoop, "purchase-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Replays the segments found in the directory and opens the journal for writing on a new segment.
+     *
+     * @param directory the directory holding the segment files, created if missing
+     * @param segmentSize the size of one segment file in bytes
+     * @param retainedSegments the number of newest segments kept on disk, older ones are deleted when a segment is rolled
+     */
+    public static MappedPurchaseJournal open(Path directory, long segmentSize, int retainedSegments) throws IOException {
+        if (segmentSize < RECORD_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between " + RECORD_SIZE + " and " + Integer.MAX_VALUE + " bytes");
+        }
+        if (retainedSegments <= 0) {
+            throw new IllegalArgumentException("At least one segment must be retained");
+        }
+        Files.createDirectories(directory);
+        Map<Long, IncompletePurchase> incomplete = new LinkedHashMap<>();
+        long lastPurchaseId = 0L;
+        long lastSegmentIndex = -1L;
+        for (Path segmentFile : listSegments(directory)) {
+            lastPurchaseId = Math.max(lastPurchaseId, replaySegment(segmentFile, incomplete));
+            lastSegmentIndex = segmentIndexOf(segmentFile);
+        }
+        return new MappedPurchaseJournal(directory, (int) (segmentSize / RECORD_SIZE), retainedSegments,
+                Collections.unmodifiableList(new ArrayList<>(incomplete.values())), lastPurchaseId + 1, lastSegmentIndex + 1);
+    }
+
+    @Override
+    public long recordIntent(long accountId, int totalTicketCost, int totalSeatCount) {
+        long purchaseId;
+        long recordNumber;
+        lock.lock();
+        try {
+            purchaseId = nextPurchaseId++;
+            recordNumber = append(purchaseId, accountId, totalTicketCost, totalSeatCount, INTENT);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(recordNumber);
+        return purchaseId;
+    }
+
+    @Override
+    public void recordPaymentTaken(long purchaseId) {
+        awaitDurable(appendOutcome(purchaseId, PAYMENT_TAKEN));
+    }
+
+    @Override
+    public void recordSeatsReserved(long purchaseId) {
+        awaitDurable(appendOutcome(purchaseId, SEATS_RESERVED));
+    }
+
+    @Override
+    public void recordPaymentUnknown(long purchaseId) {
+        awaitDurable(appendOutcome(purchaseId, PAYMENT_UNKNOWN));
+    }
+
+    @Override
+    public void recordCompleted(long purchaseId) {
+        appendOutcome(purchaseId, COMPLETED);
+    }
+
+    @Override
+    public void recordFailed(long purchaseId) {
+        appendOutcome(purchaseId, FAILED);
+    }
+
+    @Override
+    public List<IncompletePurchase> getIncompletePurchases() {
+        return incompletePurchases;
+    }
+
+    /**
+     * Stops the flusher once every appended record is durable.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            recordAppended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long appendOutcome(long purchaseId, byte type) {
+        lock.lock();
+        try {
+            return append(purchaseId, 0L, 0, 0, type);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes one record to the current segment, rolling it when full. Called with the lock held.
+     *
+     * @return the number of the record, to wait for its durability with
+     */
+    private long append(long purchaseId, long accountId, int totalTicketCost, int totalSeatCount, byte type) {
+        if (closed) {
+            throw new IllegalStateException("Purchase journal is closed");
+        }
+        if (segmentRecords == recordsPerSegment) {
+            rollSegment();
+        }
+        int offset = segmentRecords * RECORD_SIZE;
+        segment.putLong(offset, purchaseId);
+        segment.putLong(offset + 8, accountId);
+        segment.putInt(offset + 16, totalTicketCost);
+        segment.putInt(offset + 20, totalSeatCount);
+        segment.put(offset + 24, type);
+        segment.putInt(offset + 28, checksum(purchaseId, accountId, totalTicketCost, totalSeatCount, type));
+        segmentRecords++;
+        recordAppended.signal();
+        return ++appendedRecords;
+    }
+
+    /**
+     * Forces the full segment before mapping the next one, so the flusher only ever has the current segment to force.
+     */
+    private void rollSegment() {
+        segment.force();
+        try {
+            segment = mapSegment(++segmentIndex);
+            segmentRecords = 0;
+            for (Path segmentFile : listSegments(directory)) {
+                if (segmentIndexOf(segmentFile) <= segmentIndex - retainedSegments) {
+                    Files.deleteIfExists(segmentFile);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll the purchase journal segment", e);
+        }
+    }
+
+    private void awaitDurable(long recordNumber) {
+        lock.lock();
+        try {
+            while (durableRecords < recordNumber && flushFailure == null) {
+                recordsFlushed.awaitUninterruptibly();
+            }
+            if (durableRecords < recordNumber) {
+                throw flushFailure;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        lock.lock();
+        try {
+            while (true) {
+                while (durableRecords == appendedRecords && !closed) {
+                    recordAppended.awaitUninterruptibly();
+                }
+                if (durableRecords == appendedRecords) {
+                    return;
+                }
+                long flushedRecords = appendedRecords;
+                MappedByteBuffer flushedSegment = segment;
+                lock.unlock();
+                try {
+                    flushedSegment.force();
+                } catch (RuntimeException e) {
+                    flushFailure = new UncheckedIOException(new IOException("Could not force the purchase journal to disk", e));
+                } finally {
+                    lock.lock();
+                }
+                if (flushFailure != null) {
+                    recordsFlushed.signalAll();
+                    return;
+                }
+                durableRecords = flushedRecords;
+                recordsFlushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MappedByteBuffer mapSegment(long index) throws IOException {
+        Path segmentFile = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        }
+    }
+
+    /**
+     * Reads the records of one segment into the incomplete purchases, up to the first empty or torn record.
+     *
+     * @return the highest purchase id in the segment
+     */
+    private static long replaySegment(Path segmentFile, Map<Long, IncompletePurchase> incomplete) throws IOException {
+        long lastPurchaseId = 0L;
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+            ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for (int offset = 0; offset + RECORD_SIZE <= records.limit(); offset += RECORD_SIZE) {
+                long purchaseId = records.getLong(offset);
+                long accountId = records.getLong(offset + 8);
+                int totalTicketCost = records.getInt(offset + 16);
+                int totalSeatCount = records.getInt(offset + 20);
+                byte type = records.get(offset + 24);
+                if (type == 0 || records.getInt(offset + 28) != checksum(purchaseId, accountId, totalTicketCost, totalSeatCount, type)) {
+                    break;
+                }
+                lastPurchaseId = Math.max(lastPurchaseId, purchaseId);
+                if (type == INTENT) {
+                    incomplete.put(purchaseId, new IncompletePurchase(purchaseId, accountId, totalTicketCost, totalSeatCount, false, false));
+                } else if (type == PAYMENT_TAKEN) {
+                    incomplete.computeIfPresent(purchaseId, (id, purchase) -> purchase.withPaymentTaken());
+                } else if (type == SEATS_RESERVED) {
+                    incomplete.computeIfPresent(purchaseId, (id, purchase) -> purchase.withSeatsReserved());
+                } else if (type == PAYMENT_UNKNOWN) {
+                    incomplete.computeIfPresent(purchaseId, (id, purchase) -> purchase.withPaymentUnknown());
+                } else {
+                    incomplete.remove(purchaseId);
+                }
+            }
+        }
+        return lastPurchaseId;
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long segmentIndexOf(Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int checksum(long purchaseId, long accountId, int totalTicketCost, int totalSeatCount, byte type) {
+        long hash = purchaseId * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ accountId) * 0xC2B2AE3D27D4EB4FL;
+        hash = (hash ^ ((long) totalTicketCost << 32 | (totalSeatCount & 0xFFFFFFFFL))) * 0x165667B19E3779F9L;
+        hash = (hash ^ type) * 0x9E3779B97F4A7C15L;
+        int checksum = (int) (hash ^ (hash >>> 32));
+        return checksum == 0 ? 1 : checksum;
+    }
+}
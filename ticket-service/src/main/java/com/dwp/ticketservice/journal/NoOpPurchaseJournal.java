@@ -0,0 +1,45 @@
+package com.dwp.ticketservice.journal;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Journal used when journaling is disabled.
+ */
+final class NoOpPurchaseJournal implements PurchaseJournal {
+
+    static final NoOpPurchaseJournal INSTANCE = new NoOpPurchaseJournal();
+
+    private NoOpPurchaseJournal() {
+    }
+
+    @Override
+    public long recordIntent(long accountId, int totalTicketCost, int totalSeatCount) {
+        return 0L;
+    }
+
+    @Override
+    public void recordPaymentTaken(long purchaseId) {
+    }
+
+    @Override
+    public void recordSeatsReserved(long purchaseId) {
+    }
+
+    @Override
+    public void recordPaymentUnknown(long purchaseId) {
+    }
+
+    @Override
+    public void recordCompleted(long purchaseId) {
+    }
+
+    @Override
+    public void recordFailed(long purchaseId) {
+    }
+
+    @Override
+    public List<IncompletePurchase> getIncompletePurchases() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.dwp.ticketservice.journal;
+
+import java.util.List;
+
+/**
+ * Write-ahead journal of purchases, so a purchase interrupted between the payment and the seat reservation
+ * can be found and finished after a restart.
+ *
+ * The intent of a purchase is journaled before the payment is taken, the payment before the seats are reserved and
+ * the reserved seats before the purchase completes. Each of them is durable by the time the record method returns, as is
+ * a payment whose outcome is unknown, so replay never reserves the seats of a purchase twice. The final outcome of
+ * a purchase is journaled without waiting for it to reach the disk.
+ */
+public interface PurchaseJournal {
+
+    /**
+     * Journals the intent to purchase, before the payment is taken.
+     *
+     * @return the id of the purchase in the journal
+     */
+    long recordIntent(long accountId, int totalTicketCost, int totalSeatCount);
+
+    /**
+     * Journals that the payment of the purchase was taken, before its seats are reserved.
+     */
+    void recordPaymentTaken(long purchaseId);
+
+    /**
+     * Journals that the seats of the purchase were reserved, before the purchase completes.
+     */
+    void recordSeatsReserved(long purchaseId);
+
+    /**
+     * Journals that the payment gateway call of the purchase timed out, so the payment may or may not have been taken.
+     * The purchase stays incomplete, for the reconciler to flag for a check with the payment provider.
+     */
+    void recordPaymentUnknown(long purchaseId);
+
+    void recordCompleted(long purchaseId);
+
+    void recordFailed(long purchaseId);
+
+    /**
+     * @return the purchases found unfinished in the journal when it was opened, oldest first
+     */
+    List<IncompletePurchase> getIncompletePurchases();
+
+    /**
+     * @return a journal that records nothing
+     */
+    static PurchaseJournal noop() {
+        return NoOpPurchaseJournal.INSTANCE;
+    }
+}
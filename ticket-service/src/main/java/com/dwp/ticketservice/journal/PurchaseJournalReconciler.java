@@ -0,0 +1,81 @@
+package com.dwp.ticketservice.journal;
+
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.dwp.ticketservice.component.TicketServiceLogHandler.*;
+
+/**
+ * Finishes the purchases a previous run left incomplete in the journal.
+ *
+ * A purchase whose payment was taken gets its seats reserved, as the customer has paid for them, unless they were
+ * already reserved. A purchase that stopped before its payment was confirmed, or whose payment call timed out, is
+ * marked failed and logged, as only the payment provider can tell whether the payment went through. Seats reserved,
+ * when the gateways are called concurrently, by a purchase that stopped before its payment call returned are
+ * released, as the purchase did not complete. Seats reserved by a purchase whose payment call timed out are kept and
+ * logged with it, as the customer may have paid for them, and the live purchase left them in place too.
+ */
+public class PurchaseJournalReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseJournalReconciler.class);
+
+    private final PurchaseJournal journal;
+    private final SeatReservationService reservationService;
+
+    public PurchaseJournalReconciler(PurchaseJournal journal, SeatReservationService reservationService) {
+        this.journal = journal;
+        this.reservationService = reservationService;
+    }
+
+    /**
+     * @return the number of incomplete purchases reconciled
+     */
+    public int reconcile() {
+        int reconciled = 0;
+        for (IncompletePurchase purchase : journal.getIncompletePurchases()) {
+            if (!purchase.isPaymentTaken() && purchase.isPaymentUnknown()) {
+                if (purchase.isSeatsReserved()) {
+                    logger.error(IN_DOUBT_RESERVED_JOURNALED_PAYMENT, purchase.getPurchaseId(), purchase.getAccountId(),
+                            purchase.getTotalTicketCost(), purchase.getTotalSeatCount());
+                } else {
+                    logger.error(IN_DOUBT_JOURNALED_PAYMENT, purchase.getPurchaseId(), purchase.getAccountId(), purchase.getTotalTicketCost());
+                }
+                journal.recordFailed(purchase.getPurchaseId());
+            } else if (!purchase.isPaymentTaken()) {
+                if (purchase.isSeatsReserved()) {
+                    releaseSeats(purchase);
+                }
+                logger.warn(UNCONFIRMED_JOURNALED_PAYMENT, purchase.getPurchaseId(), purchase.getAccountId(), purchase.getTotalTicketCost());
+                journal.recordFailed(purchase.getPurchaseId());
+            } else if (purchase.isSeatsReserved()) {
+                journal.recordCompleted(purchase.getPurchaseId());
+            } else {
+                try {
+                    reservationService.reserveSeat(purchase.getAccountId(), purchase.getTotalSeatCount());
+                    journal.recordCompleted(purchase.getPurchaseId());
+                    logger.info(RESERVED_JOURNALED_PURCHASE, purchase.getPurchaseId(), purchase.getAccountId(), purchase.getTotalSeatCount());
+                } catch (RuntimeException e) {
+                    journal.recordFailed(purchase.getPurchaseId());
+                    logger.error(UNRESERVED_JOURNALED_PURCHASE, purchase.getPurchaseId(), purchase.getAccountId(),
+                            purchase.getTotalTicketCost(), purchase.getTotalSeatCount(), e);
+                }
+            }
+            reconciled++;
+        }
+        if (reconciled > 0) {
+            logger.info(RECONCILED_JOURNAL, reconciled);
+        }
+        return reconciled;
+    }
+
+    private void releaseSeats(IncompletePurchase purchase) {
+        try {
+            reservationService.releaseSeat(purchase.getAccountId(), purchase.getTotalSeatCount());
+            logger.info(RELEASED_JOURNALED_PURCHASE, purchase.getPurchaseId(), purchase.getAccountId(), purchase.getTotalSeatCount());
+        } catch (RuntimeException e) {
+            logger.error(UNRELEASED_JOURNALED_PURCHASE, purchase.getPurchaseId(), purchase.getAccountId(),
+                    purchase.getTotalSeatCount(), e);
+        }
+    }
+}
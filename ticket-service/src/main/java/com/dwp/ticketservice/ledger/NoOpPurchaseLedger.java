@@ -0,0 +1,28 @@
+package com.dwp.ticketservice.ledger;
+
+import com.dwp.ticketservice.domain.RejectionReason;
+
+/**
+ * Ledger used when rolling purchase limits are disabled.
+ */
+final class NoOpPurchaseLedger implements PurchaseLedger {
+
+    static final NoOpPurchaseLedger INSTANCE = new NoOpPurchaseLedger();
+
+    private NoOpPurchaseLedger() {
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return 0L;
+    }
+
+    @Override
+    public RejectionReason tryRecord(long accountId, int ticketCount, int spend, long timeMillis) {
+        return null;
+    }
+
+    @Override
+    public void release(long accountId, int ticketCount, int spend, long timeMillis) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.dwp.ticketservice.ledger;
+
+import com.dwp.ticketservice.domain.RejectionReason;
+
+/**
+ * Rolling record of the tickets and spend of each account, enforcing limits across purchases rather than per call,
+ * so an order split over many calls is held to the same limits as one order.
+ *
+ * A purchase is recorded before its payment is taken and released again if it fails, so concurrent purchases of
+ * an account cannot all pass the check before any of them is counted. Times are in milliseconds from the clock of
+ * the ledger, and a release passes the time its purchase was recorded at.
+ */
+public interface PurchaseLedger {
+
+    /**
+     * @return the current time of the ledger clock, to record and release a purchase with
+     */
+    long currentTimeMillis();
+
+    /**
+     * Records the tickets and spend of a purchase if they keep the account within its limits over the rolling window.
+     *
+     * @return null when the purchase was recorded, or the limit it would exceed
+     */
+    RejectionReason tryRecord(long accountId, int ticketCount, int spend, long timeMillis);
+
+    /**
+     * Removes a recorded purchase that could not be completed.
+     *
+     * @param timeMillis the time the purchase was recorded at
+     */
+    void release(long accountId, int ticketCount, int spend, long timeMillis);
+
+    /**
+     * @return a ledger that records nothing and accepts every purchase
+     */
+    static PurchaseLedger noop() {
+        return NoOpPurchaseLedger.INSTANCE;
+    }
+}
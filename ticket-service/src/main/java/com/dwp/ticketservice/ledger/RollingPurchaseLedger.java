@@ -0,0 +1,330 @@
+package com.dwp.ticketservice.ledger;
+
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.dwp.ticketservice.service.PartitionedPurchaseEngine;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory purchase ledger holding the tickets and spend of every active account in time buckets over a rolling window.
+ *
+ * Accounts are spread over segments, and each segment is an open-addressing hash map with linear probing, keyed by
+ * the primitive account ID and backed by two arrays: the keys, and the counters of each slot laid out as the last
+ * bucket written followed by the ticket count and spend of every bucket. Recording a purchase of a known account
+ * is a probe and a few array writes, with no boxing and no allocation. A slot takes 8 + 4 * (1 + 2 * buckets) bytes,
+ * 60 bytes with the default 6 buckets, and the tables are kept between 3/8 and 3/4 full.
+ *
+ * When the window is split into buckets, a bucket is cleared as the window rolls past it, so the limits are enforced
+ * over the window to within the length of one bucket. A purchase is written to the bucket of the time it is recorded
+ * at, even when the account has since been written at a later time, so a release passing the same time always takes
+ * it out of the bucket it went into. Accounts with nothing left in the window are dropped when
+ * their segment is resized, so memory follows the accounts active in the window rather than every account ever seen.
+ *
+ * Each segment is guarded by its own lock. Accounts are spread over the segments with the partition hash of
+ * {@link PartitionedPurchaseEngine}, so when the segment count is a multiple of the engine partition count every
+ * segment is only used by one partition worker and its lock is never contended.
+ */
+public class RollingPurchaseLedger implements PurchaseLedger {
+
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+    private static final long MIN_BUCKET_MILLIS = 1_000L;
+
+    private final Segment[] segments;
+    private final int bucketCount;
+    private final int stride;
+    private final long bucketMillis;
+    private final int maxTicketCount;
+    private final int maxSpend;
+    private final LongSupplier millisClock;
+    private final long startMillis;
+
+    /**
+     * @param segmentCount the number of independently locked segments
+     * @param window the rolling window the limits apply to
+     * @param bucketCount the number of buckets the window is split into
+     * @param maxTicketCount the most tickets an account may buy within the window, 0 for no limit
+     * @param maxSpend the most an account may spend within the window, 0 for no limit
+     */
+    public RollingPurchaseLedger(int segmentCount, Duration window, int bucketCount, int maxTicketCount, int maxSpend) {
+        this(segmentCount, window, bucketCount, maxTicketCount, maxSpend, System::currentTimeMillis);
+    }
+
+    public RollingPurchaseLedger(int segmentCount, Duration window, int bucketCount, int maxTicketCount, int maxSpend,
+                                 LongSupplier millisClock) {
+        if (segmentCount < 1 || bucketCount < 1) {
+            throw new IllegalArgumentException("Segment and bucket counts must be at least 1");
+        }
+        if (window.toMillis() / bucketCount < MIN_BUCKET_MILLIS) {
+            throw new IllegalArgumentException("Ledger buckets must be at least 1 second long, got " + window + " in " + bucketCount + " buckets");
+        }
+        if (maxTicketCount < 0 || maxSpend < 0) {
+            throw new IllegalArgumentException("Ledger limits must not be negative");
+        }
+        this.bucketCount = bucketCount;
+        this.stride = 1 + 2 * bucketCount;
+        this.bucketMillis = window.toMillis() / bucketCount;
+        this.maxTicketCount = maxTicketCount;
+        this.maxSpend = maxSpend;
+        this.millisClock = millisClock;
+        this.startMillis = millisClock.getAsLong();
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return millisClock.getAsLong();
+    }
+
+    @Override
+    public RejectionReason tryRecord(long accountId, int ticketCount, int spend, long timeMillis) {
+        requireAccountId(accountId);
+        Segment segment = segmentOf(accountId);
+        synchronized (segment) {
+            return segment.tryRecord(accountId, ticketCount, spend, bucketOf(timeMillis));
+        }
+    }
+
+    @Override
+    public void release(long accountId, int ticketCount, int spend, long timeMillis) {
+        requireAccountId(accountId);
+        Segment segment = segmentOf(accountId);
+        synchronized (segment) {
+            segment.release(accountId, ticketCount, spend, bucketOf(timeMillis));
+        }
+    }
+
+    /**
+     * @return the tickets the account bought within the window ending at the given time
+     */
+    public int ticketCount(long accountId, long timeMillis) {
+        return (int) total(accountId, timeMillis, 1);
+    }
+
+    /**
+     * @return the amount the account spent within the window ending at the given time
+     */
+    public int spend(long accountId, long timeMillis) {
+        return (int) total(accountId, timeMillis, 2);
+    }
+
+    /**
+     * @return the number of accounts held, including ones with nothing left in the window that are not dropped yet
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    private long total(long accountId, long timeMillis, int counterOffset) {
+        requireAccountId(accountId);
+        Segment segment = segmentOf(accountId);
+        synchronized (segment) {
+            return segment.total(accountId, bucketOf(timeMillis), counterOffset);
+        }
+    }
+
+    private Segment segmentOf(long accountId) {
+        return segments[PartitionedPurchaseEngine.partitionOf(accountId, segments.length)];
+    }
+
+    /**
+     * @return the number of whole buckets since the ledger was created, which fits an int as buckets are at least a second
+     */
+    private int bucketOf(long timeMillis) {
+        return (int) (Math.max(0L, timeMillis - startMillis) / bucketMillis);
+    }
+
+    private static void requireAccountId(long accountId) {
+        if (accountId <= 0) {
+            throw new IllegalArgumentException("Account ID must be greater than zero");
+        }
+    }
+
+    /**
+     * One open-addressing table. Account ID 0 marks an empty slot, and slots are never removed one by one,
+     * only left behind when the table is rebuilt, so probing needs no tombstones.
+     */
+    private final class Segment {
+
+        private long[] keys;
+        private int[] counters;
+        private int mask;
+        private int size;
+
+        private Segment() {
+            allocate(INITIAL_SEGMENT_CAPACITY);
+        }
+
+        private RejectionReason tryRecord(long accountId, int ticketCount, int spend, int bucket) {
+            int base = findOrInsert(accountId, bucket) * stride;
+            int lastBucket = roll(base, bucket);
+            long windowTickets = 0;
+            long windowSpend = 0;
+            for (int counter = base + 1; counter < base + stride; counter += 2) {
+                windowTickets += counters[counter];
+                windowSpend += counters[counter + 1];
+            }
+            if (maxTicketCount > 0 && windowTickets + ticketCount > maxTicketCount) {
+                return RejectionReason.EXCEEDED_ROLLING_TICKET_LIMIT;
+            }
+            if (maxSpend > 0 && windowSpend + spend > maxSpend) {
+                return RejectionReason.EXCEEDED_SPEND_CAP;
+            }
+            if (lastBucket - bucket >= bucketCount) {
+                // Older than the window of the account, so it would already have rolled out, and a release skips it too.
+                return null;
+            }
+            int counter = base + 1 + 2 * (bucket % bucketCount);
+            counters[counter] += ticketCount;
+            counters[counter + 1] += spend;
+            return null;
+        }
+
+        private void release(long accountId, int ticketCount, int spend, int bucket) {
+            int slot = find(accountId);
+            if (slot < 0) {
+                return;
+            }
+            int base = slot * stride;
+            int lastBucket = counters[base];
+            if (bucket > lastBucket || lastBucket - bucket >= bucketCount) {
+                return;
+            }
+            int counter = base + 1 + 2 * (bucket % bucketCount);
+            counters[counter] = Math.max(0, counters[counter] - ticketCount);
+            counters[counter + 1] = Math.max(0, counters[counter + 1] - spend);
+        }
+
+        private long total(long accountId, int bucket, int counterOffset) {
+            int slot = find(accountId);
+            if (slot < 0) {
+                return 0L;
+            }
+            int base = slot * stride;
+            int lastBucket = counters[base];
+            int newestBucket = Math.min(bucket, lastBucket);
+            int oldestBucket = Math.max(0, Math.max(bucket, lastBucket) - bucketCount + 1);
+            long total = 0;
+            for (int written = newestBucket; written >= oldestBucket; written--) {
+                total += counters[base + 2 * (written % bucketCount) + counterOffset];
+            }
+            return total;
+        }
+
+        /**
+         * Clears the buckets the window has rolled past since the account was last written.
+         *
+         * @return the last bucket written, which stays ahead of the given bucket when the account was written at a later time
+         */
+        private int roll(int base, int bucket) {
+            int lastBucket = counters[base];
+            if (bucket <= lastBucket) {
+                return lastBucket;
+            }
+            int expired = Math.min(bucket - lastBucket, bucketCount);
+            for (int i = 1; i <= expired; i++) {
+                int counter = base + 1 + 2 * ((lastBucket + i) % bucketCount);
+                counters[counter] = 0;
+                counters[counter + 1] = 0;
+            }
+            counters[base] = bucket;
+            return bucket;
+        }
+
+        private int find(long accountId) {
+            for (int slot = slotOf(accountId); ; slot = (slot + 1) & mask) {
+                long key = keys[slot];
+                if (key == accountId) {
+                    return slot;
+                }
+                if (key == 0L) {
+                    return -1;
+                }
+            }
+        }
+
+        private int findOrInsert(long accountId, int bucket) {
+            int slot = find(accountId);
+            if (slot >= 0) {
+                return slot;
+            }
+            if (size + 1 > (mask + 1) - ((mask + 1) >>> 2)) {
+                rebuild(bucket);
+            }
+            slot = slotOf(accountId);
+            while (keys[slot] != 0L) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = accountId;
+            counters[slot * stride] = bucket;
+            size++;
+            return slot;
+        }
+
+        /**
+         * Rebuilds the table at twice the number of accounts still in the window, dropping the others,
+         * so a table holding mostly expired accounts shrinks instead of growing.
+         */
+        private void rebuild(int bucket) {
+            long[] oldKeys = keys;
+            int[] oldCounters = counters;
+            int live = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != 0L && isLive(oldCounters[slot * stride], bucket)) {
+                    live++;
+                }
+            }
+            int capacity = INITIAL_SEGMENT_CAPACITY;
+            while (capacity < (live + 1) * 2) {
+                capacity <<= 1;
+            }
+            allocate(capacity);
+            for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+                long accountId = oldKeys[oldSlot];
+                if (accountId == 0L || !isLive(oldCounters[oldSlot * stride], bucket)) {
+                    continue;
+                }
+                int slot = slotOf(accountId);
+                while (keys[slot] != 0L) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = accountId;
+                System.arraycopy(oldCounters, oldSlot * stride, counters, slot * stride, stride);
+                size++;
+            }
+        }
+
+        private boolean isLive(int lastBucket, int bucket) {
+            return bucket - lastBucket < bucketCount;
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            counters = new int[capacity * stride];
+            mask = capacity - 1;
+            size = 0;
+        }
+
+        /**
+         * Mixes the account ID again, as the segment was picked with the low bits of the partition hash.
+         */
+        private int slotOf(long accountId) {
+            long hash = accountId;
+            hash ^= hash >>> 33;
+            hash *= 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 33;
+            hash *= 0xC4CEB9FE1A85EC53L;
+            hash ^= hash >>> 33;
+            return (int) hash & mask;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.dwp.ticketservice.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets at most a fixed number of log lines through per second and counts the lines it held back,
+ * so a burst of bad requests cannot flood the log.
+ *
+ * Lock-free and allocation free. Two threads starting a new second at the same time may let a few extra lines through.
+ */
+public class LogRateLimiter {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int linesPerSecond;
+    private final LongSupplier nanoClock;
+    private final AtomicLong windowStartNanos;
+    private final AtomicInteger windowLines = new AtomicInteger();
+    private final LongAdder suppressedLines = new LongAdder();
+
+    public LogRateLimiter(int linesPerSecond) {
+        this(linesPerSecond, System::nanoTime);
+    }
+
+    public LogRateLimiter(int linesPerSecond, LongSupplier nanoClock) {
+        if (linesPerSecond < 0) {
+            throw new IllegalArgumentException("Lines per second must not be negative");
+        }
+        this.linesPerSecond = linesPerSecond;
+        this.nanoClock = nanoClock;
+        this.windowStartNanos = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * @return true if the line may be logged, false if it is held back and counted
+     */
+    public boolean tryAcquire() {
+        long nowNanos = nanoClock.getAsLong();
+        long startNanos = windowStartNanos.get();
+        if (nowNanos - startNanos >= WINDOW_NANOS && windowStartNanos.compareAndSet(startNanos, nowNanos)) {
+            windowLines.set(0);
+        }
+        if (windowLines.get() < linesPerSecond && windowLines.incrementAndGet() <= linesPerSecond) {
+            return true;
+        }
+        suppressedLines.increment();
+        return false;
+    }
+
+    /**
+     * @return the number of lines held back since the last call
+     */
+    public long takeSuppressed() {
+        return suppressedLines.sumThenReset();
+    }
+}
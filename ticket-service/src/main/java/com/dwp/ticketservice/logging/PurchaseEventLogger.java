@@ -0,0 +1,163 @@
+package com.dwp.ticketservice.logging;
+
+import com.dwp.ticketservice.metrics.PurchaseStage;
+import com.dwp.ticketservice.metrics.StageTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes one structured summary event per purchase when the service logs in summary mode.
+ *
+ * The event carries a keyed hash of the account ID instead of the ID itself, the ticket mix, cost, seats, outcome
+ * and the time of each stage, in logfmt so it can be parsed without a schema. Events go to the
+ * {@value #EVENT_LOGGER} logger, which logback-spring.xml routes through an asynchronous appender with
+ * a bounded queue and buffered file writes, so the request thread never waits on the disk.
+ *
+ * In summary mode the per-stage log lines of a purchase are only written for the sampled fraction of purchases.
+ * In verbose mode every per-stage line is written as before and no summary event is written.
+ *
+ * In both modes the log line of a rejected purchase is written at most the rejection log rate per second.
+ */
+public class PurchaseEventLogger {
+
+    public static final String EVENT_LOGGER = "ticket-purchase-events";
+
+    private static final Logger eventLogger = LoggerFactory.getLogger(EVENT_LOGGER);
+    private static final String ACCOUNT_HASH_ALGORITHM = "HmacSHA256";
+    private static final int MIN_ACCOUNT_HASH_KEY_LENGTH = 16;
+    private static final String PURCHASE_EVENT = "purchase account={} adult={} child={} infant={} cost={} seats={} outcome={} reason=\"{}\""
+            + " validation_us={} grouping_us={} business_rules_us={} cost_calculation_us={} payment_us={} reservation_us={}";
+
+    public enum Mode {
+        VERBOSE, SUMMARY
+    }
+
+    public enum Outcome {
+        ACCEPTED, REJECTED, FAILED, UNKNOWN
+    }
+
+    private final Mode mode;
+    private final double stageSampleRate;
+    private final ThreadLocal<Mac> accountHashMac;
+    private final LogRateLimiter rejectionLogLimiter;
+
+    public PurchaseEventLogger(Mode mode, double stageSampleRate, String accountHashKey) {
+        this(mode, stageSampleRate, accountHashKey, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param accountHashKey the secret the account IDs of summary events are hashed with, required in summary mode
+     */
+    public PurchaseEventLogger(Mode mode, double stageSampleRate, String accountHashKey, int rejectionLogRate) {
+        if (stageSampleRate < 0.0 || stageSampleRate > 1.0) {
+            throw new IllegalArgumentException("Stage sample rate must be between 0 and 1");
+        }
+        if (mode == Mode.SUMMARY && (accountHashKey == null || accountHashKey.length() < MIN_ACCOUNT_HASH_KEY_LENGTH)) {
+            throw new IllegalArgumentException("Summary mode needs an account hash key of at least "
+                    + MIN_ACCOUNT_HASH_KEY_LENGTH + " characters");
+        }
+        this.mode = mode;
+        this.stageSampleRate = stageSampleRate;
+        this.accountHashMac = accountHashKey == null ? null : accountHashMac(accountHashKey);
+        this.rejectionLogLimiter = new LogRateLimiter(rejectionLogRate);
+    }
+
+    /**
+     * Logs every stage line of every purchase and no summary events, the behaviour before summary mode existed.
+     */
+    public static PurchaseEventLogger verbose() {
+        return new PurchaseEventLogger(Mode.VERBOSE, 1.0, null);
+    }
+
+    public boolean isSummaryMode() {
+        return mode == Mode.SUMMARY;
+    }
+
+    /**
+     * Decides once per purchase whether its per-stage log lines are written.
+     */
+    public boolean sampleStageLogging() {
+        if (mode == Mode.VERBOSE || stageSampleRate >= 1.0) {
+            return true;
+        }
+        return stageSampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < stageSampleRate;
+    }
+
+    /**
+     * Decides whether the log line of a rejected purchase is written.
+     */
+    public boolean sampleRejectionLogging() {
+        return rejectionLogLimiter.tryAcquire();
+    }
+
+    /**
+     * @return the number of rejected purchases not logged since the last call
+     */
+    public long takeUnloggedRejections() {
+        return rejectionLogLimiter.takeSuppressed();
+    }
+
+    /**
+     * Writes the summary event of one purchase, in summary mode only.
+     */
+    public void logPurchase(Long accountId, int adultCount, int childCount, int infantCount, int totalTicketCost,
+                            int totalSeatCount, Outcome outcome, String reason, StageTimings stageTimings) {
+        if (mode != Mode.SUMMARY || !eventLogger.isInfoEnabled()) {
+            return;
+        }
+        eventLogger.info(PURCHASE_EVENT, hashAccount(accountId), adultCount, childCount, infantCount, totalTicketCost,
+                totalSeatCount, outcome, reason == null ? "" : reason,
+                stageTimings.micros(PurchaseStage.VALIDATION), stageTimings.micros(PurchaseStage.GROUPING),
+                stageTimings.micros(PurchaseStage.BUSINESS_RULES), stageTimings.micros(PurchaseStage.COST_CALCULATION),
+                stageTimings.micros(PurchaseStage.PAYMENT), stageTimings.micros(PurchaseStage.RESERVATION));
+    }
+
+    /**
+     * Pseudonymises the account ID with the first 64 bits of its HMAC-SHA256 under the account hash key, stable for
+     * the same key so events of one account can be correlated, but not reversible without the key.
+     */
+    public String hashAccount(Long accountId) {
+        if (accountId == null) {
+            return "none";
+        }
+        if (accountHashMac == null) {
+            throw new IllegalStateException("No account hash key is configured");
+        }
+        Mac mac = accountHashMac.get();
+        long id = accountId;
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            mac.update((byte) (id >>> shift));
+        }
+        byte[] digest = mac.doFinal();
+        long hash = 0L;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash << 8) | (digest[i] & 0xffL);
+        }
+        return Long.toHexString(hash);
+    }
+
+    /**
+     * A Mac is not thread safe, so each thread hashing account IDs gets its own, keyed once.
+     */
+    private static ThreadLocal<Mac> accountHashMac(String accountHashKey) {
+        SecretKeySpec key = new SecretKeySpec(accountHashKey.getBytes(StandardCharsets.UTF_8), ACCOUNT_HASH_ALGORITHM);
+        newMac(key);
+        return ThreadLocal.withInitial(() -> newMac(key));
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ACCOUNT_HASH_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot create the " + ACCOUNT_HASH_ALGORITHM + " account hash", e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.dwp.ticketservice.metrics;
+
+import com.dwp.ticketservice.domain.RejectionReason;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer timers and counters for the purchase pipeline.
+ *
+ * Every stage has its own timer with a percentile histogram, so the Prometheus endpoint shows whether
+ * purchase time goes to the ticket service itself or to the payment and reservation gateways.
+ * Purchases are counted by outcome, and rejections by their reason code.
+ *
+ * All meters are registered up front, recording a stage or a rejection is a lookup and an update only.
+ * Stage times are also kept per thread for the purchase in progress, see {@link #startPurchase()}.
+ */
+public class PurchaseMetrics {
+
+    public static final String STAGE_TIMER = "ticket.purchase.stage";
+    public static final String PURCHASE_TIMER = "ticket.purchase";
+    public static final String PURCHASE_COUNTER = "ticket.purchases";
+    public static final String REJECTION_COUNTER = "ticket.purchase.rejections";
+    public static final String ADMISSION_LIMIT_GAUGE = "ticket.purchase.admission.limit";
+
+    private static final ThreadLocal<StageTimings> STAGE_TIMINGS = ThreadLocal.withInitial(StageTimings::new);
+
+    private final Timer[] stageTimers = new Timer[PurchaseStage.values().length];
+    private final Timer purchaseTimer;
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private final Counter[] rejectionCounters = new Counter[RejectionReason.values().length];
+
+    public PurchaseMetrics(MeterRegistry meterRegistry) {
+        for (PurchaseStage stage : PurchaseStage.values()) {
+            stageTimers[stage.ordinal()] = Timer.builder(STAGE_TIMER)
+                    .description("Time spent in each stage of a ticket purchase")
+                    .tag("stage", stage.getTag())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        purchaseTimer = Timer.builder(PURCHASE_TIMER)
+                .description("Time spent on a whole ticket purchase")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        acceptedCounter = purchaseCounter(meterRegistry, "accepted");
+        rejectedCounter = purchaseCounter(meterRegistry, "rejected");
+        failedCounter = purchaseCounter(meterRegistry, "failed");
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejectionCounters[reason.ordinal()] = rejectionCounter(meterRegistry, reason.getTag());
+        }
+    }
+
+    /**
+     * Metrics that record nothing, for a ticket service created outside of Spring.
+     */
+    public static PurchaseMetrics noop() {
+        return new PurchaseMetrics(new CompositeMeterRegistry());
+    }
+
+    /**
+     * Clears the stage times of the current thread at the start of a purchase.
+     *
+     * @return the start time of the purchase
+     */
+    public long startPurchase() {
+        STAGE_TIMINGS.get().reset();
+        return System.nanoTime();
+    }
+
+    public long startNanos() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time of a stage that started at the given time.
+     */
+    public void recordStage(PurchaseStage stage, long startNanos) {
+        recordStageTime(stage, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records the time of a stage that ran on another thread against the purchase running on the current thread.
+     */
+    public void recordStageTime(PurchaseStage stage, long elapsedNanos) {
+        stageTimers[stage.ordinal()].record(elapsedNanos, TimeUnit.NANOSECONDS);
+        STAGE_TIMINGS.get().record(stage, elapsedNanos);
+    }
+
+    /**
+     * Returns the stage times recorded on the current thread since the last {@link #startPurchase()}.
+     */
+    public StageTimings currentStageTimings() {
+        return STAGE_TIMINGS.get();
+    }
+
+    /**
+     * Counts an accepted purchase and records the time of the whole purchase that started at the given time.
+     */
+    public void recordAccepted(long purchaseStartNanos) {
+        acceptedCounter.increment();
+        purchaseTimer.record(System.nanoTime() - purchaseStartNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRejected(RejectionReason reason) {
+        rejectedCounter.increment();
+        rejectionCounters[reason.ordinal()].increment();
+    }
+
+    public void recordFailed() {
+        failedCounter.increment();
+    }
+
+    private static Counter purchaseCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(PURCHASE_COUNTER)
+                .description("Ticket purchases by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder(REJECTION_COUNTER)
+                .description("Rejected ticket purchases by reason")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
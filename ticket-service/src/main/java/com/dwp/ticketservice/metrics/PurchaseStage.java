@@ -0,0 +1,23 @@
+package com.dwp.ticketservice.metrics;
+
+/**
+ * Stages of the purchase pipeline, in the order a purchase goes through them.
+ */
+public enum PurchaseStage {
+    VALIDATION("validation"),
+    GROUPING("grouping"),
+    BUSINESS_RULES("business_rules"),
+    COST_CALCULATION("cost_calculation"),
+    PAYMENT("payment"),
+    RESERVATION("reservation");
+
+    private final String tag;
+
+    PurchaseStage(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
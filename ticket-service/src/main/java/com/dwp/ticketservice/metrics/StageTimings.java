@@ -0,0 +1,32 @@
+package com.dwp.ticketservice.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time spent in each stage of the purchase currently running on a thread.
+ *
+ * One instance is reused for every purchase on the same thread, it must not be shared between threads.
+ * A stage that was not reached reads as zero.
+ */
+public final class StageTimings {
+
+    private final long[] stageNanos = new long[PurchaseStage.values().length];
+
+    StageTimings reset() {
+        Arrays.fill(stageNanos, 0L);
+        return this;
+    }
+
+    void record(PurchaseStage stage, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+    }
+
+    public long nanos(PurchaseStage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    public long micros(PurchaseStage stage) {
+        return TimeUnit.NANOSECONDS.toMicros(stageNanos[stage.ordinal()]);
+    }
+}
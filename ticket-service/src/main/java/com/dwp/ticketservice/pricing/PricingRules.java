@@ -0,0 +1,121 @@
+package com.dwp.ticketservice.pricing;
+
+import com.dwp.ticketservice.TicketEnum.TicketInfo;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Immutable ticket prices and ticket limit of one version of the pricing rules.
+ *
+ * The rules are read from a properties file such as:
+ * <pre>
+ * version=2024-summer
+ * adult-price=25
+ * child-price=10
+ * infant-price=0
+ * max-ticket-count=25
+ * </pre>
+ * A missing key keeps the default of {@link TicketInfo}, and a missing version is named after the file's modification time.
+ */
+public final class PricingRules {
+
+    /**
+     * Highest ticket limit accepted, which bounds the quote table precomputed for every ticket mix to about a million quotes.
+     */
+    public static final int MAX_TICKET_COUNT_LIMIT = 100;
+
+    public static final String DEFAULT_VERSION = "default";
+
+    private static final PricingRules DEFAULTS = new PricingRules(DEFAULT_VERSION, TicketInfo.ADULT_PRICE.getInfo(),
+            TicketInfo.CHILD_PRICE.getInfo(), TicketInfo.INFANT_PRICE.getInfo(), TicketInfo.MAX_TICKET_COUNT.getInfo());
+
+    private final String version;
+    private final int adultPrice;
+    private final int childPrice;
+    private final int infantPrice;
+    private final int maxTicketCount;
+
+    /**
+     * @throws IllegalArgumentException when a price is negative or the ticket limit is outside 1 to {@link #MAX_TICKET_COUNT_LIMIT}
+     */
+    public PricingRules(String version, int adultPrice, int childPrice, int infantPrice, int maxTicketCount) {
+        if (adultPrice < 0 || childPrice < 0 || infantPrice < 0) {
+            throw new IllegalArgumentException("Ticket prices must not be negative");
+        }
+        if (maxTicketCount < 1 || maxTicketCount > MAX_TICKET_COUNT_LIMIT) {
+            throw new IllegalArgumentException("Maximum ticket count must be between 1 and " + MAX_TICKET_COUNT_LIMIT);
+        }
+        this.version = version;
+        this.adultPrice = adultPrice;
+        this.childPrice = childPrice;
+        this.infantPrice = infantPrice;
+        this.maxTicketCount = maxTicketCount;
+    }
+
+    /**
+     * @return the rules compiled into {@link TicketInfo}
+     */
+    public static PricingRules defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException when a value is not a number or is out of range
+     */
+    public static PricingRules load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String version = properties.getProperty("version", Files.getLastModifiedTime(file).toString()).trim();
+        return new PricingRules(version,
+                intProperty(properties, "adult-price", DEFAULTS.adultPrice),
+                intProperty(properties, "child-price", DEFAULTS.childPrice),
+                intProperty(properties, "infant-price", DEFAULTS.infantPrice),
+                intProperty(properties, "max-ticket-count", DEFAULTS.maxTicketCount));
+    }
+
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Pricing rule " + key + " is not a number: " + value, e);
+        }
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int getAdultPrice() {
+        return adultPrice;
+    }
+
+    public int getChildPrice() {
+        return childPrice;
+    }
+
+    public int getInfantPrice() {
+        return infantPrice;
+    }
+
+    public int getMaxTicketCount() {
+        return maxTicketCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PricingRules{version=" + version + ", adultPrice=" + adultPrice + ", childPrice=" + childPrice
+                + ", infantPrice=" + infantPrice + ", maxTicketCount=" + maxTicketCount + '}';
+    }
+}
@@ -0,0 +1,104 @@
+package com.dwp.ticketservice.pricing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.dwp.ticketservice.component.TicketServiceLogHandler.*;
+
+/**
+ * Loads the pricing rules from a file and reloads them whenever the file changes.
+ *
+ * The file is polled for a new modification time or size, which also works on mounted config volumes where
+ * file system events are not delivered. Each new version is parsed and validated on the watcher thread and only
+ * then handed to the listener, so a file that does not load leaves the current rules in place until it is fixed.
+ */
+public class PricingRulesWatcher implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingRulesWatcher.class);
+
+    private final Path file;
+    private final Duration pollInterval;
+    private final Consumer<PricingRules> listener;
+    private final ScheduledExecutorService scheduler;
+    private FileTime lastModifiedTime;
+    private long lastSize = -1;
+    private String currentVersion;
+
+    public PricingRulesWatcher(Path file, Duration pollInterval, Consumer<PricingRules> listener) {
+        this.file = file;
+        this.pollInterval = pollInterval;
+        this.listener = listener;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pricing-rules-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the rules once on the calling thread, so they are in place before the first purchase, then starts polling.
+     *
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException when the file holds invalid rules
+     */
+    public void start() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        apply(PricingRules.load(file), attributes);
+        long pollMillis = pollInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reloads the rules if the file changed since the last load or the last failed attempt.
+     *
+     * @return true when new rules were loaded
+     */
+    public synchronized boolean poll() {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            logger.error(INVALID_PRICING_RULES, file, currentVersion, e);
+            return false;
+        }
+        if (Objects.equals(attributes.lastModifiedTime(), lastModifiedTime) && attributes.size() == lastSize) {
+            return false;
+        }
+        try {
+            apply(PricingRules.load(file), attributes);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            lastModifiedTime = attributes.lastModifiedTime();
+            lastSize = attributes.size();
+            logger.error(INVALID_PRICING_RULES, file, currentVersion, e);
+            return false;
+        }
+    }
+
+    private synchronized void apply(PricingRules pricingRules, BasicFileAttributes attributes) {
+        listener.accept(pricingRules);
+        lastModifiedTime = attributes.lastModifiedTime();
+        lastSize = attributes.size();
+        currentVersion = pricingRules.getVersion();
+        logger.info(LOADED_PRICING_RULES, pricingRules.getVersion(), file, pricingRules.getAdultPrice(),
+                pricingRules.getChildPrice(), pricingRules.getInfantPrice(), pricingRules.getMaxTicketCount());
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,43 @@
+package com.dwp.ticketservice.service;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * How a purchase calls the payment and seat reservation gateways.
+ *
+ * Sequential calls take the payment and then reserve the seats, so a purchase takes the sum of both round trips.
+ * Concurrent calls reserve the seats on the reservation executor while the payment is taken, so a purchase takes
+ * the slower of the two, and a purchase where only one side succeeded is compensated by refunding the payment
+ * or releasing the seats.
+ */
+public final class GatewayCalls {
+
+    private static final GatewayCalls SEQUENTIAL = new GatewayCalls(null);
+
+    private final Executor reservationExecutor;
+
+    private GatewayCalls(Executor reservationExecutor) {
+        this.reservationExecutor = reservationExecutor;
+    }
+
+    public static GatewayCalls sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * @param reservationExecutor the executor the seat reservations run on, it must not be the executor running the
+     *                            purchases, or purchases waiting for their reservation could starve it
+     */
+    public static GatewayCalls concurrent(Executor reservationExecutor) {
+        return new GatewayCalls(Objects.requireNonNull(reservationExecutor, "reservationExecutor"));
+    }
+
+    public boolean isConcurrent() {
+        return reservationExecutor != null;
+    }
+
+    Executor getReservationExecutor() {
+        return reservationExecutor;
+    }
+}
@@ -0,0 +1,190 @@
+package com.dwp.ticketservice.service;
+
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.dwp.ticketservice.component.TicketServiceLogHandler.*;
+
+/**
+ * Runs purchases on a fixed set of partitions, each owned by a single worker thread, with every purchase of an
+ * account on the partition its account ID hashes to.
+ *
+ * The purchases of one account therefore run one at a time and in the order they were submitted, and state kept
+ * per account is only ever touched by the worker of its partition, so it needs no locks as long as it is split
+ * the same way, see {@link #partitionOf(long, int)}. Throughput grows with the number of partitions, as each
+ * worker holds one purchase at a time for its whole gateway round trip.
+ *
+ * Each worker takes its purchases from a bounded lock-free queue and parks when the queue is empty.
+ * A purchase submitted to a full queue is refused with a {@link RejectedExecutionException},
+ * so a flood of purchases for some accounts pushes back on their callers instead of piling up in memory.
+ */
+public class PartitionedPurchaseEngine implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedPurchaseEngine.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final TicketService ticketService;
+    private final Partition[] partitions;
+    private volatile boolean closed;
+
+    public PartitionedPurchaseEngine(TicketService ticketService, int partitionCount, int queueCapacity) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be at least 1");
+        }
+        this.ticketService = ticketService;
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, queueCapacity);
+        }
+        for (Partition partition : partitions) {
+            partition.worker.start();
+        }
+        logger.info(STARTED_PURCHASE_ENGINE, partitionCount, partitions[0].queue.capacity());
+    }
+
+    /**
+     * Queues the purchase on the partition of its account.
+     *
+     * @param accountId the account ID of the user purchasing the tickets
+     * @param ticketRequests the array of ticket request (Adult, Child, Infant)
+     * @return a future completed with the outcome of {@link TicketService#tryPurchase} once the worker has run it
+     * @throws RejectedExecutionException if the queue of the partition is full or the engine is closed
+     */
+    public CompletableFuture<PurchaseResult> submit(Long accountId, TicketTypeRequest... ticketRequests) {
+        Partition partition = partitions[partitionOf(accountId == null ? 0L : accountId, partitions.length)];
+        PendingPurchase pendingPurchase = new PendingPurchase(accountId, ticketRequests);
+        partition.submitting.incrementAndGet();
+        try {
+            if (closed) {
+                throw new RejectedExecutionException("Purchase engine is closed");
+            }
+            if (!partition.queue.offer(pendingPurchase)) {
+                throw new RejectedExecutionException("Purchase queue of partition " + partition.index + " is full");
+            }
+        } finally {
+            partition.submitting.decrementAndGet();
+        }
+        partition.wake();
+        return pendingPurchase.result;
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * @return the purchases waiting in the queue of the partition, which may be stale by the time it is read
+     */
+    public int getQueuedPurchases(int partition) {
+        return partitions[partition].queue.size();
+    }
+
+    /**
+     * Spreads account IDs over the partitions, mixing the bits first as consecutive IDs are common.
+     *
+     * @return the partition of the account, from 0 to partitionCount - 1
+     */
+    public static int partitionOf(long accountId, int partitionCount) {
+        long hash = accountId * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        return (int) ((hash & Integer.MAX_VALUE) % partitionCount);
+    }
+
+    /**
+     * Stops taking purchases and waits for the workers to finish the ones already queued.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Partition partition : partitions) {
+            LockSupport.unpark(partition.worker);
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.worker.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static final class PendingPurchase {
+
+        private final Long accountId;
+        private final TicketTypeRequest[] ticketRequests;
+        private final CompletableFuture<PurchaseResult> result = new CompletableFuture<>();
+
+        private PendingPurchase(Long accountId, TicketTypeRequest[] ticketRequests) {
+            this.accountId = accountId;
+            this.ticketRequests = ticketRequests;
+        }
+    }
+
+    /**
+     * One worker thread and its queue. The worker raises its idle flag before its last look at the queue and
+     * a producer reads it after publishing, so either the worker sees the purchase or the producer unparks it.
+     * Producers count themselves in before checking the engine is open, so a closing worker that sees none
+     * submitting and an empty queue cannot strand a purchase.
+     */
+    private final class Partition {
+
+        private final int index;
+        private final BoundedMpscQueue<PendingPurchase> queue;
+        private final Thread worker;
+        private final AtomicInteger submitting = new AtomicInteger();
+        private volatile boolean idle;
+
+        private Partition(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new BoundedMpscQueue<>(queueCapacity);
+            this.worker = new Thread(this::run, "purchase-partition-" + index);
+            this.worker.setDaemon(true);
+        }
+
+        private void wake() {
+            if (idle) {
+                LockSupport.unpark(worker);
+            }
+        }
+
+        private void run() {
+            while (true) {
+                PendingPurchase pendingPurchase = queue.poll();
+                if (pendingPurchase != null) {
+                    purchase(pendingPurchase);
+                    continue;
+                }
+                if (closed && submitting.get() == 0 && queue.isEmpty()) {
+                    return;
+                }
+                idle = true;
+                pendingPurchase = queue.poll();
+                if (pendingPurchase == null && !closed) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                idle = false;
+                if (pendingPurchase != null) {
+                    purchase(pendingPurchase);
+                }
+            }
+        }
+
+        private void purchase(PendingPurchase pendingPurchase) {
+            try {
+                pendingPurchase.result.complete(ticketService.tryPurchase(pendingPurchase.accountId, pendingPurchase.ticketRequests));
+            } catch (RuntimeException e) {
+                pendingPurchase.result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.dwp.ticketservice.service;
+
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.dwp.ticketservice.exception.InvalidPurchaseException;
+import com.dwp.ticketservice.exception.PaymentOutcomeUnknownException;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory record of purchases by idempotency key.
+ *
+ * The first call for a key runs the purchase, any retry with the same key gets the first outcome back,
+ * either normal completion or the same InvalidPurchaseException, without running the purchase again.
+ * A purchase shed for lack of capacity is not a final outcome and is forgotten like a failure.
+ * A purchase whose payment is in doubt is kept, and a retry gets the same PaymentOutcomeUnknownException rather than
+ * taking a second payment, until the purchase journal reconciler settles it.
+ * A purchase that failed any other way is forgotten, so a later retry runs it again
+ * while the calls already waiting on it get its failure. A retry that arrives while the first call is still in flight waits for it instead of racing it,
+ * and a call reusing a key with a different payload is rejected rather than given the outcome of another purchase.
+ *
+ * Completed entries expire after the time to live, and the oldest completed entries are evicted
+ * once the cache grows beyond its maximum size, skipping over the entries still in flight, which are never evicted.
+ */
+public class PurchaseIdempotencyCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoClock;
+
+    public PurchaseIdempotencyCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, System::nanoTime);
+    }
+
+    public PurchaseIdempotencyCache(int maximumSize, Duration timeToLive, LongSupplier nanoClock) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be greater than zero");
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Runs the purchase once per key, and replays its outcome for every later call with the same key.
+     *
+     * @param key the idempotency key, already scoped to the account
+     * @param payloadHash the hash of the purchase request, which a retry with the same key must repeat
+     * @param purchase the purchase to run on the first call
+     * @throws InvalidPurchaseException with {@link RejectionReason#IDEMPOTENCY_KEY_REUSED} when the key was used
+     * for a purchase with a different payload
+     */
+    public void execute(String key, long payloadHash, Runnable purchase) {
+        while (true) {
+            Entry existing = entries.get(key);
+            if (existing != null && existing.isExpired(nanoClock.getAsLong(), timeToLiveNanos)) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (existing == null) {
+                Entry entry = new Entry(key, payloadHash);
+                existing = entries.putIfAbsent(key, entry);
+                if (existing == null) {
+                    insertionOrder.add(entry);
+                    evictOverflow();
+                    run(entry, purchase);
+                    return;
+                }
+            }
+            if (existing.payloadHash != payloadHash) {
+                throw RejectionReason.IDEMPOTENCY_KEY_REUSED.exception();
+            }
+            existing.awaitOutcome();
+            return;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Runs the purchase of a new entry, and removes the entry again unless its outcome is an accepted or
+     * rejected purchase, or a payment in doubt, which are the outcomes a retry must not change.
+     */
+    private void run(Entry entry, Runnable purchase) {
+        try {
+            entry.run(purchase, nanoClock);
+        } catch (InvalidPurchaseException e) {
+            if (e.getRejectionReason() != null && e.getRejectionReason().isRetryable()) {
+                entries.remove(entry.key, entry);
+            }
+            throw e;
+        } catch (PaymentOutcomeUnknownException e) {
+            throw e;
+        } catch (RuntimeException | Error e) {
+            entries.remove(entry.key, entry);
+            throw e;
+        }
+    }
+
+    private void evictOverflow() {
+        long now = nanoClock.getAsLong();
+        Iterator<Entry> oldestFirst = insertionOrder.iterator();
+        while (oldestFirst.hasNext()) {
+            Entry oldest = oldestFirst.next();
+            if (entries.get(oldest.key) != oldest) {
+                oldestFirst.remove();
+                continue;
+            }
+            if (!oldest.isDone()) {
+                continue;
+            }
+            if (entries.size() <= maximumSize && !oldest.isExpired(now, timeToLiveNanos)) {
+                return;
+            }
+            oldestFirst.remove();
+            entries.remove(oldest.key, oldest);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final long payloadHash;
+        private final CompletableFuture<Void> outcome = new CompletableFuture<>();
+        private volatile long completedAtNanos;
+
+        private Entry(String key, long payloadHash) {
+            this.key = key;
+            this.payloadHash = payloadHash;
+        }
+
+        private void run(Runnable purchase, LongSupplier nanoClock) {
+            try {
+                purchase.run();
+                completedAtNanos = nanoClock.getAsLong();
+                outcome.complete(null);
+            } catch (RuntimeException | Error e) {
+                completedAtNanos = nanoClock.getAsLong();
+                outcome.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        private void awaitOutcome() {
+            try {
+                outcome.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+
+        private boolean isDone() {
+            return outcome.isDone();
+        }
+
+        private boolean isExpired(long nowNanos, long timeToLiveNanos) {
+            return outcome.isDone() && nowNanos - completedAtNanos >= timeToLiveNanos;
+        }
+    }
+}
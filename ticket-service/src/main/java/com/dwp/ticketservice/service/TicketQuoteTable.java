@@ -0,0 +1,71 @@
+package com.dwp.ticketservice.service;
+
+import com.dwp.ticketservice.domain.TicketQuote;
+import com.dwp.ticketservice.domain.TicketTypeRequest.Type;
+import com.dwp.ticketservice.pricing.PricingRules;
+
+/**
+ * Precomputed quote for every mix of adult, child and infant tickets up to the maximum ticket count.
+ *
+ * The table is indexed directly by the three counts, so looking up a quote is a single array read.
+ * Any mix with a count above the maximum exceeds the ticket limit and gets the shared exceeded quote.
+ * A table is immutable once built and belongs to one version of the pricing rules, so it is the snapshot
+ * of the rules that a purchase reads.
+ */
+final class TicketQuoteTable {
+
+    /**
+     * Computes the quote of one ticket mix while the table is built.
+     */
+    interface QuoteCalculator {
+        TicketQuote calculate(PricingRules pricingRules, TicketTypeTally ticketTypeTally);
+    }
+
+    private final PricingRules pricingRules;
+    private final int maxTicketCount;
+    private final int dimension;
+    private final TicketQuote exceededQuote;
+    private final TicketQuote[] quotes;
+
+    TicketQuoteTable(PricingRules pricingRules, TicketQuote exceededQuote, QuoteCalculator quoteCalculator) {
+        this.pricingRules = pricingRules;
+        this.maxTicketCount = pricingRules.getMaxTicketCount();
+        this.dimension = maxTicketCount + 1;
+        this.exceededQuote = exceededQuote;
+        this.quotes = new TicketQuote[dimension * dimension * dimension];
+
+        TicketTypeTally ticketTypeTally = new TicketTypeTally();
+        for (int adultCount = 0; adultCount <= maxTicketCount; adultCount++) {
+            for (int childCount = 0; childCount <= maxTicketCount; childCount++) {
+                for (int infantCount = 0; infantCount <= maxTicketCount; infantCount++) {
+                    ticketTypeTally.reset();
+                    ticketTypeTally.add(Type.adult, adultCount);
+                    ticketTypeTally.add(Type.child, childCount);
+                    ticketTypeTally.add(Type.infant, infantCount);
+                    quotes[index(adultCount, childCount, infantCount)] = adultCount + childCount + infantCount > maxTicketCount
+                            ? exceededQuote
+                            : quoteCalculator.calculate(pricingRules, ticketTypeTally);
+                }
+            }
+        }
+    }
+
+    PricingRules getPricingRules() {
+        return pricingRules;
+    }
+
+    TicketQuote lookup(TicketTypeTally ticketTypeTally) {
+        int adultCount = ticketTypeTally.count(Type.adult);
+        int childCount = ticketTypeTally.count(Type.child);
+        int infantCount = ticketTypeTally.count(Type.infant);
+        if ((adultCount | childCount | infantCount) < 0
+                || adultCount > maxTicketCount || childCount > maxTicketCount || infantCount > maxTicketCount) {
+            return exceededQuote;
+        }
+        return quotes[index(adultCount, childCount, infantCount)];
+    }
+
+    private int index(int adultCount, int childCount, int infantCount) {
+        return (adultCount * dimension + childCount) * dimension + infantCount;
+    }
+}
@@ -1,9 +1,15 @@
 package com.dwp.ticketservice.service;
 
+import com.dwp.ticketservice.domain.PurchaseOrder;
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.TicketQuote;
 import com.dwp.ticketservice.exception.InvalidPurchaseException;
 import com.dwp.ticketservice.domain.TicketTypeRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * This is Service interface for handling ticket purchase operations.
  *
@@ -27,5 +33,75 @@ public interface TicketService {
      */
     void purchaseTickets(Long accountId, TicketTypeRequest... ticketRequests) throws InvalidPurchaseException;
 
+    /**
+     * Processes the tickets like {@link #purchaseTickets}, at most once per idempotency key.
+     *
+     * A retry with the same key and account ID gets the outcome of the first call, either normal completion
+     * or the same InvalidPurchaseException, without making the payment or seat reservation again.
+     * A retry that arrives while the first call is still running waits for its outcome. A first call whose payment
+     * is in doubt is replayed to a retry as the same PaymentOutcomeUnknownException, so the payment is never taken
+     * twice. A first call that failed any other way is not remembered, and a key reused with different ticket
+     * requests is rejected.
+     * Without a key the purchase is processed as a new one.
+     *
+     * @param idempotencyKey the client generated key identifying this purchase across retries
+     * @param accountId the account ID of the user purchasing the tickets
+     * @param ticketRequests the array of ticket request (Adult, Child, Infant)
+     * @throws InvalidPurchaseException if the purchase request violates business rules.
+     */
+    void purchaseTickets(String idempotencyKey, Long accountId, TicketTypeRequest... ticketRequests) throws InvalidPurchaseException;
+
+    /**
+     * Processes the tickets like {@link #purchaseTickets} and returns the outcome instead of throwing it.
+     *
+     * A rejected purchase is returned with its reason code, and a purchase that failed unexpectedly
+     * with its failure reason, so a caller expecting many invalid requests pays for no exceptions.
+     *
+     * @param accountId the account ID of the user purchasing the tickets
+     * @param ticketRequests the array of ticket request (Adult, Child, Infant)
+     * @return the accepted purchase with its cost and seats, or the reason it was rejected or failed
+     */
+    PurchaseResult tryPurchase(Long accountId, TicketTypeRequest... ticketRequests);
+
+    /**
+     * Quotes the tickets without purchasing them.
+     *
+     * The quote applies the same business rules as {@link #purchaseTickets} and is read from a table
+     * of every ticket mix precomputed at startup. It makes no payment or seat reservation and throws no exception
+     * for an invalid mix or a missing or incomplete ticket request, the quote carries the reason instead.
+     *
+     * @param ticketRequests the array of ticket request (Adult, Child, Infant)
+     * @return the total cost and seat count of the tickets, or the reason they cannot be purchased
+     */
+    TicketQuote quote(TicketTypeRequest... ticketRequests);
+
+    /**
+     * Processes the tickets like {@link #purchaseTickets} without blocking the calling thread.
+     *
+     * The validation, payment and seat reservation run on the purchase executor, which uses virtual threads
+     * when they are enabled, so a slow payment or reservation gateway does not hold a request thread.
+     *
+     * @param accountId the account ID of the user purchasing the tickets
+     * @param ticketRequests the array of ticket request (Adult, Child, Infant)
+     * @return a future that completes when the purchase is done, or completes exceptionally with
+     *         an InvalidPurchaseException if the purchase request violates business rules.
+     */
+    CompletableFuture<Void> purchaseTicketsAsync(Long accountId, TicketTypeRequest... ticketRequests);
+
+    /**
+     * Processes many ticket orders in one call.
+     *
+     * The orders are purchased one after another in a single pass. Each is validated against the same business
+     * rules as {@link #purchaseTickets}, then admitted on its own and paid and reserved with its own gateway calls,
+     * so a batch saves service calls but not payment or reservation calls. An invalid or shed order does not stop
+     * the rest of the batch, its InvalidPurchaseException reason is returned instead, and a missing order is
+     * rejected as malformed.
+     *
+     * @param purchaseOrders the orders to purchase, each with its account ID and ticket requests
+     * @return one result per order, in the same order as the given orders
+     * @throws InvalidPurchaseException if the list of orders is missing.
+     */
+    List<PurchaseResult> purchaseTicketsBatch(List<PurchaseOrder> purchaseOrders);
+
 }
 
@@ -1,17 +1,39 @@
 package com.dwp.ticketservice.service;
 
 
-import com.dwp.ticketservice.TicketEnum.TicketInfo;
+import com.dwp.ticketservice.admission.PurchaseAdmission;
+import com.dwp.ticketservice.config.PurchaseExecutorConfiguration;
+import com.dwp.ticketservice.domain.PurchaseOrder;
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.dwp.ticketservice.domain.TicketQuote;
+import com.dwp.ticketservice.component.TicketServiceMessageHandler;
+import com.dwp.ticketservice.exception.GatewayOutcomeUnknownException;
+import com.dwp.ticketservice.exception.GatewayUnavailableException;
 import com.dwp.ticketservice.exception.InvalidPurchaseException;
+import com.dwp.ticketservice.exception.PaymentOutcomeUnknownException;
+import com.dwp.ticketservice.exception.SeatsUnavailableException;
+import com.dwp.ticketservice.journal.PurchaseJournal;
+import com.dwp.ticketservice.ledger.PurchaseLedger;
+import com.dwp.ticketservice.logging.PurchaseEventLogger;
+import com.dwp.ticketservice.metrics.PurchaseMetrics;
+import com.dwp.ticketservice.metrics.PurchaseStage;
+import com.dwp.ticketservice.pricing.PricingRules;
 import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
 import com.dwp.ticketservice.domain.TicketTypeRequest;
 import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
-import static com.dwp.ticketservice.component.TicketServiceMessageHandler.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import static com.dwp.ticketservice.component.TicketServiceLogHandler.*;
 import static com.dwp.ticketservice.domain.TicketTypeRequest.*;
 import org.slf4j.Logger;
@@ -21,107 +43,673 @@ import org.slf4j.LoggerFactory;
 public class TicketServiceImpl implements TicketService {
 
     private static final Logger logger = LoggerFactory.getLogger(TicketServiceImpl.class);
+    private static final ThreadLocal<TicketTypeTally> TICKET_TYPE_TALLY = ThreadLocal.withInitial(TicketTypeTally::new);
+    private static final TicketQuote NO_TICKETS_QUOTE = TicketQuote.invalid(RejectionReason.NO_TICKETS_REQUESTED);
+    private static final TicketQuote INVALID_ACCOUNT_ID_QUOTE = TicketQuote.invalid(RejectionReason.INVALID_ACCOUNT_ID);
+    private static final TicketQuote EXCEEDED_TICKET_LIMIT_QUOTE = TicketQuote.invalid(RejectionReason.EXCEEDED_TICKET_LIMIT);
+    private static final TicketQuote EXCEEDED_ROLLING_TICKET_LIMIT_QUOTE = TicketQuote.invalid(RejectionReason.EXCEEDED_ROLLING_TICKET_LIMIT);
+    private static final TicketQuote EXCEEDED_SPEND_CAP_QUOTE = TicketQuote.invalid(RejectionReason.EXCEEDED_SPEND_CAP);
+    private static final TicketQuote OVER_CONCURRENCY_LIMIT_QUOTE = TicketQuote.invalid(RejectionReason.OVER_CONCURRENCY_LIMIT);
+    private static final TicketQuote ACCOUNT_RATE_LIMITED_QUOTE = TicketQuote.invalid(RejectionReason.ACCOUNT_RATE_LIMITED);
+    private static final TicketQuote MALFORMED_PURCHASE_ORDER_QUOTE = TicketQuote.invalid(RejectionReason.MALFORMED_PURCHASE_ORDER);
+    private static final TicketQuote SEATS_UNAVAILABLE_QUOTE = TicketQuote.invalid(RejectionReason.SEATS_UNAVAILABLE);
     private final TicketPaymentService paymentService;
     private final SeatReservationService reservationService;
+    private final Executor purchaseExecutor;
+    private final PurchaseIdempotencyCache idempotencyCache;
+    private volatile TicketQuoteTable quoteTable;
+    private final PurchaseMetrics metrics;
+    private final PurchaseEventLogger eventLogger;
+    private final PurchaseJournal journal;
+    private final GatewayCalls gatewayCalls;
+    private final PurchaseLedger ledger;
+    private final PurchaseAdmission admission;
 
     /**
      * This is focus on payment and reservation construct for make payment and do the reservation.
+     * Asynchronous purchases run on the common fork join pool, idempotent purchases are remembered for 10 minutes,
+     * no metrics are recorded, every stage of a purchase is logged, nothing is journaled, the gateways are called
+     * one after the other, there are no rolling per-account limits and every purchase is admitted.
      *
      * @param paymentService
      * @param reservationService
      */
     public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService reservationService) {
+        this(paymentService, reservationService, ForkJoinPool.commonPool(),
+                new PurchaseIdempotencyCache(10_000, Duration.ofMinutes(10)), PurchaseMetrics.noop(),
+                PurchaseEventLogger.verbose(), PurchaseJournal.noop(), GatewayCalls.sequential(), PurchaseLedger.noop(),
+                PurchaseAdmission.noop());
+    }
+
+    /**
+     * This is focus on payment and reservation construct for make payment and do the reservation.
+     *
+     * @param paymentService
+     * @param reservationService
+     * @param purchaseExecutor the executor running asynchronous purchases
+     * @param idempotencyCache the record of purchases by idempotency key
+     * @param metrics the timers and counters of the purchase pipeline
+     * @param eventLogger the summary event log of purchases
+     * @param journal the write-ahead journal of purchases
+     * @param gatewayCalls whether the payment and seat reservation gateways are called one after the other or concurrently
+     * @param ledger the rolling per-account ticket and spend limits
+     * @param admission the concurrency and per-account rate limits purchases are admitted under
+     */
+    @Autowired
+    public TicketServiceImpl(TicketPaymentService paymentService, SeatReservationService reservationService,
+                             @Qualifier(PurchaseExecutorConfiguration.PURCHASE_EXECUTOR) Executor purchaseExecutor,
+                             PurchaseIdempotencyCache idempotencyCache, PurchaseMetrics metrics,
+                             PurchaseEventLogger eventLogger, PurchaseJournal journal, GatewayCalls gatewayCalls,
+                             PurchaseLedger ledger, PurchaseAdmission admission) {
         this.paymentService = paymentService;
         this.reservationService = reservationService;
+        this.purchaseExecutor = purchaseExecutor;
+        this.idempotencyCache = idempotencyCache;
+        this.metrics = metrics;
+        this.eventLogger = eventLogger;
+        this.journal = journal;
+        this.gatewayCalls = gatewayCalls;
+        this.ledger = ledger;
+        this.admission = admission;
+        this.quoteTable = new TicketQuoteTable(PricingRules.defaults(), EXCEEDED_TICKET_LIMIT_QUOTE, this::calculateQuote);
+    }
+
+    /**
+     * Replaces the pricing rules. The quote table of the new rules is built on the calling thread and then swapped in
+     * with a single write, and each purchase reads the table once, so it is priced and limited by one version of the rules.
+     */
+    public void applyPricingRules(PricingRules pricingRules) {
+        quoteTable = new TicketQuoteTable(pricingRules, EXCEEDED_TICKET_LIMIT_QUOTE, this::calculateQuote);
+    }
+
+    public PricingRules getPricingRules() {
+        return quoteTable.getPricingRules();
     }
 
     @Override
     public void purchaseTickets(Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
-        try{
-            logger.info(STARTED_PURCHASING_TICKETS);
-            logger.debug(PURCHASING_TICKETS, accountId);
-            validateTicketRequestParameters(ticketTypeRequests,accountId);
+        TicketQuote ticketQuote = purchase(accountId, ticketTypeRequests);
+        if (!ticketQuote.isValid()) {
+            throw ticketQuote.getRejectionReason().exception();
+        }
+    }
+
+    @Override
+    public PurchaseResult tryPurchase(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        TicketQuote ticketQuote;
+        try {
+            ticketQuote = purchase(accountId, ticketTypeRequests);
+        } catch (PaymentOutcomeUnknownException e) {
+            return PurchaseResult.unknown(accountId, e.getMessage());
+        } catch (RuntimeException e) {
+            return PurchaseResult.failed(accountId, UNEXPECTED_ERROR);
+        }
+        if (!ticketQuote.isValid()) {
+            return PurchaseResult.rejected(accountId, ticketQuote.getRejectionReason());
+        }
+        return PurchaseResult.accepted(accountId, ticketQuote.getTotalTicketCost(), ticketQuote.getTotalSeatCount());
+    }
+
+    /**
+     * Runs one purchase without throwing for a rejection, which is returned as the invalid quote of its reason.
+     *
+     * @return the quote of the purchased tickets, or the invalid quote of a rejected purchase
+     * @throws PaymentOutcomeUnknownException when the payment gateway did not answer in time
+     * @throws RuntimeException when the purchase failed
+     */
+    private TicketQuote purchase(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        RejectionReason admissionRejection = admission.tryAdmit(admissionKey(accountId));
+        if (admissionRejection != null) {
+            return shed(accountId, admissionRejection);
+        }
+        try {
+            return purchaseAdmitted(accountId, ticketTypeRequests);
+        } finally {
+            admission.release();
+        }
+    }
 
-            logger.info(VALIDATED_TICKET_INPUTS);
-            Map<TicketTypeRequest.Type, Integer> ticketTypeCountMap = groupingTicketCountByType(ticketTypeRequests);
+    /**
+     * Runs one purchase that has been admitted, from validation through to the gateways.
+     */
+    private TicketQuote purchaseAdmitted(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        long purchaseStartNanos = metrics.startPurchase();
+        // Checked up front, as the int arguments of the stage lines would be boxed before the logger checks its level.
+        boolean logStages = logger.isInfoEnabled() && eventLogger.sampleStageLogging();
+        TicketTypeTally ticketTypeTally = TICKET_TYPE_TALLY.get().reset();
+        try{
+            if (logStages) {
+                logger.info(STARTED_PURCHASING_TICKETS);
+                logger.debug(PURCHASING_TICKETS, accountId);
+            }
+            long stageStartNanos = metrics.startNanos();
+            TicketQuote invalidParameters = validateTicketRequestParameters(ticketTypeRequests,accountId);
+            metrics.recordStage(PurchaseStage.VALIDATION, stageStartNanos);
+            if (invalidParameters != null) {
+                return reject(accountId, ticketTypeTally, invalidParameters);
+            }
 
-            logger.info(COMPLETED_GROUPING_TICKET_TYPES);
-            int totalTicketCount = calculateTotalTicketCount(ticketTypeCountMap);
+            if (logStages) {
+                logger.info(VALIDATED_TICKET_INPUTS);
+            }
+            stageStartNanos = metrics.startNanos();
+            groupingTicketCountByType(ticketTypeRequests, ticketTypeTally);
+            int totalTicketCount = calculateTotalTicketCount(ticketTypeTally);
+            metrics.recordStage(PurchaseStage.GROUPING, stageStartNanos);
 
-            logger.info(VALIDATING_BUSINESS_RULES, totalTicketCount);
-            validateBusinessRules(ticketTypeCountMap, totalTicketCount);
-            logger.info(COMPLETED_VALIDATING_BUSINESS_RULES);
+            if (logStages) {
+                logger.info(COMPLETED_GROUPING_TICKET_TYPES);
+                logger.info(VALIDATING_BUSINESS_RULES, totalTicketCount);
+            }
+            stageStartNanos = metrics.startNanos();
+            TicketQuote ticketQuote = lookupQuote(ticketTypeTally);
+            long ledgerTimeMillis = ledger.currentTimeMillis();
+            if (ticketQuote.isValid()) {
+                ticketQuote = recordInLedger(accountId, ticketQuote, ledgerTimeMillis);
+            }
+            metrics.recordStage(PurchaseStage.BUSINESS_RULES, stageStartNanos);
+            if (!ticketQuote.isValid()) {
+                return reject(accountId, ticketTypeTally, ticketQuote);
+            }
+            if (logStages) {
+                logger.info(COMPLETED_VALIDATING_BUSINESS_RULES);
+            }
 
-            int totalTicketCost = calculateTotalTicketCost(ticketTypeCountMap);
-            logger.info(TOTAL_TICKET_COST, totalTicketCost);
-            int totalSeatCount = calculateTotalSeatCount(ticketTypeCountMap,totalTicketCount);
-            logger.info(TOTAL_SEAT_COUNT, totalSeatCount);
+            stageStartNanos = metrics.startNanos();
+            int totalTicketCost = ticketQuote.getTotalTicketCost();
+            int totalSeatCount = ticketQuote.getTotalSeatCount();
+            metrics.recordStage(PurchaseStage.COST_CALCULATION, stageStartNanos);
+            if (logStages) {
+                logger.info(TOTAL_TICKET_COST, totalTicketCost);
+                logger.info(TOTAL_SEAT_COUNT, totalSeatCount);
+            }
 
-            makePayment(accountId,totalTicketCost);
-            reserveSeat(accountId, totalSeatCount);
-        } catch (InvalidPurchaseException e) {
-            logger.error(INVALID_PERCHES_ERROR, accountId, e.getMessage());
+            long gatewayStartNanos = System.nanoTime();
+            try {
+                payAndReserve(accountId, totalTicketCost, totalSeatCount);
+            } catch (PaymentOutcomeUnknownException e) {
+                // The payment may have been taken, so it keeps its place in the ledger until it is reconciled.
+                admission.recordGatewayLatency(System.nanoTime() - gatewayStartNanos, true);
+                logger.error(PAYMENT_OUTCOME_UNKNOWN, totalTicketCost, accountId, e);
+                throw e;
+            } catch (SeatsUnavailableException e) {
+                // Sold out is an answer from the reservation gateway, and the payment has been refunded.
+                admission.recordGatewayLatency(System.nanoTime() - gatewayStartNanos, false);
+                ledger.release(accountId, ticketQuote.getTotalTicketCount(), totalTicketCost, ledgerTimeMillis);
+                return reject(accountId, ticketTypeTally, SEATS_UNAVAILABLE_QUOTE);
+            } catch (RuntimeException e) {
+                admission.recordGatewayLatency(System.nanoTime() - gatewayStartNanos, e instanceof GatewayUnavailableException);
+                ledger.release(accountId, ticketQuote.getTotalTicketCount(), totalTicketCost, ledgerTimeMillis);
+                throw e;
+            }
+            admission.recordGatewayLatency(System.nanoTime() - gatewayStartNanos, false);
+            metrics.recordAccepted(purchaseStartNanos);
+            logPurchaseEvent(accountId, ticketTypeTally, totalTicketCost, totalSeatCount, PurchaseEventLogger.Outcome.ACCEPTED, null);
+            return ticketQuote;
+        } catch (PaymentOutcomeUnknownException e) {
+            metrics.recordFailed();
+            logPurchaseEvent(accountId, ticketTypeTally, 0, 0, PurchaseEventLogger.Outcome.UNKNOWN, e.getMessage());
             throw e;
         } catch (Exception e) {
+            metrics.recordFailed();
+            logPurchaseEvent(accountId, ticketTypeTally, 0, 0, PurchaseEventLogger.Outcome.FAILED, UNEXPECTED_ERROR);
             logger.error(COMMON_ERROR +e.getLocalizedMessage(), accountId, e);
             throw new RuntimeException(UNEXPECTED_ERROR, e);
         }
     }
 
-    private int calculateTotalTicketCount(Map<Type, Integer> ticketTypeCountMap) {
-        int totalTicketCost = 0;
-        if (ticketTypeCountMap != null){
-            totalTicketCost = ticketTypeCountMap.values().stream().mapToInt(Integer::intValue).sum();
+    @Override
+    public void purchaseTickets(String idempotencyKey, Long accountId, TicketTypeRequest... ticketTypeRequests) throws InvalidPurchaseException {
+        if (Objects.isNull(idempotencyKey) || idempotencyKey.isEmpty()) {
+            purchaseTickets(accountId, ticketTypeRequests);
+            return;
         }
-        return totalTicketCost;
+        // The key is looked up before admission, so a retry of a completed purchase is answered without a permit.
+        idempotencyCache.execute(accountId + ":" + idempotencyKey, payloadHash(ticketTypeRequests), () -> {
+            TicketQuote ticketQuote = purchase(accountId, ticketTypeRequests);
+            if (!ticketQuote.isValid()) {
+                throw ticketQuote.getRejectionReason().exception();
+            }
+        });
     }
 
-    private int calculateTotalSeatCount(Map<Type, Integer> ticketTypeCountMap, int totalTicketCount) {
-        return totalTicketCount - ticketTypeCountMap.getOrDefault(Type.infant, 0);
+    /**
+     * Hashes the ticket requests of a purchase in order, so a key reused for another purchase can be told apart.
+     */
+    private static long payloadHash(TicketTypeRequest... ticketTypeRequests) {
+        if (ticketTypeRequests == null) {
+            return 0L;
+        }
+        long hash = 1L;
+        for (TicketTypeRequest request : ticketTypeRequests) {
+            Type type = request == null ? null : request.getTicketType();
+            hash = 31 * hash + (type == null ? -1 : type.ordinal());
+            hash = 31 * hash + (request == null ? -1 : request.getNoOfTickets());
+        }
+        return hash;
     }
 
-    private int calculateTotalTicketCost(Map<Type, Integer> ticketTypeCountMap) {
-        int adultCost = TicketInfo.ADULT_PRICE.getInfo()  * ticketTypeCountMap.getOrDefault(Type.adult, 0);
-        int childCost = TicketInfo.CHILD_PRICE.getInfo() * ticketTypeCountMap.getOrDefault(Type.child, 0);
-        return adultCost + childCost; // I leave like this due to readability, otherwise this also can be write as one line.
+    @Override
+    public TicketQuote quote(TicketTypeRequest... ticketTypeRequests) {
+        TicketQuote invalidRequests = validateTicketRequests(ticketTypeRequests);
+        if (invalidRequests != null) {
+            return invalidRequests;
+        }
+        return lookupQuote(groupingTicketCountByType(ticketTypeRequests, TICKET_TYPE_TALLY.get()));
     }
 
-    private void validateTicketRequestParameters(TicketTypeRequest[] ticketTypeRequests, Long accountId) {
+    @Override
+    public CompletableFuture<Void> purchaseTicketsAsync(Long accountId, TicketTypeRequest... ticketTypeRequests) {
+        return CompletableFuture.runAsync(() -> purchaseTickets(accountId, ticketTypeRequests), purchaseExecutor);
+    }
+
+    @Override
+    public List<PurchaseResult> purchaseTicketsBatch(List<PurchaseOrder> purchaseOrders) {
+        if (purchaseOrders == null) {
+            throw RejectionReason.MALFORMED_PURCHASE_ORDER.exception();
+        }
+        logger.info(STARTED_PURCHASING_BATCH, purchaseOrders.size());
+        List<PurchaseResult> purchaseResults = new ArrayList<>(purchaseOrders.size());
+        long ledgerTimeMillis = ledger.currentTimeMillis();
+        int acceptedCount = 0;
+        for (PurchaseOrder purchaseOrder : purchaseOrders) {
+            long purchaseStartNanos = metrics.startPurchase();
+            PurchaseResult purchaseResult = purchaseOrder(purchaseOrder, purchaseStartNanos, ledgerTimeMillis);
+            if (purchaseResult.isAccepted()) {
+                acceptedCount++;
+            }
+            purchaseResults.add(purchaseResult);
+            logOrderEvent(purchaseOrder, purchaseResult);
+        }
+        logger.info(PURCHASED_BATCH, acceptedCount, purchaseOrders.size());
+        return purchaseResults;
+    }
+
+    /**
+     * Validates one batch order and records it in the ledger, then admits it and pays and reserves its seats.
+     * An accepted order is timed from the given start like a single purchase.
+     */
+    private PurchaseResult purchaseOrder(PurchaseOrder purchaseOrder, long purchaseStartNanos, long ledgerTimeMillis) {
+        if (purchaseOrder == null) {
+            metrics.recordRejected(RejectionReason.MALFORMED_PURCHASE_ORDER);
+            logRejection(null, RejectionReason.MALFORMED_PURCHASE_ORDER);
+            return PurchaseResult.rejected(null, RejectionReason.MALFORMED_PURCHASE_ORDER);
+        }
+        Long accountId = purchaseOrder.getAccountId();
+        TicketQuote ticketQuote;
+        try {
+            ticketQuote = validateOrder(purchaseOrder.getTicketTypeRequests(), accountId, ledgerTimeMillis);
+        } catch (Exception e) {
+            metrics.recordFailed();
+            logger.error(BATCH_ORDER_ERROR, accountId, e);
+            return PurchaseResult.failed(accountId, UNEXPECTED_ERROR);
+        }
+        if (!ticketQuote.isValid()) {
+            RejectionReason rejectionReason = ticketQuote.getRejectionReason();
+            metrics.recordRejected(rejectionReason);
+            logRejection(accountId, rejectionReason);
+            return PurchaseResult.rejected(accountId, rejectionReason);
+        }
+        RejectionReason admissionRejection = admission.tryAdmit(admissionKey(accountId));
+        if (admissionRejection != null) {
+            ledger.release(accountId, ticketQuote.getTotalTicketCount(), ticketQuote.getTotalTicketCost(), ledgerTimeMillis);
+            shed(accountId, admissionRejection);
+            return PurchaseResult.rejected(accountId, admissionRejection);
+        }
+        long gatewayStartNanos = System.nanoTime();
+        try {
+            payAndReserve(accountId, ticketQuote.getTotalTicketCost(), ticketQuote.getTotalSeatCount());
+            admission.recordGatewayLatency(System.nanoTime() - gatewayStartNanos, false);
+            metrics.recordAccepted(purchaseStartNanos);
+            return PurchaseResult.accepted(accountId, ticketQuote.getTotalTicketCost(), ticketQuote.getTotalSeatCount());
+        } catch (PaymentOutcomeUnknownException e) {
+            admission.recordGatewayLatency(System.nanoTime() - gatewayStartNanos, true);
+            metrics.recordFailed();
+            logger.error(PAYMENT_OUTCOME_UNKNOWN, ticketQuote.getTotalTicketCost(), accountId, e);
+            return PurchaseResult.unknown(accountId, e.getMessage());
+        } catch (SeatsUnavailableException e) {
+            admission.recordGatewayLatency(System.nanoTime() - gatewayStartNanos, false);
+            ledger.release(accountId, ticketQuote.getTotalTicketCount(), ticketQuote.getTotalTicketCost(), ledgerTimeMillis);
+            metrics.recordRejected(RejectionReason.SEATS_UNAVAILABLE);
+            logRejection(accountId, RejectionReason.SEATS_UNAVAILABLE);
+            return PurchaseResult.rejected(accountId, RejectionReason.SEATS_UNAVAILABLE);
+        } catch (Exception e) {
+            admission.recordGatewayLatency(System.nanoTime() - gatewayStartNanos, e instanceof GatewayUnavailableException);
+            ledger.release(accountId, ticketQuote.getTotalTicketCount(), ticketQuote.getTotalTicketCost(), ledgerTimeMillis);
+            metrics.recordFailed();
+            logger.error(BATCH_ORDER_ERROR, accountId, e);
+            return PurchaseResult.failed(accountId, UNEXPECTED_ERROR);
+        } finally {
+            admission.release();
+        }
+    }
+
+    /**
+     * Validates one batch order and records a valid one in the ledger, so it can be released if it is shed
+     * or its payment or reservation fails.
+     */
+    private TicketQuote validateOrder(TicketTypeRequest[] ticketTypeRequests, Long accountId, long ledgerTimeMillis) {
+        long stageStartNanos = metrics.startNanos();
+        TicketQuote ticketQuote = validateTicketRequestParameters(ticketTypeRequests, accountId);
+        metrics.recordStage(PurchaseStage.VALIDATION, stageStartNanos);
+        if (ticketQuote != null) {
+            return ticketQuote;
+        }
+
+        stageStartNanos = metrics.startNanos();
+        TicketTypeTally ticketTypeTally = groupingTicketCountByType(ticketTypeRequests, TICKET_TYPE_TALLY.get());
+        metrics.recordStage(PurchaseStage.GROUPING, stageStartNanos);
+
+        stageStartNanos = metrics.startNanos();
+        ticketQuote = lookupQuote(ticketTypeTally);
+        if (ticketQuote.isValid()) {
+            ticketQuote = recordInLedger(accountId, ticketQuote, ledgerTimeMillis);
+        }
+        metrics.recordStage(PurchaseStage.BUSINESS_RULES, stageStartNanos);
+        return ticketQuote;
+    }
+
+    /**
+     * Writes the summary event of one batch order with the stage times recorded since the order started.
+     */
+    private void logOrderEvent(PurchaseOrder purchaseOrder, PurchaseResult purchaseResult) {
+        if (!eventLogger.isSummaryMode()) {
+            return;
+        }
+        TicketTypeTally ticketTypeTally = TICKET_TYPE_TALLY.get().reset();
+        TicketTypeRequest[] ticketTypeRequests = purchaseOrder == null ? null : purchaseOrder.getTicketTypeRequests();
+        if (ticketTypeRequests != null) {
+            for (TicketTypeRequest request : ticketTypeRequests) {
+                if (request != null && request.getTicketType() != null) {
+                    ticketTypeTally.add(request.getTicketType(), request.getNoOfTickets());
+                }
+            }
+        }
+        PurchaseEventLogger.Outcome outcome = PurchaseEventLogger.Outcome.valueOf(purchaseResult.getStatus().name());
+        logPurchaseEvent(purchaseResult.getAccountId(), ticketTypeTally, purchaseResult.getTotalTicketCost(),
+                purchaseResult.getTotalSeatCount(), outcome, purchaseResult.getReason());
+    }
+
+    int calculateTotalTicketCount(TicketTypeTally ticketTypeTally) {
+        int totalTicketCount = 0;
+        if (ticketTypeTally != null){
+            totalTicketCount = ticketTypeTally.total();
+        }
+        return totalTicketCount;
+    }
+
+    int calculateTotalSeatCount(TicketTypeTally ticketTypeTally, int totalTicketCount) {
+        return totalTicketCount - ticketTypeTally.count(Type.infant);
+    }
+
+    private int calculateTotalTicketCost(PricingRules pricingRules, TicketTypeTally ticketTypeTally) {
+        int adultCost = pricingRules.getAdultPrice() * ticketTypeTally.count(Type.adult);
+        int childCost = pricingRules.getChildPrice() * ticketTypeTally.count(Type.child);
+        int infantCost = pricingRules.getInfantPrice() * ticketTypeTally.count(Type.infant);
+        return adultCost + childCost + infantCost; // I leave like this due to readability, otherwise this also can be write as one line.
+    }
+
+    /**
+     * @return the invalid quote of the first parameter that is not valid, or null when the parameters are valid
+     */
+    private TicketQuote validateTicketRequestParameters(TicketTypeRequest[] ticketTypeRequests, Long accountId) {
         if(Objects.isNull(ticketTypeRequests) ||ticketTypeRequests.length ==0){
-            logger.warn(NO_TICKETS_REQUESTED);
-            throw new InvalidPurchaseException(NO_TICKETS_REQUESTED);
+            return NO_TICKETS_QUOTE;
+        }
+        if(Objects.isNull(accountId) || accountId<=0){
+            return INVALID_ACCOUNT_ID_QUOTE;
+        }
+        return validateTicketRequests(ticketTypeRequests);
+    }
+
+    /**
+     * @return the invalid quote of ticket requests that are missing or incomplete, or null when they can be grouped
+     */
+    private TicketQuote validateTicketRequests(TicketTypeRequest[] ticketTypeRequests) {
+        if (Objects.isNull(ticketTypeRequests) || ticketTypeRequests.length == 0) {
+            return NO_TICKETS_QUOTE;
         }
-        if(accountId<=0){
-            logger.warn(INVALID_ACCOUNT_ID);
-            throw new InvalidPurchaseException(INVALID_ACCOUNT_ID);
+        for (TicketTypeRequest request : ticketTypeRequests) {
+            if (Objects.isNull(request) || Objects.isNull(request.getTicketType())) {
+                return MALFORMED_PURCHASE_ORDER_QUOTE;
+            }
         }
+        return null;
     }
 
-    private Map<Type,Integer> groupingTicketCountByType(TicketTypeRequest[] ticketTypeRequests) {
-        Map<TicketTypeRequest.Type, Integer> ticketTypeCounts = new HashMap<>();
+    TicketTypeTally groupingTicketCountByType(TicketTypeRequest[] ticketTypeRequests, TicketTypeTally ticketTypeTally) {
+        ticketTypeTally.reset();
         for(TicketTypeRequest request :ticketTypeRequests){
-            ticketTypeCounts.put(request.getTicketType(), ticketTypeCounts.getOrDefault(request.getTicketType(), 0) + request.getNoOfTickets());
+            ticketTypeTally.add(request.getTicketType(), request.getNoOfTickets());
         }
-        return ticketTypeCounts;
+        return ticketTypeTally;
+    }
+
+    /**
+     * Applies the business rules and prices to a ticket mix by reading its quote from the table of the current rules.
+     */
+    TicketQuote lookupQuote(TicketTypeTally ticketTypeTally) {
+        return quoteTable.lookup(ticketTypeTally);
     }
 
-    private void validateBusinessRules(Map<Type, Integer> ticketTypeCounts, int totalTicketCount) {
-        boolean isContainAdultTicket = ticketTypeCounts.containsKey(Type.adult);//ticketTypeCounts.keySet().stream().anyMatch(key -> key == Type.adult);
-        if (totalTicketCount > TicketInfo.MAX_TICKET_COUNT.getInfo()) {
-            logger.warn(EXCEEDED_TICKET_LIMIT,TicketInfo.MAX_TICKET_COUNT.getInfo());
-            throw new InvalidPurchaseException(EXCEEDED_TICKET_LIMIT);
+    private RejectionReason findBusinessRuleViolation(PricingRules pricingRules, TicketTypeTally ticketTypeTally, int totalTicketCount) {
+        boolean isContainAdultTicket = ticketTypeTally.count(Type.adult) > 0;
+        if (totalTicketCount > pricingRules.getMaxTicketCount()) {
+            return RejectionReason.EXCEEDED_TICKET_LIMIT;
         }
         if(!isContainAdultTicket){
-            logger.warn(MISSING_ADULT_TICKET);
-            throw new InvalidPurchaseException(MISSING_ADULT_TICKET);
+            return RejectionReason.MISSING_ADULT_TICKET;
+        }
+        return null;
+    }
+
+    /**
+     * Runs the business rules and price calculation for one ticket mix, used to build the quote table of a version of the rules.
+     */
+    private TicketQuote calculateQuote(PricingRules pricingRules, TicketTypeTally ticketTypeTally) {
+        int totalTicketCount = calculateTotalTicketCount(ticketTypeTally);
+        RejectionReason businessRuleViolation = findBusinessRuleViolation(pricingRules, ticketTypeTally, totalTicketCount);
+        if (businessRuleViolation != null) {
+            return TicketQuote.invalid(businessRuleViolation);
+        }
+        return TicketQuote.valid(totalTicketCount, calculateTotalTicketCost(pricingRules, ticketTypeTally),
+                calculateTotalSeatCount(ticketTypeTally, totalTicketCount));
+    }
+
+    /**
+     * Checks the purchase against the rolling limits of its account, recording it when it is within them.
+     *
+     * @return the quote of the purchase, or the invalid quote of the rolling limit it would exceed
+     */
+    private TicketQuote recordInLedger(Long accountId, TicketQuote ticketQuote, long ledgerTimeMillis) {
+        RejectionReason ledgerViolation = ledger.tryRecord(accountId, ticketQuote.getTotalTicketCount(),
+                ticketQuote.getTotalTicketCost(), ledgerTimeMillis);
+        if (ledgerViolation == null) {
+            return ticketQuote;
+        }
+        return ledgerViolation == RejectionReason.EXCEEDED_SPEND_CAP ? EXCEEDED_SPEND_CAP_QUOTE : EXCEEDED_ROLLING_TICKET_LIMIT_QUOTE;
+    }
+
+    /**
+     * Counts and logs a purchase turned away by admission, and returns its invalid quote. Nothing was validated
+     * or tallied, so no purchase event is recorded, keeping a shed purchase as cheap as possible.
+     */
+    private TicketQuote shed(Long accountId, RejectionReason rejectionReason) {
+        metrics.recordRejected(rejectionReason);
+        logRejection(accountId, rejectionReason);
+        return rejectionReason == RejectionReason.OVER_CONCURRENCY_LIMIT ? OVER_CONCURRENCY_LIMIT_QUOTE : ACCOUNT_RATE_LIMITED_QUOTE;
+    }
+
+    /**
+     * @return the account ID admission is keyed by, which is checked before the account ID is validated
+     */
+    private static long admissionKey(Long accountId) {
+        return accountId == null ? 0L : accountId;
+    }
+
+    /**
+     * Counts, logs and records the event of a rejected purchase, and returns its invalid quote.
+     */
+    private TicketQuote reject(Long accountId, TicketTypeTally ticketTypeTally, TicketQuote invalidQuote) {
+        RejectionReason rejectionReason = invalidQuote.getRejectionReason();
+        metrics.recordRejected(rejectionReason);
+        logPurchaseEvent(accountId, ticketTypeTally, 0, 0, PurchaseEventLogger.Outcome.REJECTED, rejectionReason.getMessage());
+        logRejection(accountId, rejectionReason);
+        return invalidQuote;
+    }
+
+    /**
+     * Logs a rejected purchase at the configured rejection log rate, with the number of rejections not logged before it.
+     */
+    private void logRejection(Long accountId, RejectionReason rejectionReason) {
+        if (!logger.isWarnEnabled() || !eventLogger.sampleRejectionLogging()) {
+            return;
+        }
+        long unloggedRejections = eventLogger.takeUnloggedRejections();
+        if (unloggedRejections > 0) {
+            logger.warn(UNLOGGED_REJECTIONS, unloggedRejections);
+        }
+        logger.warn(INVALID_PERCHES_ERROR, accountId, rejectionReason.getMessage());
+    }
+
+    private void logPurchaseEvent(Long accountId, TicketTypeTally ticketTypeTally, int totalTicketCost, int totalSeatCount,
+                                  PurchaseEventLogger.Outcome outcome, String reason) {
+        if (eventLogger.isSummaryMode()) {
+            eventLogger.logPurchase(accountId, ticketTypeTally.count(Type.adult), ticketTypeTally.count(Type.child),
+                    ticketTypeTally.count(Type.infant), totalTicketCost, totalSeatCount, outcome, reason,
+                    metrics.currentStageTimings());
+        }
+    }
+
+    /**
+     * Takes the payment and reserves the seats of a valid purchase, journaling each step before moving on
+     * so a purchase interrupted in between can be finished after a restart.
+     */
+    private void payAndReserve(Long accountId, int totalTicketCost, int totalSeatCount) {
+        long purchaseId = journal.recordIntent(accountId, totalTicketCost, totalSeatCount);
+        try {
+            if (gatewayCalls.isConcurrent()) {
+                payAndReserveConcurrently(purchaseId, accountId, totalTicketCost, totalSeatCount);
+            } else {
+                payAndReserveSequentially(purchaseId, accountId, totalTicketCost, totalSeatCount);
+            }
+        } catch (PaymentOutcomeUnknownException e) {
+            journal.recordPaymentUnknown(purchaseId);
+            throw e;
+        } catch (RuntimeException e) {
+            journal.recordFailed(purchaseId);
+            throw e;
+        }
+        journal.recordCompleted(purchaseId);
+    }
+
+    private void payAndReserveSequentially(long purchaseId, Long accountId, int totalTicketCost, int totalSeatCount) {
+        makePayment(accountId, totalTicketCost);
+        try {
+            journal.recordPaymentTaken(purchaseId);
+            reserveSeat(accountId, totalSeatCount);
+        } catch (RuntimeException e) {
+            refundPayment(accountId, totalTicketCost, e);
+            throw e;
         }
+        journal.recordSeatsReserved(purchaseId);
     }
 
+    /**
+     * Reserves the seats on the reservation executor while the payment is taken on the current thread,
+     * then compensates whichever side succeeded if the other one failed. Seats reserved for a payment in doubt
+     * are kept, as the customer may have paid for them, and left to the journal reconciler.
+     */
+    private void payAndReserveConcurrently(long purchaseId, Long accountId, int totalTicketCost, int totalSeatCount) {
+        long reservationStartNanos = metrics.startNanos();
+        CompletableFuture<Long> reservation = CompletableFuture.supplyAsync(() -> {
+            reservationService.reserveSeat(accountId, totalSeatCount);
+            return System.nanoTime();
+        }, gatewayCalls.getReservationExecutor());
+
+        boolean paid = false;
+        RuntimeException failure = null;
+        try {
+            makePayment(accountId, totalTicketCost);
+            paid = true;
+            journal.recordPaymentTaken(purchaseId);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        boolean reserved = false;
+        try {
+            long reservationEndNanos = reservation.join();
+            reserved = true;
+            metrics.recordStageTime(PurchaseStage.RESERVATION, reservationEndNanos - reservationStartNanos);
+            journal.recordSeatsReserved(purchaseId);
+        } catch (RuntimeException e) {
+            if (!reserved) {
+                metrics.recordStage(PurchaseStage.RESERVATION, reservationStartNanos);
+            }
+            RuntimeException reservationFailure = e instanceof CompletionException && e.getCause() instanceof RuntimeException
+                    ? (RuntimeException) e.getCause() : e;
+            if (failure == null) {
+                failure = reservationFailure;
+            } else {
+                failure.addSuppressed(reservationFailure);
+            }
+        }
+
+        if (failure != null) {
+            if (paid) {
+                refundPayment(accountId, totalTicketCost, failure);
+            }
+            if (reserved && !(failure instanceof PaymentOutcomeUnknownException)) {
+                releaseSeat(accountId, totalSeatCount, failure);
+            }
+            throw failure;
+        }
+    }
+
+    /**
+     * Refunds the payment of a purchase whose seats could not be reserved. A failed refund is logged
+     * and attached to the failure of the purchase rather than replacing it.
+     */
+    private void refundPayment(Long accountId, int totalTicketCost, RuntimeException purchaseFailure) {
+        try {
+            paymentService.refundPayment(accountId, totalTicketCost);
+            logger.warn(REFUNDED_PAYMENT, totalTicketCost, accountId);
+        } catch (RuntimeException e) {
+            logger.error(REFUND_ERROR, totalTicketCost, accountId, e);
+            purchaseFailure.addSuppressed(e);
+        }
+    }
+
+    private void releaseSeat(Long accountId, int totalSeatCount, RuntimeException purchaseFailure) {
+        try {
+            reservationService.releaseSeat(accountId, totalSeatCount);
+            logger.warn(RELEASED_SEATS, totalSeatCount, accountId);
+        } catch (RuntimeException e) {
+            logger.error(RELEASE_ERROR, totalSeatCount, accountId, e);
+            purchaseFailure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * @throws PaymentOutcomeUnknownException when the payment gateway call timed out, so the payment may still be taken
+     */
     private void makePayment(Long accountId, int totalCost) {
-        paymentService.makePayment(accountId,totalCost);
+        long stageStartNanos = metrics.startNanos();
+        try {
+            paymentService.makePayment(accountId,totalCost);
+        } catch (GatewayOutcomeUnknownException e) {
+            throw new PaymentOutcomeUnknownException(TicketServiceMessageHandler.PAYMENT_OUTCOME_UNKNOWN, e);
+        } finally {
+            metrics.recordStage(PurchaseStage.PAYMENT, stageStartNanos);
+        }
     }
 
     private void reserveSeat(Long accountId, int totalSeatCount) {
-        reservationService.reserveSeat(accountId,totalSeatCount);
+        long stageStartNanos = metrics.startNanos();
+        try {
+            reservationService.reserveSeat(accountId,totalSeatCount);
+        } finally {
+            metrics.recordStage(PurchaseStage.RESERVATION, stageStartNanos);
+        }
     }
 }
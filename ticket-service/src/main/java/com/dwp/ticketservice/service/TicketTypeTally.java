@@ -0,0 +1,39 @@
+package com.dwp.ticketservice.service;
+
+import com.dwp.ticketservice.domain.TicketTypeRequest.Type;
+
+import java.util.Arrays;
+
+/**
+ * Mutable ticket count per ticket type, indexed by the ordinal of {@link Type}.
+ *
+ * A tally is reused across purchases on the same thread so that grouping the requested tickets
+ * neither allocates a map nor boxes the counts. It must not be shared between threads.
+ */
+final class TicketTypeTally {
+
+    private static final int TYPE_COUNT = Type.values().length;
+
+    private final int[] counts = new int[TYPE_COUNT];
+
+    TicketTypeTally reset() {
+        Arrays.fill(counts, 0);
+        return this;
+    }
+
+    void add(Type type, int quantity) {
+        counts[type.ordinal()] += quantity;
+    }
+
+    int count(Type type) {
+        return counts[type.ordinal()];
+    }
+
+    int total() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,212 @@
+package com.dwp.ticketservice.thirdparty.batching;
+
+import com.dwp.ticketservice.exception.GatewayOutcomeUnknownException;
+import com.dwp.ticketservice.exception.GatewayUnavailableException;
+import com.dwp.ticketservice.thirdparty.paymentgateway.PaymentOutcome;
+import com.dwp.ticketservice.thirdparty.paymentgateway.PaymentRequest;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Payment gateway decorator that gathers the payments of concurrent purchases into batches and sends each batch
+ * as one {@link TicketPaymentService#makePayments} call, trading a bounded delay for fewer gateway round trips.
+ *
+ * A batch is sent when it holds the maximum batch size or when the maximum delay has passed since its first
+ * payment, whichever comes first. Batches are sent on the batch executor, so the next batch fills while earlier
+ * ones are in flight. Each caller waits for its own outcome: a payment that failed throws its own failure, and when
+ * the batch as a whole fails every caller gets a {@link GatewayUnavailableException} caused by it. When the batch
+ * timed out, or the gateway answered it without an outcome for every payment, any of its payments may have been
+ * taken, so every caller gets a {@link GatewayOutcomeUnknownException} instead. A caller waits for its outcome for
+ * at most the timeout: a payment still queued is then withdrawn and fails with a {@link GatewayUnavailableException},
+ * and one already taken into a batch is in doubt. Refunds are rare and go straight to the gateway.
+ */
+public class CoalescingTicketPaymentService implements TicketPaymentService, Closeable {
+
+    private static final class PendingPayment {
+
+        private final PaymentRequest paymentRequest;
+        private final CompletableFuture<PaymentOutcome> paymentOutcome = new CompletableFuture<>();
+
+        private PendingPayment(PaymentRequest paymentRequest) {
+            this.paymentRequest = paymentRequest;
+        }
+    }
+
+    private final TicketPaymentService delegate;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long timeoutNanos;
+    private final Executor batchExecutor;
+    private final BlockingQueue<PendingPayment> pendingPayments = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    /**
+     * @param timeout the longest a caller waits for the outcome of its payment, including the time its batch fills
+     */
+    public CoalescingTicketPaymentService(TicketPaymentService delegate, int maxBatchSize, Duration maxDelay, Duration timeout,
+                                          Executor batchExecutor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Maximum batch size must be at least 1");
+        }
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.batchExecutor = batchExecutor;
+        this.dispatcher = new Thread(this::dispatchLoop, "payment-batcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        if (closed) {
+            throw new GatewayUnavailableException("Payment batching is closed");
+        }
+        PendingPayment pendingPayment = new PendingPayment(new PaymentRequest(accountId, totalAmountToPay));
+        pendingPayments.add(pendingPayment);
+        if (closed && pendingPayments.remove(pendingPayment)) {
+            throw new GatewayUnavailableException("Payment batching is closed");
+        }
+        PaymentOutcome paymentOutcome = awaitOutcome(pendingPayment);
+        if (!paymentOutcome.isPaid()) {
+            throw paymentOutcome.getFailure();
+        }
+    }
+
+    private PaymentOutcome awaitOutcome(PendingPayment pendingPayment) {
+        try {
+            return pendingPayment.paymentOutcome.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (pendingPayments.remove(pendingPayment)) {
+                throw new GatewayUnavailableException("Payment was not sent within " + Duration.ofNanos(timeoutNanos).toMillis() + " ms");
+            }
+            throw new GatewayOutcomeUnknownException("Payment batch did not answer within " + Duration.ofNanos(timeoutNanos).toMillis() + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pendingPayments.remove(pendingPayment)) {
+                throw new GatewayUnavailableException("Interrupted before the payment was sent");
+            }
+            throw new GatewayOutcomeUnknownException("Interrupted waiting for the payment batch", e);
+        } catch (ExecutionException e) {
+            throw new GatewayOutcomeUnknownException("Payment batch failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    @Override
+    public List<PaymentOutcome> makePayments(List<PaymentRequest> paymentRequests) {
+        return delegate.makePayments(paymentRequests);
+    }
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        delegate.refundPayment(accountId, totalAmountToRefund);
+    }
+
+    private void dispatchLoop() {
+        List<PendingPayment> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed) {
+                batch.add(pendingPayments.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (pendingPayments.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remainingNanos = deadline - System.nanoTime();
+                    PendingPayment next = remainingNanos > 0 ? pendingPayments.poll(remainingNanos, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                dispatch(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pendingPayments.drainTo(batch);
+        fail(batch, new GatewayUnavailableException("Payment batching is closed"));
+    }
+
+    private void dispatch(List<PendingPayment> batch) {
+        try {
+            batchExecutor.execute(() -> send(batch));
+        } catch (RejectedExecutionException e) {
+            fail(batch, e);
+        }
+    }
+
+    private void send(List<PendingPayment> batch) {
+        List<PaymentRequest> paymentRequests = new ArrayList<>(batch.size());
+        for (PendingPayment pendingPayment : batch) {
+            paymentRequests.add(pendingPayment.paymentRequest);
+        }
+        List<PaymentOutcome> paymentOutcomes;
+        try {
+            paymentOutcomes = delegate.makePayments(paymentRequests);
+        } catch (GatewayOutcomeUnknownException e) {
+            failInDoubt(batch, e);
+            return;
+        } catch (RuntimeException e) {
+            fail(batch, e);
+            return;
+        }
+        if (paymentOutcomes == null || paymentOutcomes.size() != batch.size()) {
+            failInDoubt(batch, new IllegalStateException("Payment gateway answered a batch of " + batch.size() + " payments with "
+                    + (paymentOutcomes == null ? "no" : String.valueOf(paymentOutcomes.size())) + " outcomes"));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).paymentOutcome.complete(paymentOutcomes.get(i));
+        }
+    }
+
+    /**
+     * Fails every payment of the batch with an exception of its own, as callers add suppressed exceptions to it.
+     */
+    private static void fail(List<PendingPayment> batch, Exception cause) {
+        for (PendingPayment pendingPayment : batch) {
+            pendingPayment.paymentOutcome.complete(PaymentOutcome.failed(
+                    new GatewayUnavailableException("Payment batch of " + batch.size() + " failed: " + cause, cause)));
+        }
+    }
+
+    /**
+     * Fails every payment of a batch that may have been taken, so no caller treats its payment as not taken.
+     */
+    private static void failInDoubt(List<PendingPayment> batch, Exception cause) {
+        for (PendingPayment pendingPayment : batch) {
+            pendingPayment.paymentOutcome.complete(PaymentOutcome.failed(
+                    new GatewayOutcomeUnknownException("Outcome of payment batch of " + batch.size() + " is unknown: " + cause, cause)));
+        }
+    }
+
+    /**
+     * Stops taking payments, fails the ones not yet sent and lets batches in flight finish.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
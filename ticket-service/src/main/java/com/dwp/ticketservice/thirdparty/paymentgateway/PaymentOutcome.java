@@ -0,0 +1,37 @@
+package com.dwp.ticketservice.thirdparty.paymentgateway;
+
+/**
+ * Immutable Object
+ *
+ * Outcome of one payment of a batch. A failed payment carries the exception its caller gets,
+ * the same one a single {@link TicketPaymentService#makePayment} call would have thrown.
+ */
+public final class PaymentOutcome {
+
+    private static final PaymentOutcome PAID = new PaymentOutcome(null);
+
+    private final RuntimeException failure;
+
+    private PaymentOutcome(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+    public static PaymentOutcome paid() {
+        return PAID;
+    }
+
+    public static PaymentOutcome failed(RuntimeException failure) {
+        return new PaymentOutcome(failure);
+    }
+
+    public boolean isPaid() {
+        return failure == null;
+    }
+
+    /**
+     * @return the failure of the payment, or null when it was paid
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+}
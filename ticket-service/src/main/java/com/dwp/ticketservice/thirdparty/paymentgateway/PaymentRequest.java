@@ -0,0 +1,25 @@
+package com.dwp.ticketservice.thirdparty.paymentgateway;
+
+/**
+ * Immutable Object
+ *
+ * One payment of a batch sent to the payment gateway.
+ */
+public final class PaymentRequest {
+
+    private final long accountId;
+    private final int totalAmountToPay;
+
+    public PaymentRequest(long accountId, int totalAmountToPay) {
+        this.accountId = accountId;
+        this.totalAmountToPay = totalAmountToPay;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public int getTotalAmountToPay() {
+        return totalAmountToPay;
+    }
+}
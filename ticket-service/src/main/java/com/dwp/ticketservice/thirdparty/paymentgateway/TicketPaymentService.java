@@ -2,9 +2,34 @@ package com.dwp.ticketservice.thirdparty.paymentgateway;
 
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 public interface TicketPaymentService {
 
     void makePayment(long accountId, int totalAmountToPay);
 
+    void refundPayment(long accountId, int totalAmountToRefund);
+
+    /**
+     * Takes the payments of several accounts in one gateway call. A gateway without a batch API
+     * makes the payments one after the other.
+     *
+     * @return the outcome of each payment, in the order of the requests
+     * @throws RuntimeException when the batch as a whole could not be sent
+     */
+    default List<PaymentOutcome> makePayments(List<PaymentRequest> paymentRequests) {
+        List<PaymentOutcome> paymentOutcomes = new ArrayList<>(paymentRequests.size());
+        for (PaymentRequest paymentRequest : paymentRequests) {
+            try {
+                makePayment(paymentRequest.getAccountId(), paymentRequest.getTotalAmountToPay());
+                paymentOutcomes.add(PaymentOutcome.paid());
+            } catch (RuntimeException e) {
+                paymentOutcomes.add(PaymentOutcome.failed(e));
+            }
+        }
+        return paymentOutcomes;
+    }
+
 }
@@ -10,4 +10,9 @@ public class TicketPaymentServiceImpl implements TicketPaymentService {
         // Real implementation omitted, assume working code will take the payment using a card pre linked to the account.
     }
 
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        // Real implementation omitted, assume working code will refund the payment to the card pre linked to the account.
+    }
+
 }
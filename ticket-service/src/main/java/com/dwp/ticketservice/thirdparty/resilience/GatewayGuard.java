@@ -0,0 +1,150 @@
+package com.dwp.ticketservice.thirdparty.resilience;
+
+import com.dwp.ticketservice.exception.GatewayOutcomeUnknownException;
+import com.dwp.ticketservice.exception.GatewayUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Protects the ticket service from one slow or failing gateway.
+ *
+ * Every call runs on the gateway executor and the caller waits at most the call timeout for it.
+ * A bulkhead bounds the calls in flight to the gateway, counting calls that timed out until they really finish,
+ * and a circuit breaker fails calls fast after repeated failures. A call is never sent twice, as the gateways carry
+ * no request key and a second attempt could charge or reserve twice.
+ *
+ * Compensating calls, such as refunds and seat releases, go through {@link #compensate(Runnable)}, which only applies
+ * the timeout: they must not be refused when the breaker is open or the bulkhead full, and do not count towards either.
+ *
+ * Rejected calls throw a GatewayUnavailableException, and are known not to have reached the gateway. Calls that timed out
+ * or were interrupted throw a GatewayOutcomeUnknownException, as the gateway may still carry them out. Failures of the
+ * gateway itself are rethrown as they are, and count towards the circuit breaker unless they are business outcomes such
+ * as a sold out performance.
+ */
+public class GatewayGuard {
+
+    private final String gatewayName;
+    private final Executor gatewayExecutor;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final long timeoutNanos;
+    private final Predicate<Throwable> isGatewayFailure;
+
+    /**
+     * @param gatewayName the name of the gateway, used in exception messages
+     * @param gatewayExecutor the executor the gateway calls run on
+     * @param maxConcurrentCalls the size of the bulkhead
+     * @param circuitBreaker the circuit breaker of the gateway
+     * @param timeout how long a caller waits for the gateway
+     * @param isGatewayFailure which exceptions count as failures of the gateway for the circuit breaker
+     */
+    public GatewayGuard(String gatewayName, Executor gatewayExecutor, int maxConcurrentCalls, CircuitBreaker circuitBreaker,
+                        Duration timeout, Predicate<Throwable> isGatewayFailure) {
+        this.gatewayName = gatewayName;
+        this.gatewayExecutor = gatewayExecutor;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = circuitBreaker;
+        this.timeoutNanos = timeout.toNanos();
+        this.isGatewayFailure = isGatewayFailure;
+    }
+
+    public void call(Runnable gatewayCall) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new GatewayUnavailableException(gatewayName + " circuit breaker is open");
+        }
+        if (!bulkhead.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            throw new GatewayUnavailableException(gatewayName + " has too many calls in flight");
+        }
+        long deadlineNanos = System.nanoTime() + timeoutNanos;
+        CompletableFuture<Void> outcome = attempt(gatewayCall);
+        try {
+            outcome.get(Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            circuitBreaker.onSuccess();
+        } catch (TimeoutException e) {
+            circuitBreaker.onFailure();
+            throw new GatewayOutcomeUnknownException(gatewayName + " did not answer within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+        } catch (ExecutionException e) {
+            throw gatewayFailure(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.releasePermission();
+            throw new GatewayOutcomeUnknownException(gatewayName + " call was interrupted");
+        }
+    }
+
+    /**
+     * Makes a compensating call, waiting for it at most the call timeout, outside the circuit breaker and the bulkhead.
+     */
+    public void compensate(Runnable compensatingCall) {
+        CompletableFuture<Void> outcome;
+        try {
+            outcome = CompletableFuture.runAsync(compensatingCall, gatewayExecutor);
+        } catch (RejectedExecutionException e) {
+            throw new GatewayUnavailableException(gatewayName + " executor rejected the call");
+        }
+        try {
+            outcome.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new GatewayOutcomeUnknownException(gatewayName + " did not answer within " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new GatewayUnavailableException(gatewayName + " failed: " + cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GatewayOutcomeUnknownException(gatewayName + " call was interrupted");
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public int getAvailableCalls() {
+        return bulkhead.availablePermits();
+    }
+
+    /**
+     * Runs one attempt on the gateway executor. The caller has already taken a bulkhead permit,
+     * which is given back when the attempt finishes, not when the caller stops waiting for it.
+     */
+    private CompletableFuture<Void> attempt(Runnable gatewayCall) {
+        try {
+            return CompletableFuture.runAsync(gatewayCall, gatewayExecutor).whenComplete((ignored, failure) -> bulkhead.release());
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            CompletableFuture<Void> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new GatewayUnavailableException(gatewayName + " executor rejected the call"));
+            return rejected;
+        }
+    }
+
+    private RuntimeException gatewayFailure(Throwable cause) {
+        if (isGatewayFailure.test(cause)) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new GatewayUnavailableException(gatewayName + " failed: " + cause);
+    }
+}
@@ -0,0 +1,33 @@
+package com.dwp.ticketservice.thirdparty.resilience;
+
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+
+/**
+ * Seat reservation gateway decorator that makes every reservation through a {@link GatewayGuard}, so a slow or failing
+ * seat reservation gateway times out or fails fast instead of holding the purchase threads. Seat releases are
+ * compensations and are made outside the circuit breaker, so they still go out while it is open.
+ */
+public class ResilientSeatReservationService implements SeatReservationService {
+
+    private final SeatReservationService delegate;
+    private final GatewayGuard guard;
+
+    public ResilientSeatReservationService(SeatReservationService delegate, GatewayGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        guard.call(() -> delegate.reserveSeat(accountId, totalSeatsToAllocate));
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        guard.compensate(() -> delegate.releaseSeat(accountId, totalSeatsToRelease));
+    }
+
+    public GatewayGuard getGuard() {
+        return guard;
+    }
+}
@@ -0,0 +1,49 @@
+package com.dwp.ticketservice.thirdparty.resilience;
+
+import com.dwp.ticketservice.thirdparty.paymentgateway.PaymentOutcome;
+import com.dwp.ticketservice.thirdparty.paymentgateway.PaymentRequest;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Payment gateway decorator that makes every payment through a {@link GatewayGuard}, so a slow or failing
+ * payment gateway times out or fails fast instead of holding the purchase threads. Refunds are compensations
+ * and are made outside the circuit breaker, so they still go out while it is open.
+ */
+public class ResilientTicketPaymentService implements TicketPaymentService {
+
+    private final TicketPaymentService delegate;
+    private final GatewayGuard guard;
+
+    public ResilientTicketPaymentService(TicketPaymentService delegate, GatewayGuard guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        guard.call(() -> delegate.makePayment(accountId, totalAmountToPay));
+    }
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        guard.compensate(() -> delegate.refundPayment(accountId, totalAmountToRefund));
+    }
+
+    /**
+     * Sends the batch as one guarded call, so a batch takes one permit of the bulkhead and counts as one call
+     * for the circuit breaker.
+     */
+    @Override
+    public List<PaymentOutcome> makePayments(List<PaymentRequest> paymentRequests) {
+        AtomicReference<List<PaymentOutcome>> paymentOutcomes = new AtomicReference<>();
+        guard.call(() -> paymentOutcomes.set(delegate.makePayments(paymentRequests)));
+        return paymentOutcomes.get();
+    }
+
+    public GatewayGuard getGuard() {
+        return guard;
+    }
+}
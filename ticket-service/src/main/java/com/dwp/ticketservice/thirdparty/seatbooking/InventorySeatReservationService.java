@@ -0,0 +1,41 @@
+package com.dwp.ticketservice.thirdparty.seatbooking;
+
+import com.dwp.ticketservice.exception.SeatsUnavailableException;
+
+import static com.dwp.ticketservice.component.TicketServiceMessageHandler.SEATS_UNAVAILABLE;
+
+/**
+ * Seat reservation backed by an in-memory {@link SeatInventory} of one performance.
+ *
+ * Unlike the stub gateway it knows the capacity of the performance, and refuses a reservation
+ * with a SeatsUnavailableException instead of overbooking.
+ */
+public class InventorySeatReservationService implements SeatReservationService {
+
+    private final SeatInventory seatInventory;
+
+    public InventorySeatReservationService(SeatInventory seatInventory) {
+        this.seatInventory = seatInventory;
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        if (totalSeatsToAllocate == 0) {
+            return;
+        }
+        if (!seatInventory.tryAllocate(totalSeatsToAllocate)) {
+            throw new SeatsUnavailableException(SEATS_UNAVAILABLE);
+        }
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        if (totalSeatsToRelease > 0) {
+            seatInventory.release(totalSeatsToRelease);
+        }
+    }
+
+    public SeatInventory getSeatInventory() {
+        return seatInventory;
+    }
+}
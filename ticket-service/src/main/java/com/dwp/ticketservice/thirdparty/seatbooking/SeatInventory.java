@@ -0,0 +1,169 @@
+package com.dwp.ticketservice.thirdparty.seatbooking;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Seat count of one performance with a fixed capacity, lock-free for reservations a single stripe can satisfy.
+ *
+ * The free seats are split across stripes, each updated only by compare-and-set, and every thread starts
+ * at its own stripe so that concurrent reservations on different cores rarely touch the same cache line.
+ * A reservation is all or nothing and a stripe never goes below zero, so the performance can never be overbooked.
+ *
+ * A reservation that no single stripe can satisfy falls back to a slow path under a lock, which gathers seats
+ * from several stripes and gives them back if there are not enough in total. Only one reservation at a time
+ * can hold seats it may give back, so close to selling out a reservation is refused only when the seats are
+ * taken, not because another reservation was briefly holding them. Releases are rare compensations and take
+ * the same lock, so the seats given back can be checked against the capacity before any stripe is changed.
+ */
+public class SeatInventory {
+
+    /**
+     * Stripes are 16 longs apart, 128 bytes, so that two stripes never share a cache line or its prefetched neighbour.
+     */
+    private static final int STRIPE_PADDING = 16;
+
+    private final String performanceId;
+    private final int capacity;
+    private final int stripeMask;
+    private final AtomicLongArray stripes;
+    private final ReentrantLock slowPathLock = new ReentrantLock();
+
+    /**
+     * @param performanceId the event or performance the seats belong to
+     * @param capacity the number of seats of the performance
+     * @param stripeCount the number of stripes, rounded up to a power of two
+     */
+    public SeatInventory(String performanceId, int capacity, int stripeCount) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be greater than zero");
+        }
+        int stripes = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.performanceId = performanceId;
+        this.capacity = capacity;
+        this.stripeMask = stripes - 1;
+        this.stripes = new AtomicLongArray(stripes * STRIPE_PADDING);
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            int seats = capacity / stripes + (stripe < capacity % stripes ? 1 : 0);
+            this.stripes.set(index(stripe), seats);
+        }
+    }
+
+    /**
+     * Reserves the given number of seats, either all of them or none.
+     *
+     * @return true if the seats were reserved, false if the performance does not have that many seats left
+     */
+    public boolean tryAllocate(int seats) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Seats to allocate must be greater than zero");
+        }
+        if (seats > capacity) {
+            return false;
+        }
+        int homeStripe = homeStripe();
+        for (int offset = 0; offset <= stripeMask; offset++) {
+            if (tryTake(index((homeStripe + offset) & stripeMask), seats)) {
+                return true;
+            }
+        }
+        slowPathLock.lock();
+        try {
+            return gather(homeStripe, seats);
+        } finally {
+            slowPathLock.unlock();
+        }
+    }
+
+    /**
+     * Gives back seats reserved earlier, to compensate a purchase that did not complete.
+     */
+    public void release(int seats) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Seats to release must be greater than zero");
+        }
+        int index = index(homeStripe());
+        slowPathLock.lock();
+        try {
+            // Reservations running alongside only lower the free seats, so a snapshot that leaves room is safe.
+            if (available() > capacity - seats) {
+                throw new IllegalStateException("Cannot release more seats than were reserved for performance " + performanceId);
+            }
+            stripes.addAndGet(index, seats);
+        } finally {
+            slowPathLock.unlock();
+        }
+    }
+
+    /**
+     * Number of free seats. Exact when no reservation is in progress, a snapshot otherwise.
+     */
+    public int available() {
+        long available = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            available += stripes.get(index(stripe));
+        }
+        return (int) available;
+    }
+
+    public int allocated() {
+        return capacity - available();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public String getPerformanceId() {
+        return performanceId;
+    }
+
+    private boolean tryTake(int index, long seats) {
+        long available;
+        do {
+            available = stripes.get(index);
+            if (available < seats) {
+                return false;
+            }
+        } while (!stripes.compareAndSet(index, available, available - seats));
+        return true;
+    }
+
+    private boolean gather(int homeStripe, int seats) {
+        long[] taken = new long[stripeMask + 1];
+        long remaining = seats;
+        for (int offset = 0; offset <= stripeMask && remaining > 0; offset++) {
+            int stripe = (homeStripe + offset) & stripeMask;
+            int index = index(stripe);
+            long available;
+            long take;
+            do {
+                available = stripes.get(index);
+                take = Math.min(available, remaining);
+            } while (take > 0 && !stripes.compareAndSet(index, available, available - take));
+            taken[stripe] = take;
+            remaining -= take;
+        }
+        if (remaining == 0) {
+            return true;
+        }
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            if (taken[stripe] > 0) {
+                stripes.addAndGet(index(stripe), taken[stripe]);
+            }
+        }
+        return false;
+    }
+
+    private int homeStripe() {
+        long threadId = Thread.currentThread().getId();
+        return (int) (threadId ^ (threadId >>> 16)) & stripeMask;
+    }
+
+    private static int index(int stripe) {
+        return stripe * STRIPE_PADDING;
+    }
+}
@@ -10,4 +10,9 @@ public class SeatReservationServiceImpl implements SeatReservationService {
         // Real implementation omitted, assume working code will make the seat reservation.
     }
 
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        // Real implementation omitted, assume working code will release the seat reservation.
+    }
+
 }
@@ -0,0 +1,52 @@
+package com.dwp.ticketservice.thirdparty.simulation;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distribution the latency of a simulated gateway call is drawn from.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * @return the latency of the next call in nanoseconds
+     */
+    long nextLatencyNanos();
+
+    static LatencyDistribution none() {
+        return () -> 0L;
+    }
+
+    static LatencyDistribution fixed(Duration latency) {
+        long latencyNanos = latency.toNanos();
+        return () -> latencyNanos;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+        if (maxNanos <= minNanos) {
+            return fixed(min);
+        }
+        return () -> ThreadLocalRandom.current().nextLong(minNanos, maxNanos);
+    }
+
+    /**
+     * Log-normal latency around the median, the usual shape of a remote call.
+     *
+     * @param sigma the spread of the distribution, 0.5 gives a p99 of about three times the median
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        double medianNanos = median.toNanos();
+        return () -> (long) (medianNanos * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    /**
+     * Adds a slow tail, a call takes the tail latency instead with the given probability.
+     */
+    default LatencyDistribution withTail(double tailProbability, Duration tailLatency) {
+        long tailNanos = tailLatency.toNanos();
+        return () -> ThreadLocalRandom.current().nextDouble() < tailProbability ? tailNanos : nextLatencyNanos();
+    }
+}
@@ -0,0 +1,85 @@
+package com.dwp.ticketservice.thirdparty.simulation;
+
+import com.dwp.ticketservice.thirdparty.paymentgateway.PaymentOutcome;
+import com.dwp.ticketservice.thirdparty.paymentgateway.PaymentRequest;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Payment and seat reservation gateway that behaves like a remote service, for trying the ticket service
+ * against realistic latencies and faults.
+ *
+ * Every call waits for a latency drawn from the latency distribution and then fails
+ * with the configured failure rate, otherwise it accepts the call. A batch of payments takes the latency
+ * of one call, and each payment of the batch fails on its own with the failure rate.
+ */
+public class SimulatedGateway implements TicketPaymentService, SeatReservationService {
+
+    static final String SIMULATED_FAILURE = "Simulated gateway failure";
+
+    private final LatencyDistribution latency;
+    private final double failureRate;
+
+    public SimulatedGateway(LatencyDistribution latency, double failureRate) {
+        if (failureRate < 0.0 || failureRate > 1.0) {
+            throw new IllegalArgumentException("Failure rate must be between 0 and 1");
+        }
+        this.latency = latency;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public void makePayment(long accountId, int totalAmountToPay) {
+        simulateCall();
+    }
+
+    @Override
+    public List<PaymentOutcome> makePayments(List<PaymentRequest> paymentRequests) {
+        waitLatency();
+        List<PaymentOutcome> paymentOutcomes = new ArrayList<>(paymentRequests.size());
+        for (int i = 0; i < paymentRequests.size(); i++) {
+            paymentOutcomes.add(isFailure() ? PaymentOutcome.failed(new IllegalStateException(SIMULATED_FAILURE)) : PaymentOutcome.paid());
+        }
+        return paymentOutcomes;
+    }
+
+    @Override
+    public void refundPayment(long accountId, int totalAmountToRefund) {
+        simulateCall();
+    }
+
+    @Override
+    public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+        simulateCall();
+    }
+
+    @Override
+    public void releaseSeat(long accountId, int totalSeatsToRelease) {
+        simulateCall();
+    }
+
+    private void simulateCall() {
+        waitLatency();
+        if (isFailure()) {
+            throw new IllegalStateException(SIMULATED_FAILURE);
+        }
+    }
+
+    private void waitLatency() {
+        long latencyNanos = latency.nextLatencyNanos();
+        long deadline = System.nanoTime() + latencyNanos;
+        while (latencyNanos > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(latencyNanos);
+            latencyNanos = deadline - System.nanoTime();
+        }
+    }
+
+    private boolean isFailure() {
+        return failureRate > 0.0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+    }
+}
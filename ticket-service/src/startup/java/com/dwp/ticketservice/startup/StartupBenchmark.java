@@ -0,0 +1,168 @@
+package com.dwp.ticketservice.startup;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long a new instance of the ticket service takes from launching its JVM to completing
+ * its first successful purchase, the point at which it adds capacity.
+ *
+ * The default startup is compared with the fast-start setup, which runs the {@code faststart} Spring profile on
+ * a class data sharing archive. The archive is created first by a training run that starts the service with
+ * {@code -XX:ArchiveClassesAtExit}, makes a purchase so that the purchase path is archived too, and stops it.
+ * The runs of the two setups are interleaved so that both see the same machine load.
+ *
+ * System properties:
+ * startup.appJar        the ticket service jar
+ * startup.classpathFile file holding the runtime classpath of the service
+ * startup.workDir       working directory of the launched instances, their logs and the archive
+ * startup.runs          measured runs of each setup, defaults to 5
+ * startup.timeout       longest wait for the first purchase, defaults to 60s
+ * startup.maxMillis     fails the run when the fast-start median is slower, 0 to only report, defaults to 0
+ */
+public final class StartupBenchmark {
+
+    private static final String MAIN_CLASS = "com.dwp.ticketservice.TicketServiceApplication";
+    private static final String PURCHASE = "{\"accountId\":1,\"tickets\":[{\"type\":\"adult\",\"quantity\":1}]}\n";
+
+    private final String classpath;
+    private final File workDir;
+    private final Duration timeout;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private StartupBenchmark(String classpath, File workDir, Duration timeout) {
+        this.classpath = classpath;
+        this.workDir = workDir;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws Exception {
+        File workDir = new File(System.getProperty("startup.workDir", "target/faststart"));
+        workDir.mkdirs();
+        String classpath = System.getProperty("startup.appJar") + File.pathSeparator
+                + new String(Files.readAllBytes(new File(System.getProperty("startup.classpathFile")).toPath()), StandardCharsets.UTF_8).trim();
+        int runs = Integer.parseInt(System.getProperty("startup.runs", "5"));
+        long maxMillis = Long.parseLong(System.getProperty("startup.maxMillis", "0"));
+        Duration timeout = DurationStyle.detectAndParse(System.getProperty("startup.timeout", "60s"));
+        StartupBenchmark benchmark = new StartupBenchmark(classpath, workDir, timeout);
+
+        File archive = new File(workDir, "ticket-service.jsa");
+        Files.deleteIfExists(archive.toPath());
+        benchmark.timeToFirstPurchase("training", Arrays.asList("-XX:ArchiveClassesAtExit=" + archive.getAbsolutePath()), true);
+        List<String> fastStartOptions = new ArrayList<>();
+        if (archive.isFile()) {
+            fastStartOptions.add("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+        } else {
+            System.out.println("No class data sharing archive was created, measuring the faststart profile without it");
+        }
+
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+        results.put("default", new ArrayList<>());
+        results.put("faststart", new ArrayList<>());
+        for (int run = 1; run <= runs; run++) {
+            results.get("default").add(benchmark.timeToFirstPurchase("default-" + run, Collections.emptyList(), false));
+            results.get("faststart").add(benchmark.timeToFirstPurchase("faststart-" + run, fastStartOptions, true));
+        }
+
+        StringBuilder report = new StringBuilder(String.format("%nTime to first successful purchase over %d runs%n", runs));
+        for (Map.Entry<String, List<Long>> result : results.entrySet()) {
+            List<Long> millis = result.getValue();
+            Collections.sort(millis);
+            report.append(String.format("%-10s median %5d ms  min %5d ms  max %5d ms%n", result.getKey(),
+                    median(millis), millis.get(0), millis.get(millis.size() - 1)));
+        }
+        System.out.print(report);
+        try (PrintStream out = new PrintStream(new File(workDir, "startup.txt"))) {
+            out.print(report);
+        }
+
+        long fastStartMedian = median(results.get("faststart"));
+        if (maxMillis > 0 && fastStartMedian > maxMillis) {
+            System.out.println("Fast-start median of " + fastStartMedian + " ms is over the limit of " + maxMillis + " ms");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Launches one instance, purchases a ticket as soon as it accepts one, and stops it gracefully.
+     *
+     * @return the milliseconds from launching the JVM to the first accepted purchase
+     */
+    private long timeToFirstPurchase(String name, List<String> jvmOptions, boolean fastStart) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(jvmOptions);
+        command.addAll(Arrays.asList("-cp", classpath, MAIN_CLASS, "--server.port=" + port));
+        if (fastStart) {
+            command.add("--spring.profiles.active=faststart");
+        }
+        ProcessBuilder processBuilder = new ProcessBuilder(command)
+                .directory(workDir)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(workDir, name + ".log"));
+
+        long startNanos = System.nanoTime();
+        Process process = processBuilder.start();
+        try {
+            HttpRequest purchase = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/tickets/purchases/stream"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(PURCHASE))
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            long deadline = startNanos + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(name + " exited before its first purchase, see " + name + ".log");
+                }
+                try {
+                    HttpResponse<String> response = httpClient.send(purchase, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() == 200 && response.body().contains("\"ACCEPTED\"")) {
+                        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                        System.out.println(name + ": first purchase after " + millis + " ms");
+                        return millis;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet.
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException(name + " made no purchase within " + timeout + ", see " + name + ".log");
+        } finally {
+            process.destroy();
+            if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static long median(List<Long> millis) {
+        List<Long> sorted = new ArrayList<>(millis);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dwp.ticketservice.admission.AccountRateLimiter;
+import com.dwp.ticketservice.admission.AdaptiveConcurrencyLimit;
+import com.dwp.ticketservice.admission.AdmissionController;
+import com.dwp.ticketservice.admission.PurchaseAdmission;
+import com.dwp.ticketservice.domain.PurchaseOrder;
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import com.dwp.ticketservice.exception.InvalidPurchaseException;
+import com.dwp.ticketservice.journal.PurchaseJournal;
+import com.dwp.ticketservice.ledger.PurchaseLedger;
+import com.dwp.ticketservice.logging.PurchaseEventLogger;
+import com.dwp.ticketservice.metrics.PurchaseMetrics;
+import com.dwp.ticketservice.service.GatewayCalls;
+import com.dwp.ticketservice.service.PurchaseIdempotencyCache;
+import com.dwp.ticketservice.service.TicketServiceImpl;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for admission control, checking the concurrency limit follows the gateway latency, each account
+ * is held to its rate, and purchases over either are shed before validation or any gateway call.
+ */
+class AdmissionTest {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long HEALTHY_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final TicketPaymentService paymentService = Mockito.mock(TicketPaymentService.class);
+    private final SeatReservationService reservationService = Mockito.mock(SeatReservationService.class);
+
+    /**
+     * Test case for checking no more permits are taken than the limit, and a released permit can be taken again.
+     */
+    @Test
+    void testConcurrencyLimitRejectsOverLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(3, 1, 10, Duration.ofMillis(100), clock::get);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(3, limit.getInFlight());
+
+        limit.release();
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+    }
+
+    /**
+     * Test case for checking the limit grows while the gateways are healthy and busy, shrinks when their latency
+     * rises or they are overloaded, and never leaves its bounds.
+     */
+    @Test
+    void testConcurrencyLimitFollowsGatewayLatency() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 10, 100, Duration.ofMillis(100), clock::get);
+        fill(limit);
+
+        for (int window = 0; window < 10; window++) {
+            sampleWindow(limit, HEALTHY_LATENCY_NANOS, false);
+        }
+        int grownLimit = limit.getLimit();
+        assertTrue(grownLimit > 20, "Limit did not grow while healthy: " + grownLimit);
+
+        for (int window = 0; window < 5; window++) {
+            sampleWindow(limit, 4 * HEALTHY_LATENCY_NANOS, false);
+        }
+        int slowLimit = limit.getLimit();
+        assertTrue(slowLimit < grownLimit, "Limit did not shrink as latency rose: " + slowLimit);
+
+        sampleWindow(limit, HEALTHY_LATENCY_NANOS, true);
+        assertTrue(limit.getLimit() < slowLimit, "Limit did not back off on overload: " + limit.getLimit());
+
+        for (int window = 0; window < 100; window++) {
+            sampleWindow(limit, 10 * HEALTHY_LATENCY_NANOS, true);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    /**
+     * Test case for checking the limit does not grow while fewer purchases are in flight than it allows.
+     */
+    @Test
+    void testConcurrencyLimitDoesNotGrowWhenIdle() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 10, 100, Duration.ofMillis(100), clock::get);
+        limit.tryAcquire();
+
+        for (int window = 0; window < 10; window++) {
+            sampleWindow(limit, HEALTHY_LATENCY_NANOS, false);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    /**
+     * Test case for checking an account can use its burst at once and is then held to its rate,
+     * while other accounts keep their own tokens.
+     */
+    @Test
+    void testAccountRateLimiterBurstAndRefill() {
+        AccountRateLimiter rateLimiter = new AccountRateLimiter(1024, 2.0, 3, clock::get);
+
+        assertTrue(rateLimiter.tryAcquire(1L));
+        assertTrue(rateLimiter.tryAcquire(1L));
+        assertTrue(rateLimiter.tryAcquire(1L));
+        assertFalse(rateLimiter.tryAcquire(1L));
+        assertTrue(rateLimiter.tryAcquire(2L));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(rateLimiter.tryAcquire(1L));
+        assertFalse(rateLimiter.tryAcquire(1L));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(rateLimiter.tryAcquire(1L));
+        assertTrue(rateLimiter.tryAcquire(1L));
+        assertTrue(rateLimiter.tryAcquire(1L));
+        assertFalse(rateLimiter.tryAcquire(1L));
+    }
+
+    /**
+     * Test case for checking a purchase over the account rate gives back its concurrency permit.
+     */
+    @Test
+    void testRateLimitedPurchaseReleasesPermit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(5, 1, 10, Duration.ofMillis(100), clock::get);
+        AdmissionController admission = new AdmissionController(limit, new AccountRateLimiter(64, 1.0, 1, clock::get));
+
+        assertNull(admission.tryAdmit(1L));
+        assertEquals(RejectionReason.ACCOUNT_RATE_LIMITED, admission.tryAdmit(1L));
+        assertEquals(1, limit.getInFlight());
+        admission.release();
+        assertEquals(0, limit.getInFlight());
+    }
+
+    /**
+     * Test case for checking purchases over the concurrency limit or the account rate are shed with their own
+     * reason codes, before an invalid order is even validated and without calling the gateways.
+     */
+    @Test
+    void testServiceShedsBeforeValidationAndGateways() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofMillis(100), clock::get);
+        TicketServiceImpl ticketService = ticketService(new AdmissionController(limit, new AccountRateLimiter(64, 1.0, 1, clock::get)));
+
+        assertTrue(ticketService.tryPurchase(1L, adults(2)).isAccepted());
+        assertEquals(RejectionReason.ACCOUNT_RATE_LIMITED, ticketService.tryPurchase(1L, adults(2)).getRejectionReason());
+        assertEquals(RejectionReason.ACCOUNT_RATE_LIMITED,
+                ticketService.tryPurchase(1L, new TicketTypeRequest(TicketTypeRequest.Type.infant, 1)).getRejectionReason());
+
+        limit.tryAcquire();
+        assertEquals(RejectionReason.OVER_CONCURRENCY_LIMIT, ticketService.tryPurchase(2L, adults(2)).getRejectionReason());
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets(3L, adults(2)));
+        assertEquals(RejectionReason.OVER_CONCURRENCY_LIMIT.getMessage(), exception.getMessage());
+        limit.release();
+
+        assertEquals(0, limit.getInFlight());
+        Mockito.verify(paymentService).makePayment(1L, 50);
+        Mockito.verifyNoMoreInteractions(paymentService);
+        Mockito.verify(reservationService).reserveSeat(1L, 2);
+        Mockito.verifyNoMoreInteractions(reservationService);
+    }
+
+    /**
+     * Test case for checking a shed idempotent purchase is not remembered, so its retry goes through.
+     */
+    @Test
+    void testShedIdempotentPurchaseIsNotCached() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofMillis(100), clock::get);
+        TicketServiceImpl ticketService = ticketService(new AdmissionController(limit, null));
+
+        limit.tryAcquire();
+        assertThrows(InvalidPurchaseException.class, () -> ticketService.purchaseTickets("order-1", 1L, adults(2)));
+        limit.release();
+
+        ticketService.purchaseTickets("order-1", 1L, adults(2));
+        ticketService.purchaseTickets("order-1", 1L, adults(2));
+
+        assertEquals(0, limit.getInFlight());
+        Mockito.verify(paymentService).makePayment(1L, 50);
+    }
+
+    /**
+     * Test case for checking a retry of a completed idempotent purchase is answered without taking a rate token.
+     */
+    @Test
+    void testCachedRetryIsNotAdmittedAgain() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(5, 1, 10, Duration.ofMillis(100), clock::get);
+        TicketServiceImpl ticketService = ticketService(new AdmissionController(limit, new AccountRateLimiter(64, 1.0, 1, clock::get)));
+
+        ticketService.purchaseTickets("order-1", 1L, adults(2));
+        ticketService.purchaseTickets("order-1", 1L, adults(2));
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class,
+                () -> ticketService.purchaseTickets("order-2", 1L, adults(2)));
+
+        assertEquals(RejectionReason.ACCOUNT_RATE_LIMITED.getMessage(), exception.getMessage());
+        assertEquals(0, limit.getInFlight());
+        Mockito.verify(paymentService).makePayment(1L, 50);
+    }
+
+    /**
+     * Test case for checking each accepted order of a batch is admitted before its gateway calls, and a shed order
+     * is returned with its reason while the rest of the batch goes on.
+     */
+    @Test
+    void testBatchOrdersAreAdmitted() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(5, 1, 10, Duration.ofMillis(100), clock::get);
+        TicketServiceImpl ticketService = ticketService(new AdmissionController(limit, new AccountRateLimiter(64, 1.0, 1, clock::get)));
+
+        List<PurchaseResult> purchaseResults = ticketService.purchaseTicketsBatch(List.of(
+                new PurchaseOrder(1L, adults(2)), new PurchaseOrder(1L, adults(1)), new PurchaseOrder(2L, adults(1))));
+
+        assertTrue(purchaseResults.get(0).isAccepted());
+        assertEquals(RejectionReason.ACCOUNT_RATE_LIMITED, purchaseResults.get(1).getRejectionReason());
+        assertTrue(purchaseResults.get(2).isAccepted());
+        assertEquals(0, limit.getInFlight());
+        Mockito.verify(paymentService).makePayment(1L, 50);
+        Mockito.verify(paymentService).makePayment(2L, 25);
+        Mockito.verifyNoMoreInteractions(paymentService);
+    }
+
+    /**
+     * Takes permits until the limit is reached, so the windows sampled count as busy.
+     */
+    private static void fill(AdaptiveConcurrencyLimit limit) {
+        while (limit.tryAcquire()) {
+        }
+    }
+
+    /**
+     * Samples one full window of gateway latencies and moves the clock past it, taking any permits the limit has
+     * grown by so the purchases in flight keep up with it.
+     */
+    private void sampleWindow(AdaptiveConcurrencyLimit limit, long latencyNanos, boolean overloaded) {
+        if (limit.getInFlight() > 1) {
+            fill(limit);
+        }
+        for (int sample = 0; sample < 10; sample++) {
+            limit.onSample(latencyNanos, overloaded);
+        }
+        clock.addAndGet(WINDOW_NANOS);
+        limit.onSample(latencyNanos, overloaded);
+    }
+
+    private TicketServiceImpl ticketService(PurchaseAdmission admission) {
+        return new TicketServiceImpl(paymentService, reservationService, ForkJoinPool.commonPool(),
+                new PurchaseIdempotencyCache(10, Duration.ofMinutes(1)), PurchaseMetrics.noop(),
+                new PurchaseEventLogger(PurchaseEventLogger.Mode.SUMMARY, 0.0, "test-account-hash-key"), PurchaseJournal.noop(),
+                GatewayCalls.sequential(), PurchaseLedger.noop(), admission);
+    }
+
+    private static TicketTypeRequest adults(int quantity) {
+        return new TicketTypeRequest(TicketTypeRequest.Type.adult, quantity);
+    }
+}
@@ -0,0 +1,192 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dwp.ticketservice.admission.PurchaseAdmission;
+import com.dwp.ticketservice.domain.PurchaseOrder;
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import com.dwp.ticketservice.exception.GatewayOutcomeUnknownException;
+import com.dwp.ticketservice.exception.InvalidPurchaseException;
+import com.dwp.ticketservice.exception.PaymentOutcomeUnknownException;
+import com.dwp.ticketservice.exception.SeatsUnavailableException;
+import com.dwp.ticketservice.journal.PurchaseJournal;
+import com.dwp.ticketservice.ledger.PurchaseLedger;
+import com.dwp.ticketservice.logging.PurchaseEventLogger;
+import com.dwp.ticketservice.metrics.PurchaseMetrics;
+import com.dwp.ticketservice.service.GatewayCalls;
+import com.dwp.ticketservice.service.PurchaseIdempotencyCache;
+import com.dwp.ticketservice.service.TicketServiceImpl;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import com.dwp.ticketservice.thirdparty.simulation.LatencyDistribution;
+import com.dwp.ticketservice.thirdparty.simulation.SimulatedGateway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for calling the payment and seat reservation gateways concurrently, and for compensating
+ * a purchase where only one of the calls succeeded.
+ */
+class GatewayCallsTest {
+
+    private static final TicketTypeRequest ONE_ADULT = new TicketTypeRequest(TicketTypeRequest.Type.adult, 1);
+
+    private final ExecutorService gatewayExecutor = Executors.newCachedThreadPool();
+    private final TicketPaymentService paymentService = Mockito.mock(TicketPaymentService.class);
+    private final SeatReservationService reservationService = Mockito.mock(SeatReservationService.class);
+
+    @AfterEach
+    void shutdownExecutor() {
+        gatewayExecutor.shutdownNow();
+    }
+
+    /**
+     * Test case for checking a concurrent purchase takes about the slower gateway call rather than the sum of both.
+     */
+    @Test
+    void testConcurrentCallsOverlapGatewayLatency() {
+        SimulatedGateway gateway = new SimulatedGateway(LatencyDistribution.fixed(Duration.ofMillis(200)), 0.0);
+        TicketServiceImpl ticketService = ticketService(gateway, gateway, GatewayCalls.concurrent(gatewayExecutor));
+
+        long startNanos = System.nanoTime();
+        ticketService.purchaseTickets(1L, ONE_ADULT);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        assertTrue(elapsedMillis >= 200);
+        assertTrue(elapsedMillis < 390, "purchase took " + elapsedMillis + " ms");
+    }
+
+    /**
+     * Test case for checking the payment is refunded and the purchase rejected when the seats cannot be reserved concurrently.
+     */
+    @Test
+    void testConcurrentReservationFailureRefundsPayment() {
+        Mockito.doThrow(new SeatsUnavailableException("sold out")).when(reservationService).reserveSeat(1L, 1);
+        TicketServiceImpl ticketService = ticketService(paymentService, reservationService, GatewayCalls.concurrent(gatewayExecutor));
+
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class, () -> ticketService.purchaseTickets(1L, ONE_ADULT));
+
+        assertEquals(RejectionReason.SEATS_UNAVAILABLE.getMessage(), exception.getMessage());
+        Mockito.verify(paymentService).refundPayment(1L, 25);
+        Mockito.verify(reservationService, Mockito.never()).releaseSeat(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    /**
+     * Test case for checking the seats are released when the payment cannot be taken concurrently.
+     */
+    @Test
+    void testConcurrentPaymentFailureReleasesSeats() {
+        Mockito.doThrow(new IllegalStateException("card declined")).when(paymentService).makePayment(1L, 25);
+        TicketServiceImpl ticketService = ticketService(paymentService, reservationService, GatewayCalls.concurrent(gatewayExecutor));
+
+        assertThrows(RuntimeException.class, () -> ticketService.purchaseTickets(1L, ONE_ADULT));
+
+        Mockito.verify(reservationService).releaseSeat(1L, 1);
+        Mockito.verify(paymentService, Mockito.never()).refundPayment(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    /**
+     * Test case for checking nothing is compensated when both concurrent gateway calls fail.
+     */
+    @Test
+    void testConcurrentCallsBothFailingAreNotCompensated() {
+        Mockito.doThrow(new IllegalStateException("card declined")).when(paymentService).makePayment(1L, 25);
+        Mockito.doThrow(new SeatsUnavailableException("sold out")).when(reservationService).reserveSeat(1L, 1);
+        TicketServiceImpl ticketService = ticketService(paymentService, reservationService, GatewayCalls.concurrent(gatewayExecutor));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> ticketService.purchaseTickets(1L, ONE_ADULT));
+
+        assertEquals(1, exception.getCause().getSuppressed().length);
+        Mockito.verify(paymentService, Mockito.never()).refundPayment(Mockito.anyLong(), Mockito.anyInt());
+        Mockito.verify(reservationService, Mockito.never()).releaseSeat(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    /**
+     * Test case for checking the payment is refunded and the purchase rejected as sold out when the seats cannot be
+     * reserved after it, for a single purchase and a batch order alike.
+     */
+    @Test
+    void testSequentialReservationFailureRefundsPayment() {
+        Mockito.doThrow(new SeatsUnavailableException("sold out")).when(reservationService).reserveSeat(1L, 1);
+        TicketServiceImpl ticketService = ticketService(paymentService, reservationService, GatewayCalls.sequential());
+
+        PurchaseResult purchaseResult = ticketService.tryPurchase(1L, ONE_ADULT);
+        PurchaseResult batchResult = ticketService.purchaseTicketsBatch(List.of(new PurchaseOrder(1L, ONE_ADULT))).get(0);
+
+        assertEquals(PurchaseResult.Status.REJECTED, purchaseResult.getStatus());
+        assertEquals(RejectionReason.SEATS_UNAVAILABLE, purchaseResult.getRejectionReason());
+        assertEquals(PurchaseResult.Status.REJECTED, batchResult.getStatus());
+        assertEquals(RejectionReason.SEATS_UNAVAILABLE, batchResult.getRejectionReason());
+        Mockito.verify(paymentService, Mockito.times(2)).refundPayment(1L, 25);
+    }
+
+    /**
+     * Test case for checking a payment that timed out is journaled as in doubt and reported as unknown,
+     * without a refund and keeping its place in the ledger and any seats it reserved, in both modes.
+     */
+    @Test
+    void testPaymentTimeoutIsLeftInDoubt() {
+        for (GatewayCalls gatewayCalls : new GatewayCalls[] {GatewayCalls.sequential(), GatewayCalls.concurrent(gatewayExecutor)}) {
+            TicketPaymentService timingOutPaymentService = Mockito.mock(TicketPaymentService.class);
+            SeatReservationService seatReservationService = Mockito.mock(SeatReservationService.class);
+            Mockito.doThrow(new GatewayOutcomeUnknownException("Payment gateway did not answer within 100 ms"))
+                    .when(timingOutPaymentService).makePayment(1L, 25);
+            PurchaseJournal journal = Mockito.mock(PurchaseJournal.class);
+            Mockito.when(journal.recordIntent(1L, 25, 1)).thenReturn(7L);
+            PurchaseLedger ledger = Mockito.mock(PurchaseLedger.class);
+            TicketServiceImpl ticketService = ticketService(timingOutPaymentService, seatReservationService, gatewayCalls, journal, ledger);
+
+            PurchaseResult purchaseResult = ticketService.tryPurchase(1L, ONE_ADULT);
+
+            assertEquals(PurchaseResult.Status.UNKNOWN, purchaseResult.getStatus());
+            assertThrows(PaymentOutcomeUnknownException.class, () -> ticketService.purchaseTickets(1L, ONE_ADULT));
+            Mockito.verify(journal, Mockito.times(2)).recordPaymentUnknown(7L);
+            Mockito.verify(journal, Mockito.never()).recordFailed(Mockito.anyLong());
+            Mockito.verify(timingOutPaymentService, Mockito.never()).refundPayment(Mockito.anyLong(), Mockito.anyInt());
+            Mockito.verify(seatReservationService, Mockito.never()).releaseSeat(Mockito.anyLong(), Mockito.anyInt());
+            Mockito.verify(ledger, Mockito.never()).release(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt(), Mockito.anyLong());
+        }
+    }
+
+    /**
+     * Test case for checking a retry of a payment that timed out gets the same unknown outcome
+     * from the idempotency cache instead of taking the payment a second time.
+     */
+    @Test
+    void testPaymentTimeoutIsNotRetried() {
+        Mockito.doThrow(new GatewayOutcomeUnknownException("Payment gateway did not answer within 100 ms"))
+                .when(paymentService).makePayment(1L, 25);
+        TicketServiceImpl ticketService = ticketService(paymentService, reservationService, GatewayCalls.sequential());
+
+        assertThrows(PaymentOutcomeUnknownException.class, () -> ticketService.purchaseTickets("key-1", 1L, ONE_ADULT));
+        assertThrows(PaymentOutcomeUnknownException.class, () -> ticketService.purchaseTickets("key-1", 1L, ONE_ADULT));
+
+        Mockito.verify(paymentService, Mockito.times(1)).makePayment(1L, 25);
+        Mockito.verify(reservationService, Mockito.never()).reserveSeat(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    private static TicketServiceImpl ticketService(TicketPaymentService paymentService, SeatReservationService reservationService,
+                                                   GatewayCalls gatewayCalls) {
+        return ticketService(paymentService, reservationService, gatewayCalls, PurchaseJournal.noop(), PurchaseLedger.noop());
+    }
+
+    private static TicketServiceImpl ticketService(TicketPaymentService paymentService, SeatReservationService reservationService,
+                                                   GatewayCalls gatewayCalls, PurchaseJournal journal, PurchaseLedger ledger) {
+        return new TicketServiceImpl(paymentService, reservationService, ForkJoinPool.commonPool(),
+                new PurchaseIdempotencyCache(10, Duration.ofMinutes(1)), PurchaseMetrics.noop(),
+                new PurchaseEventLogger(PurchaseEventLogger.Mode.SUMMARY, 0.0, "test-account-hash-key"), journal, gatewayCalls,
+                ledger, PurchaseAdmission.noop());
+    }
+}
@@ -0,0 +1,185 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dwp.ticketservice.config.GatewayConfiguration;
+import com.dwp.ticketservice.exception.GatewayOutcomeUnknownException;
+import com.dwp.ticketservice.exception.GatewayUnavailableException;
+import com.dwp.ticketservice.exception.PaymentDeclinedException;
+import com.dwp.ticketservice.exception.SeatsUnavailableException;
+import com.dwp.ticketservice.thirdparty.resilience.CircuitBreaker;
+import com.dwp.ticketservice.thirdparty.resilience.GatewayGuard;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.resilience.ResilientTicketPaymentService;
+import com.dwp.ticketservice.thirdparty.simulation.LatencyDistribution;
+import com.dwp.ticketservice.thirdparty.simulation.SimulatedGateway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the gateway guard, run against the simulated gateway and hand written slow or failing calls.
+ */
+class GatewayGuardTest {
+
+    private final ExecutorService gatewayExecutor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdownExecutor() {
+        gatewayExecutor.shutdownNow();
+    }
+
+    /**
+     * Test case for checking a slow gateway call is abandoned after the timeout, with its outcome unknown.
+     */
+    @Test
+    void testSlowCallTimesOut() {
+        SimulatedGateway slowGateway = new SimulatedGateway(LatencyDistribution.fixed(Duration.ofSeconds(5)), 0.0);
+        ResilientTicketPaymentService paymentService = new ResilientTicketPaymentService(slowGateway, guard(10, 5));
+
+        long startNanos = System.nanoTime();
+        assertThrows(GatewayOutcomeUnknownException.class, () -> paymentService.makePayment(1L, 20));
+        assertTrue(System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(2));
+    }
+
+    /**
+     * Test case for checking calls beyond the bulkhead are refused while the gateway is busy.
+     */
+    @Test
+    void testBulkheadRefusesCallsBeyondLimit() throws InterruptedException {
+        GatewayGuard guard = guard(2, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        for (int i = 0; i < 2; i++) {
+            callers.submit(() -> guard.call(() -> awaitQuietly(release)));
+        }
+        while (guard.getAvailableCalls() > 0) {
+            Thread.sleep(1);
+        }
+
+        assertThrows(GatewayUnavailableException.class, () -> guard.call(() -> { }));
+        release.countDown();
+        callers.shutdown();
+        assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+        assertDoesNotThrow(() -> guard.call(() -> { }));
+    }
+
+    /**
+     * Test case for checking the circuit breaker opens after consecutive failures and fails fast without calling the gateway.
+     */
+    @Test
+    void testCircuitBreakerOpensAfterFailures() {
+        SimulatedGateway failingGateway = new SimulatedGateway(LatencyDistribution.none(), 1.0);
+        GatewayGuard guard = guard(10, 3);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalStateException.class, () -> guard.call(() -> failingGateway.makePayment(1L, 20)));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.getCircuitBreaker().getState());
+
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(GatewayUnavailableException.class, () -> guard.call(calls::incrementAndGet));
+        assertEquals(0, calls.get());
+    }
+
+    /**
+     * Test case for checking the circuit breaker lets one trial call through after the open duration and closes when it succeeds.
+     */
+    @Test
+    void testCircuitBreakerClosesAfterSuccessfulTrialCall() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofSeconds(30), clock::get);
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(false, circuitBreaker.tryAcquirePermission());
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals(false, circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    /**
+     * Test case for checking business outcomes such as a sold out performance do not open the circuit breaker.
+     */
+    @Test
+    void testBusinessFailuresDoNotOpenCircuitBreaker() {
+        GatewayGuard guard = new GatewayGuard("Seat reservation gateway", gatewayExecutor, 10,
+                new CircuitBreaker(1, Duration.ofSeconds(30)), Duration.ofSeconds(1),
+                failure -> !(failure instanceof SeatsUnavailableException));
+        for (int i = 0; i < 3; i++) {
+            assertThrows(SeatsUnavailableException.class, () -> guard.call(() -> {
+                throw new SeatsUnavailableException("sold out");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getCircuitBreaker().getState());
+    }
+
+    /**
+     * Test case for checking declined payments do not open the payment gateway circuit breaker, while other failures do.
+     */
+    @Test
+    void testDeclinedPaymentsDoNotOpenCircuitBreaker() {
+        GatewayGuard guard = new GatewayGuard("Payment gateway", gatewayExecutor, 10,
+                new CircuitBreaker(2, Duration.ofSeconds(30)), Duration.ofSeconds(1),
+                GatewayConfiguration::isPaymentGatewayFailure);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(PaymentDeclinedException.class, () -> guard.call(() -> {
+                throw new PaymentDeclinedException("card declined");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getCircuitBreaker().getState());
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalStateException.class, () -> guard.call(() -> {
+                throw new IllegalStateException("gateway error");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.getCircuitBreaker().getState());
+    }
+
+    /**
+     * Test case for checking refunds still go out while the circuit breaker is open and the bulkhead is full.
+     */
+    @Test
+    void testRefundsBypassOpenCircuitBreaker() {
+        TicketPaymentService gateway = Mockito.mock(TicketPaymentService.class);
+        Mockito.doThrow(new IllegalStateException("gateway error")).when(gateway).makePayment(1L, 20);
+        ResilientTicketPaymentService paymentService = new ResilientTicketPaymentService(gateway, guard(1, 1));
+
+        assertThrows(IllegalStateException.class, () -> paymentService.makePayment(1L, 20));
+        assertEquals(CircuitBreaker.State.OPEN, paymentService.getGuard().getCircuitBreaker().getState());
+        assertThrows(GatewayUnavailableException.class, () -> paymentService.makePayment(2L, 20));
+
+        assertDoesNotThrow(() -> paymentService.refundPayment(3L, 20));
+        Mockito.verify(gateway).refundPayment(3L, 20);
+        assertEquals(CircuitBreaker.State.OPEN, paymentService.getGuard().getCircuitBreaker().getState());
+    }
+
+    private GatewayGuard guard(int maxConcurrentCalls, int failureThreshold) {
+        return new GatewayGuard("Payment gateway", gatewayExecutor, maxConcurrentCalls,
+                new CircuitBreaker(failureThreshold, Duration.ofSeconds(30)), Duration.ofMillis(500), failure -> true);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
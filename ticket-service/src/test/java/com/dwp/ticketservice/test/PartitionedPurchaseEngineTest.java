@@ -0,0 +1,178 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import com.dwp.ticketservice.service.PartitionedPurchaseEngine;
+import com.dwp.ticketservice.service.TicketService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the account-partitioned purchase engine, checking the purchases of an account run in order on
+ * the worker of its partition and a full partition queue refuses new purchases.
+ */
+class PartitionedPurchaseEngineTest {
+
+    /**
+     * Test case for checking purchases submitted from many threads run in submission order per account,
+     * each account always on the worker thread of its own partition.
+     */
+    @Test
+    void testPurchasesOfAnAccountRunInOrderOnItsPartition() throws Exception {
+        Map<Long, List<Integer>> sequences = new ConcurrentHashMap<>();
+        Map<Long, List<String>> threads = new ConcurrentHashMap<>();
+        TicketService ticketService = ticketService(accountId -> { }, (accountId, sequence) -> {
+            sequences.computeIfAbsent(accountId, id -> new CopyOnWriteArrayList<>()).add(sequence);
+            threads.computeIfAbsent(accountId, id -> new CopyOnWriteArrayList<>()).add(Thread.currentThread().getName());
+        });
+        int producers = 4;
+        int accountsPerProducer = 10;
+        int purchasesPerAccount = 200;
+        List<CompletableFuture<PurchaseResult>> results = new CopyOnWriteArrayList<>();
+        try (PartitionedPurchaseEngine engine = new PartitionedPurchaseEngine(ticketService, 8, 4096)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> producerThreads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long firstAccount = p * accountsPerProducer + 1L;
+                Thread producer = new Thread(() -> {
+                    awaitQuietly(start);
+                    for (int sequence = 1; sequence <= purchasesPerAccount; sequence++) {
+                        for (long accountId = firstAccount; accountId < firstAccount + accountsPerProducer; accountId++) {
+                            results.add(engine.submit(accountId, new TicketTypeRequest(TicketTypeRequest.Type.adult, sequence)));
+                        }
+                    }
+                });
+                producer.start();
+                producerThreads.add(producer);
+            }
+            start.countDown();
+            for (Thread producer : producerThreads) {
+                producer.join();
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(producers * accountsPerProducer, sequences.size());
+        for (Map.Entry<Long, List<Integer>> account : sequences.entrySet()) {
+            List<Integer> sequence = account.getValue();
+            assertEquals(purchasesPerAccount, sequence.size());
+            for (int i = 0; i < sequence.size(); i++) {
+                assertEquals(i + 1, sequence.get(i), "Purchases of account " + account.getKey() + " ran out of order");
+            }
+            String partitionWorker = "purchase-partition-" + PartitionedPurchaseEngine.partitionOf(account.getKey(), 8);
+            assertTrue(threads.get(account.getKey()).stream().allMatch(partitionWorker::equals));
+        }
+    }
+
+    /**
+     * Test case for checking a purchase submitted to a full partition queue is refused, and the queued ones still run.
+     */
+    @Test
+    void testFullQueueRefusesPurchases() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TicketService ticketService = ticketService(accountId -> {
+            running.countDown();
+            awaitQuietly(release);
+        }, (accountId, sequence) -> { });
+        try (PartitionedPurchaseEngine engine = new PartitionedPurchaseEngine(ticketService, 1, 2)) {
+            CompletableFuture<PurchaseResult> first = engine.submit(1L, adult());
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            CompletableFuture<PurchaseResult> second = engine.submit(2L, adult());
+            CompletableFuture<PurchaseResult> third = engine.submit(3L, adult());
+            assertEquals(2, engine.getQueuedPurchases(0));
+            assertThrows(RejectedExecutionException.class, () -> engine.submit(4L, adult()));
+
+            release.countDown();
+            assertEquals(1L, first.get(10, TimeUnit.SECONDS).getAccountId());
+            assertEquals(2L, second.get(10, TimeUnit.SECONDS).getAccountId());
+            assertEquals(3L, third.get(10, TimeUnit.SECONDS).getAccountId());
+        }
+    }
+
+    /**
+     * Test case for checking closing the engine finishes the queued purchases and refuses new ones.
+     */
+    @Test
+    void testCloseFinishesQueuedPurchases() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TicketService ticketService = ticketService(accountId -> awaitQuietly(release), (accountId, sequence) -> { });
+        PartitionedPurchaseEngine engine = new PartitionedPurchaseEngine(ticketService, 2, 16);
+        List<CompletableFuture<PurchaseResult>> results = new ArrayList<>();
+        for (long accountId = 1; accountId <= 10; accountId++) {
+            results.add(engine.submit(accountId, adult()));
+        }
+        release.countDown();
+        engine.close();
+        for (CompletableFuture<PurchaseResult> result : results) {
+            assertTrue(result.isDone());
+            assertTrue(result.get().isAccepted());
+        }
+        assertThrows(RejectedExecutionException.class, () -> engine.submit(11L, adult()));
+    }
+
+    /**
+     * Test case for checking consecutive account IDs are spread evenly over the partitions.
+     */
+    @Test
+    void testPartitionOfSpreadsAccounts() {
+        int[] accounts = new int[16];
+        for (long accountId = 1; accountId <= 16_000; accountId++) {
+            int partition = PartitionedPurchaseEngine.partitionOf(accountId, accounts.length);
+            assertEquals(partition, PartitionedPurchaseEngine.partitionOf(accountId, accounts.length));
+            accounts[partition]++;
+        }
+        for (int partitionAccounts : accounts) {
+            assertTrue(partitionAccounts > 800 && partitionAccounts < 1200, "Accounts per partition: " + partitionAccounts);
+        }
+    }
+
+    private static TicketTypeRequest adult() {
+        return new TicketTypeRequest(TicketTypeRequest.Type.adult, 1);
+    }
+
+    private interface PurchaseRecorder {
+        void record(Long accountId, int sequence);
+    }
+
+    private interface PurchaseHook {
+        void run(Long accountId);
+    }
+
+    /**
+     * Ticket service accepting every purchase, running the hook first and recording the adult ticket count,
+     * which the tests use as the sequence number of the purchase.
+     */
+    private static TicketService ticketService(PurchaseHook hook, PurchaseRecorder recorder) {
+        TicketService ticketService = Mockito.mock(TicketService.class);
+        Mockito.when(ticketService.tryPurchase(Mockito.any(), Mockito.<TicketTypeRequest>any())).thenAnswer(invocation -> {
+            Long accountId = invocation.getArgument(0);
+            TicketTypeRequest ticketRequest = invocation.getArgument(1);
+            hook.run(accountId);
+            recorder.record(accountId, ticketRequest.getNoOfTickets());
+            return PurchaseResult.accepted(accountId, 25, 1);
+        });
+        return ticketService;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dwp.ticketservice.exception.GatewayOutcomeUnknownException;
+import com.dwp.ticketservice.exception.GatewayUnavailableException;
+import com.dwp.ticketservice.thirdparty.batching.CoalescingTicketPaymentService;
+import com.dwp.ticketservice.thirdparty.paymentgateway.PaymentOutcome;
+import com.dwp.ticketservice.thirdparty.paymentgateway.PaymentRequest;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for payment micro-batching, checking concurrent payments share gateway calls and every caller
+ * gets the outcome of its own payment.
+ */
+class PaymentBatchingTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test case for checking concurrent payments are sent in fewer gateway calls than payments, and every one is paid.
+     */
+    @Test
+    void testConcurrentPaymentsAreBatched() throws Exception {
+        RecordingGateway gateway = new RecordingGateway(Duration.ofMillis(20));
+        try (CoalescingTicketPaymentService batching = new CoalescingTicketPaymentService(gateway, 16, Duration.ofMillis(50), TIMEOUT, executor)) {
+            List<Future<?>> payments = payConcurrently(batching, 32);
+            for (Future<?> payment : payments) {
+                payment.get(10, TimeUnit.SECONDS);
+            }
+        }
+        assertEquals(32, gateway.paidAccounts.size());
+        assertTrue(gateway.batchSizes.size() < 32, "Gateway calls: " + gateway.batchSizes);
+        assertTrue(gateway.batchSizes.stream().allMatch(size -> size <= 16), "Gateway calls: " + gateway.batchSizes);
+    }
+
+    /**
+     * Test case for checking a full batch is sent without waiting for the maximum delay.
+     */
+    @Test
+    void testFullBatchIsSentBeforeTheDelay() throws Exception {
+        RecordingGateway gateway = new RecordingGateway(Duration.ZERO);
+        try (CoalescingTicketPaymentService batching = new CoalescingTicketPaymentService(gateway, 4, Duration.ofMinutes(1), TIMEOUT, executor)) {
+            List<Future<?>> payments = payConcurrently(batching, 4);
+            for (Future<?> payment : payments) {
+                payment.get(10, TimeUnit.SECONDS);
+            }
+        }
+        assertEquals(List.of(4), gateway.batchSizes);
+    }
+
+    /**
+     * Test case for checking a payment alone is sent once the maximum delay has passed.
+     */
+    @Test
+    void testSinglePaymentIsSentAfterTheDelay() {
+        RecordingGateway gateway = new RecordingGateway(Duration.ZERO);
+        try (CoalescingTicketPaymentService batching = new CoalescingTicketPaymentService(gateway, 64, Duration.ofMillis(5), TIMEOUT, executor)) {
+            batching.makePayment(7L, 25);
+        }
+        assertEquals(List.of(1), gateway.batchSizes);
+        assertEquals(25, gateway.paidAccounts.get(7L));
+    }
+
+    /**
+     * Test case for checking a declined payment fails only its own caller, with the failure of that payment.
+     */
+    @Test
+    void testDeclinedPaymentFailsOnlyItsCaller() throws Exception {
+        RecordingGateway gateway = new RecordingGateway(Duration.ZERO);
+        gateway.declinedAccount = 3L;
+        try (CoalescingTicketPaymentService batching = new CoalescingTicketPaymentService(gateway, 4, Duration.ofMinutes(1), TIMEOUT, executor)) {
+            List<Future<?>> payments = payConcurrently(batching, 4);
+            for (int i = 0; i < payments.size(); i++) {
+                long accountId = i + 1;
+                if (accountId == gateway.declinedAccount) {
+                    ExecutionException declined = assertThrows(ExecutionException.class, () -> payments.get((int) accountId - 1).get(10, TimeUnit.SECONDS));
+                    assertInstanceOf(IllegalStateException.class, declined.getCause());
+                } else {
+                    payments.get(i).get(10, TimeUnit.SECONDS);
+                }
+            }
+        }
+        assertEquals(3, gateway.paidAccounts.size());
+    }
+
+    /**
+     * Test case for checking a batch the gateway could not take fails every caller with its own exception caused by it.
+     */
+    @Test
+    void testFailedBatchFailsEveryCaller() throws Exception {
+        RecordingGateway gateway = new RecordingGateway(Duration.ZERO);
+        gateway.batchFailure = new IllegalStateException("Payment gateway is down");
+        List<Throwable> failures = new ArrayList<>();
+        try (CoalescingTicketPaymentService batching = new CoalescingTicketPaymentService(gateway, 2, Duration.ofMinutes(1), TIMEOUT, executor)) {
+            for (Future<?> payment : payConcurrently(batching, 2)) {
+                failures.add(assertThrows(ExecutionException.class, () -> payment.get(10, TimeUnit.SECONDS)).getCause());
+            }
+        }
+        for (Throwable failure : failures) {
+            assertInstanceOf(GatewayUnavailableException.class, failure);
+            assertSame(gateway.batchFailure, failure.getCause());
+        }
+        assertTrue(failures.get(0) != failures.get(1));
+    }
+
+    /**
+     * Test case for checking a batch that timed out leaves every one of its payments in doubt rather than failed.
+     */
+    @Test
+    void testTimedOutBatchLeavesEveryPaymentInDoubt() throws Exception {
+        RecordingGateway gateway = new RecordingGateway(Duration.ZERO);
+        gateway.batchFailure = new GatewayOutcomeUnknownException("Payment gateway call timed out");
+        List<Throwable> failures = new ArrayList<>();
+        try (CoalescingTicketPaymentService batching = new CoalescingTicketPaymentService(gateway, 2, Duration.ofMinutes(1), TIMEOUT, executor)) {
+            for (Future<?> payment : payConcurrently(batching, 2)) {
+                failures.add(assertThrows(ExecutionException.class, () -> payment.get(10, TimeUnit.SECONDS)).getCause());
+            }
+        }
+        for (Throwable failure : failures) {
+            assertInstanceOf(GatewayOutcomeUnknownException.class, failure);
+            assertSame(gateway.batchFailure, failure.getCause());
+        }
+    }
+
+    /**
+     * Test case for checking a caller whose batch the gateway never answers stops waiting at the timeout
+     * with its payment in doubt.
+     */
+    @Test
+    void testUnansweredBatchTimesOutInDoubt() throws Exception {
+        CountDownLatch gatewayCalled = new CountDownLatch(1);
+        CountDownLatch neverAnswered = new CountDownLatch(1);
+        TicketPaymentService hungGateway = new TicketPaymentService() {
+            @Override
+            public List<PaymentOutcome> makePayments(List<PaymentRequest> paymentRequests) {
+                gatewayCalled.countDown();
+                try {
+                    neverAnswered.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalStateException("Payment gateway hung up");
+            }
+
+            @Override
+            public void makePayment(long accountId, int totalAmountToPay) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void refundPayment(long accountId, int totalAmountToRefund) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        try (CoalescingTicketPaymentService batching = new CoalescingTicketPaymentService(hungGateway, 1, Duration.ZERO,
+                Duration.ofMillis(200), executor)) {
+            long startNanos = System.nanoTime();
+            assertThrows(GatewayOutcomeUnknownException.class, () -> batching.makePayment(1L, 10));
+            assertTrue(gatewayCalled.await(0, TimeUnit.MILLISECONDS));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) < 5000);
+        } finally {
+            neverAnswered.countDown();
+        }
+    }
+
+    private List<Future<?>> payConcurrently(TicketPaymentService paymentService, int payments) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i <= payments; i++) {
+            long accountId = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                paymentService.makePayment(accountId, 10);
+                return null;
+            }));
+        }
+        start.countDown();
+        return futures;
+    }
+
+    /**
+     * Gateway recording the size of every batch and the payment of every account, declining the payments of one account.
+     */
+    private static final class RecordingGateway implements TicketPaymentService {
+
+        private final Duration batchLatency;
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private final Map<Long, Integer> paidAccounts = new ConcurrentHashMap<>();
+        private volatile long declinedAccount;
+        private volatile RuntimeException batchFailure;
+
+        private RecordingGateway(Duration batchLatency) {
+            this.batchLatency = batchLatency;
+        }
+
+        @Override
+        public List<PaymentOutcome> makePayments(List<PaymentRequest> paymentRequests) {
+            batchSizes.add(paymentRequests.size());
+            if (batchFailure != null) {
+                throw batchFailure;
+            }
+            try {
+                Thread.sleep(batchLatency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return TicketPaymentService.super.makePayments(paymentRequests);
+        }
+
+        @Override
+        public void makePayment(long accountId, int totalAmountToPay) {
+            if (accountId == declinedAccount) {
+                throw new IllegalStateException("Payment declined for account " + accountId);
+            }
+            paidAccounts.put(accountId, totalAmountToPay);
+        }
+
+        @Override
+        public void refundPayment(long accountId, int totalAmountToRefund) {
+            paidAccounts.remove(accountId);
+        }
+    }
+}
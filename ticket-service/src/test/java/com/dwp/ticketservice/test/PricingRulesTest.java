@@ -0,0 +1,178 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import com.dwp.ticketservice.pricing.PricingRules;
+import com.dwp.ticketservice.pricing.PricingRulesWatcher;
+import com.dwp.ticketservice.service.TicketServiceImpl;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for pricing rules loaded from a file and swapped into the ticket service while it is running.
+ */
+class PricingRulesTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test case for checking rules are read from a properties file and missing keys keep the compiled defaults.
+     */
+    @Test
+    void testLoadRulesFromFile() throws IOException {
+        Path file = writeRules("version=summer\nadult-price=30\nmax-ticket-count=10\n", 0);
+
+        PricingRules pricingRules = PricingRules.load(file);
+
+        assertEquals("summer", pricingRules.getVersion());
+        assertEquals(30, pricingRules.getAdultPrice());
+        assertEquals(PricingRules.defaults().getChildPrice(), pricingRules.getChildPrice());
+        assertEquals(PricingRules.defaults().getInfantPrice(), pricingRules.getInfantPrice());
+        assertEquals(10, pricingRules.getMaxTicketCount());
+    }
+
+    /**
+     * Test case for checking negative prices, values that are not numbers and out of range limits are rejected.
+     */
+    @Test
+    void testInvalidRulesAreRejected() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> PricingRules.load(writeRules("adult-price=-1\n", 0)));
+        assertThrows(IllegalArgumentException.class, () -> PricingRules.load(writeRules("child-price=ten\n", 0)));
+        assertThrows(IllegalArgumentException.class, () -> PricingRules.load(writeRules("max-ticket-count=0\n", 0)));
+        assertThrows(IllegalArgumentException.class, () -> PricingRules.load(
+                writeRules("max-ticket-count=" + (PricingRules.MAX_TICKET_COUNT_LIMIT + 1) + "\n", 0)));
+    }
+
+    /**
+     * Test case for checking purchases and quotes use the prices and ticket limit of the rules applied last.
+     */
+    @Test
+    void testPurchaseUsesAppliedRules() {
+        TicketPaymentService paymentService = Mockito.mock(TicketPaymentService.class);
+        TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, Mockito.mock(SeatReservationService.class));
+        ticketService.applyPricingRules(new PricingRules("v2", 40, 15, 5, 5));
+
+        ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.adult, 2),
+                new TicketTypeRequest(TicketTypeRequest.Type.child, 1), new TicketTypeRequest(TicketTypeRequest.Type.infant, 1));
+
+        Mockito.verify(paymentService).makePayment(1L, 100);
+        assertEquals("v2", ticketService.getPricingRules().getVersion());
+        assertEquals(RejectionReason.EXCEEDED_TICKET_LIMIT,
+                ticketService.quote(new TicketTypeRequest(TicketTypeRequest.Type.adult, 6)).getRejectionReason());
+    }
+
+    /**
+     * Test case for checking the watcher reloads a changed file, and keeps the current rules when the new file is invalid
+     * without trying it again until it changes.
+     */
+    @Test
+    void testWatcherReloadsChangedFile() throws IOException {
+        Path file = writeRules("version=v1\nadult-price=25\n", 0);
+        AtomicReference<PricingRules> applied = new AtomicReference<>();
+        PricingRulesWatcher watcher = new PricingRulesWatcher(file, Duration.ofHours(1), applied::set);
+        try {
+            watcher.start();
+            assertEquals("v1", applied.get().getVersion());
+            assertFalse(watcher.poll());
+
+            writeRules("version=v2\nadult-price=35\n", 10);
+            assertTrue(watcher.poll());
+            assertEquals(35, applied.get().getAdultPrice());
+
+            writeRules("version=v3\nadult-price=-5\n", 20);
+            assertFalse(watcher.poll());
+            assertFalse(watcher.poll());
+            assertEquals("v2", applied.get().getVersion());
+        } finally {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Test case for checking purchases running while the rules are swapped are each priced by a single version,
+     * never with the adult price of one version and the child price of another.
+     */
+    @Test
+    void testConcurrentPurchasesSeeOneVersion() throws Exception {
+        Set<Integer> payments = ConcurrentHashMap.newKeySet();
+        TicketPaymentService paymentService = new TicketPaymentService() {
+            @Override
+            public void makePayment(long accountId, int totalAmountToPay) {
+                payments.add(totalAmountToPay);
+            }
+
+            @Override
+            public void refundPayment(long accountId, int totalAmountToRefund) {
+                // Nothing to refund.
+            }
+        };
+        TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, Mockito.mock(SeatReservationService.class));
+        PricingRules first = new PricingRules("first", 25, 10, 0, 25);
+        PricingRules second = new PricingRules("second", 40, 20, 0, 25);
+
+        Logger serviceLogger = (Logger) LoggerFactory.getLogger(TicketServiceImpl.class);
+        Level previousLevel = serviceLogger.getLevel();
+        serviceLogger.setLevel(Level.OFF);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            Future<?> swapper = executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    ticketService.applyPricingRules(i % 2 == 0 ? second : first);
+                }
+                running.set(false);
+            });
+            for (int i = 0; i < 3; i++) {
+                executor.submit(() -> {
+                    while (running.get()) {
+                        ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.adult, 2),
+                                new TicketTypeRequest(TicketTypeRequest.Type.child, 1));
+                    }
+                });
+            }
+            swapper.get(60, TimeUnit.SECONDS);
+        } finally {
+            running.set(false);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            serviceLogger.setLevel(previousLevel);
+        }
+
+        assertFalse(payments.isEmpty());
+        payments.removeAll(Set.of(60, 100));
+        assertTrue(payments.isEmpty(), "Purchases priced by a mix of versions: " + payments);
+    }
+
+    private Path writeRules(String rules, int secondsAfterEpoch) throws IOException {
+        Path file = directory.resolve("pricing.properties");
+        Files.writeString(file, rules);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_700_000_000_000L + secondsAfterEpoch * 1000L));
+        return file;
+    }
+}
@@ -0,0 +1,129 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.dwp.ticketservice.admission.PurchaseAdmission;
+import com.dwp.ticketservice.component.TicketServiceMessageHandler;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import com.dwp.ticketservice.exception.InvalidPurchaseException;
+import com.dwp.ticketservice.journal.PurchaseJournal;
+import com.dwp.ticketservice.ledger.PurchaseLedger;
+import com.dwp.ticketservice.logging.LogRateLimiter;
+import com.dwp.ticketservice.logging.PurchaseEventLogger;
+import com.dwp.ticketservice.metrics.PurchaseMetrics;
+import com.dwp.ticketservice.service.GatewayCalls;
+import com.dwp.ticketservice.service.PurchaseIdempotencyCache;
+import com.dwp.ticketservice.service.TicketServiceImpl;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for summary mode logging, checking one structured event per purchase replaces the per-stage lines.
+ */
+class PurchaseEventLoggerTest {
+
+    private final Logger eventLogger = (Logger) LoggerFactory.getLogger(PurchaseEventLogger.EVENT_LOGGER);
+    private final Logger serviceLogger = (Logger) LoggerFactory.getLogger(TicketServiceImpl.class);
+    private final ListAppender<ILoggingEvent> events = new ListAppender<>();
+    private final ListAppender<ILoggingEvent> serviceLines = new ListAppender<>();
+    private TicketServiceImpl ticketService;
+
+    @BeforeEach
+    void setUp() {
+        events.start();
+        serviceLines.start();
+        eventLogger.addAppender(events);
+        serviceLogger.addAppender(serviceLines);
+        ticketService = new TicketServiceImpl(Mockito.mock(TicketPaymentService.class), Mockito.mock(SeatReservationService.class),
+                ForkJoinPool.commonPool(), new PurchaseIdempotencyCache(10, Duration.ofMinutes(1)), PurchaseMetrics.noop(),
+                new PurchaseEventLogger(PurchaseEventLogger.Mode.SUMMARY, 0.0, "test-account-hash-key"), PurchaseJournal.noop(), GatewayCalls.sequential(),
+                PurchaseLedger.noop(), PurchaseAdmission.noop());
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventLogger.detachAppender(events);
+        serviceLogger.detachAppender(serviceLines);
+    }
+
+    /**
+     * Test case for checking an accepted purchase writes one event with the ticket mix, cost, seats and outcome,
+     * a hashed account ID and no per-stage lines.
+     */
+    @Test
+    void testAcceptedPurchaseWritesOneSummaryEvent() {
+        ticketService.purchaseTickets(12345L, new TicketTypeRequest(TicketTypeRequest.Type.adult, 2),
+                new TicketTypeRequest(TicketTypeRequest.Type.child, 1), new TicketTypeRequest(TicketTypeRequest.Type.infant, 1));
+
+        assertEquals(1, events.list.size());
+        String event = events.list.get(0).getFormattedMessage();
+        assertTrue(event.contains("adult=2 child=1 infant=1 cost=60 seats=3 outcome=ACCEPTED"), event);
+        assertTrue(event.contains("payment_us="), event);
+        assertTrue(!event.contains("12345"), event);
+        assertEquals(0, serviceLines.list.size());
+    }
+
+    /**
+     * Test case for checking a rejected purchase writes its event with the rejection reason.
+     */
+    @Test
+    void testRejectedPurchaseWritesReason() {
+        assertThrows(InvalidPurchaseException.class, () ->
+                ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.child, 2)));
+
+        assertEquals(1, events.list.size());
+        String event = events.list.get(0).getFormattedMessage();
+        assertTrue(event.contains("outcome=REJECTED reason=\"" + TicketServiceMessageHandler.MISSING_ADULT_TICKET + "\""), event);
+    }
+
+    /**
+     * Test case for checking rejections are logged at most the rejection log rate per second and the rest are counted.
+     */
+    @Test
+    void testRejectionLoggingIsRateLimited() {
+        AtomicLong clock = new AtomicLong();
+        LogRateLimiter limiter = new LogRateLimiter(2, clock::get);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.takeSuppressed());
+        assertEquals(0, limiter.takeSuppressed());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(limiter.tryAcquire());
+    }
+
+    /**
+     * Test case for checking the account hash is stable for one key, changes with the key, and summary mode
+     * refuses to start without a key.
+     */
+    @Test
+    void testAccountHashIsKeyed() {
+        PurchaseEventLogger keyed = new PurchaseEventLogger(PurchaseEventLogger.Mode.SUMMARY, 0.0, "test-account-hash-key");
+        PurchaseEventLogger otherKey = new PurchaseEventLogger(PurchaseEventLogger.Mode.SUMMARY, 0.0, "other-account-hash-key");
+        assertEquals(keyed.hashAccount(1L), keyed.hashAccount(1L));
+        assertNotEquals(keyed.hashAccount(1L), keyed.hashAccount(2L));
+        assertNotEquals(keyed.hashAccount(1L), otherKey.hashAccount(1L));
+
+        assertThrows(IllegalArgumentException.class, () -> new PurchaseEventLogger(PurchaseEventLogger.Mode.SUMMARY, 0.0, null));
+        assertThrows(IllegalArgumentException.class, () -> new PurchaseEventLogger(PurchaseEventLogger.Mode.SUMMARY, 0.0, "short"));
+    }
+}
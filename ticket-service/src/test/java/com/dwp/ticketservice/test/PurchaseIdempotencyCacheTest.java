@@ -0,0 +1,184 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.dwp.ticketservice.exception.InvalidPurchaseException;
+import com.dwp.ticketservice.service.PurchaseIdempotencyCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the idempotency cache, covering replay of outcomes, waiting on in-flight duplicates and eviction.
+ */
+class PurchaseIdempotencyCacheTest {
+
+    private final AtomicLong nanoClock = new AtomicLong();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    /**
+     * Test case for checking a retry with the same key does not run the purchase again.
+     */
+    @Test
+    void testRetryReplaysCompletedPurchase() {
+        PurchaseIdempotencyCache cache = new PurchaseIdempotencyCache(10, Duration.ofMinutes(1), nanoClock::get);
+        cache.execute("1:key", 1L, executions::incrementAndGet);
+        cache.execute("1:key", 1L, executions::incrementAndGet);
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Test case for checking a retry of a rejected purchase gets the same exception back.
+     */
+    @Test
+    void testRetryReplaysRejectedPurchase() {
+        PurchaseIdempotencyCache cache = new PurchaseIdempotencyCache(10, Duration.ofMinutes(1), nanoClock::get);
+        InvalidPurchaseException rejection = new InvalidPurchaseException("rejected");
+        Runnable purchase = () -> {
+            executions.incrementAndGet();
+            throw rejection;
+        };
+        assertSame(rejection, assertThrows(InvalidPurchaseException.class, () -> cache.execute("1:key", 1L, purchase)));
+        assertSame(rejection, assertThrows(InvalidPurchaseException.class, () -> cache.execute("1:key", 1L, purchase)));
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Test case for checking the purchase runs again once the first outcome has expired.
+     */
+    @Test
+    void testExpiredPurchaseRunsAgain() {
+        PurchaseIdempotencyCache cache = new PurchaseIdempotencyCache(10, Duration.ofSeconds(30), nanoClock::get);
+        cache.execute("1:key", 1L, executions::incrementAndGet);
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        cache.execute("1:key", 1L, executions::incrementAndGet);
+        assertEquals(2, executions.get());
+    }
+
+    /**
+     * Test case for checking the oldest completed purchases are evicted beyond the maximum size.
+     */
+    @Test
+    void testOldestPurchaseEvictedBeyondMaximumSize() {
+        PurchaseIdempotencyCache cache = new PurchaseIdempotencyCache(2, Duration.ofMinutes(1), nanoClock::get);
+        cache.execute("1:a", 1L, executions::incrementAndGet);
+        cache.execute("1:b", 1L, executions::incrementAndGet);
+        cache.execute("1:c", 1L, executions::incrementAndGet);
+        assertEquals(2, cache.size());
+
+        cache.execute("1:c", 1L, executions::incrementAndGet);
+        assertEquals(3, executions.get());
+        cache.execute("1:a", 1L, executions::incrementAndGet);
+        assertEquals(4, executions.get());
+    }
+
+    /**
+     * Test case for checking a purchase that failed for a reason other than a rejection is not replayed.
+     */
+    @Test
+    void testFailedPurchaseIsNotCached() {
+        PurchaseIdempotencyCache cache = new PurchaseIdempotencyCache(10, Duration.ofMinutes(1), nanoClock::get);
+        Runnable purchase = () -> {
+            if (executions.incrementAndGet() == 1) {
+                throw new IllegalStateException("gateway down");
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> cache.execute("1:key", 1L, purchase));
+        cache.execute("1:key", 1L, purchase);
+        cache.execute("1:key", 1L, purchase);
+        assertEquals(2, executions.get());
+    }
+
+    /**
+     * Test case for checking a key reused with a different payload is rejected without running the purchase.
+     */
+    @Test
+    void testKeyReusedWithDifferentPayloadIsRejected() {
+        PurchaseIdempotencyCache cache = new PurchaseIdempotencyCache(10, Duration.ofMinutes(1), nanoClock::get);
+        cache.execute("1:key", 1L, executions::incrementAndGet);
+        InvalidPurchaseException rejection = assertThrows(InvalidPurchaseException.class,
+                () -> cache.execute("1:key", 2L, executions::incrementAndGet));
+        assertEquals(RejectionReason.IDEMPOTENCY_KEY_REUSED.getMessage(), rejection.getMessage());
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Test case for checking completed purchases behind one still in flight are evicted beyond the maximum size.
+     */
+    @Test
+    void testEvictionSkipsPurchasesInFlight() throws Exception {
+        PurchaseIdempotencyCache cache = new PurchaseIdempotencyCache(2, Duration.ofMinutes(1), nanoClock::get);
+        CountDownLatch purchaseStarted = new CountDownLatch(1);
+        CountDownLatch releasePurchase = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> inFlight = executor.submit(() -> cache.execute("1:slow", 1L, () -> {
+                purchaseStarted.countDown();
+                awaitQuietly(releasePurchase);
+            }));
+            assertTrue(purchaseStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 10; i++) {
+                cache.execute("1:" + i, 1L, executions::incrementAndGet);
+            }
+            assertEquals(2, cache.size());
+            releasePurchase.countDown();
+            inFlight.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test case for checking concurrent duplicates wait for a single execution of the purchase.
+     */
+    @Test
+    void testConcurrentDuplicatesRunOnce() throws Exception {
+        PurchaseIdempotencyCache cache = new PurchaseIdempotencyCache(10, Duration.ofMinutes(1), nanoClock::get);
+        CountDownLatch purchaseStarted = new CountDownLatch(1);
+        CountDownLatch releasePurchase = new CountDownLatch(1);
+        Runnable slowPurchase = () -> {
+            executions.incrementAndGet();
+            purchaseStarted.countDown();
+            awaitQuietly(releasePurchase);
+        };
+
+        int duplicates = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> cache.execute("1:key", 1L, slowPurchase)));
+            assertTrue(purchaseStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < duplicates; i++) {
+                futures.add(executor.submit(() -> cache.execute("1:key", 1L, slowPurchase)));
+            }
+            releasePurchase.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
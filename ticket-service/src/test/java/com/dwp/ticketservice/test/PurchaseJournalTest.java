@@ -0,0 +1,217 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dwp.ticketservice.admission.PurchaseAdmission;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import com.dwp.ticketservice.exception.SeatsUnavailableException;
+import com.dwp.ticketservice.journal.IncompletePurchase;
+import com.dwp.ticketservice.journal.MappedPurchaseJournal;
+import com.dwp.ticketservice.journal.PurchaseJournal;
+import com.dwp.ticketservice.journal.PurchaseJournalReconciler;
+import com.dwp.ticketservice.ledger.PurchaseLedger;
+import com.dwp.ticketservice.logging.PurchaseEventLogger;
+import com.dwp.ticketservice.metrics.PurchaseMetrics;
+import com.dwp.ticketservice.service.GatewayCalls;
+import com.dwp.ticketservice.service.PurchaseIdempotencyCache;
+import com.dwp.ticketservice.service.TicketServiceImpl;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for the memory-mapped purchase journal, its replay and the reconciliation of incomplete purchases.
+ *
+ * A crash is simulated by opening the journal again without closing the first instance.
+ */
+class PurchaseJournalTest {
+
+    private static final long SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Test case for checking replay finds purchases without an outcome and whether their payment was taken or is in doubt.
+     */
+    @Test
+    void testReplayFindsIncompletePurchases() throws IOException {
+        MappedPurchaseJournal crashed = MappedPurchaseJournal.open(directory, SEGMENT_SIZE, 4);
+        long completed = crashed.recordIntent(1L, 20, 1);
+        crashed.recordPaymentTaken(completed);
+        crashed.recordCompleted(completed);
+        long failed = crashed.recordIntent(2L, 40, 2);
+        crashed.recordFailed(failed);
+        long unpaid = crashed.recordIntent(3L, 60, 3);
+        long paid = crashed.recordIntent(4L, 80, 4);
+        crashed.recordPaymentTaken(paid);
+        long inDoubt = crashed.recordIntent(6L, 20, 1);
+        crashed.recordPaymentUnknown(inDoubt);
+
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_SIZE, 4)) {
+            List<IncompletePurchase> incomplete = journal.getIncompletePurchases();
+            assertEquals(3, incomplete.size());
+            assertEquals(unpaid, incomplete.get(0).getPurchaseId());
+            assertEquals(3L, incomplete.get(0).getAccountId());
+            assertFalse(incomplete.get(0).isPaymentTaken());
+            assertEquals(paid, incomplete.get(1).getPurchaseId());
+            assertEquals(80, incomplete.get(1).getTotalTicketCost());
+            assertEquals(4, incomplete.get(1).getTotalSeatCount());
+            assertTrue(incomplete.get(1).isPaymentTaken());
+            assertFalse(incomplete.get(1).isPaymentUnknown());
+            assertEquals(inDoubt, incomplete.get(2).getPurchaseId());
+            assertFalse(incomplete.get(2).isPaymentTaken());
+            assertTrue(incomplete.get(2).isPaymentUnknown());
+            assertTrue(journal.recordIntent(5L, 20, 1) > inDoubt);
+        } finally {
+            crashed.close();
+        }
+    }
+
+    /**
+     * Test case for checking reconciliation reserves the seats of paid purchases, releases the seats of unpaid ones,
+     * keeps the seats of purchases whose payment is in doubt and closes every incomplete purchase.
+     */
+    @Test
+    void testReconcileFinishesIncompletePurchases() throws IOException {
+        MappedPurchaseJournal crashed = MappedPurchaseJournal.open(directory, SEGMENT_SIZE, 4);
+        crashed.recordIntent(3L, 60, 3);
+        crashed.recordPaymentTaken(crashed.recordIntent(4L, 80, 4));
+        crashed.recordPaymentTaken(crashed.recordIntent(5L, 20, 1));
+        long reserved = crashed.recordIntent(6L, 40, 2);
+        crashed.recordPaymentTaken(reserved);
+        crashed.recordSeatsReserved(reserved);
+        crashed.recordSeatsReserved(crashed.recordIntent(7L, 60, 3));
+        long inDoubt = crashed.recordIntent(8L, 20, 1);
+        crashed.recordSeatsReserved(inDoubt);
+        crashed.recordPaymentUnknown(inDoubt);
+
+        SeatReservationService reservationService = Mockito.mock(SeatReservationService.class);
+        Mockito.doThrow(new SeatsUnavailableException("sold out")).when(reservationService).reserveSeat(5L, 1);
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_SIZE, 4)) {
+            assertEquals(6, new PurchaseJournalReconciler(journal, reservationService).reconcile());
+        } finally {
+            crashed.close();
+        }
+        Mockito.verify(reservationService).reserveSeat(4L, 4);
+        Mockito.verify(reservationService, Mockito.never()).reserveSeat(3L, 3);
+        Mockito.verify(reservationService, Mockito.never()).reserveSeat(6L, 2);
+        Mockito.verify(reservationService, Mockito.never()).reserveSeat(7L, 3);
+        Mockito.verify(reservationService).releaseSeat(7L, 3);
+        Mockito.verify(reservationService, Mockito.never()).releaseSeat(3L, 3);
+        Mockito.verify(reservationService, Mockito.never()).releaseSeat(8L, 1);
+
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_SIZE, 4)) {
+            assertTrue(journal.getIncompletePurchases().isEmpty());
+        }
+    }
+
+    /**
+     * Test case for checking replay stops at a record torn by a crash.
+     */
+    @Test
+    void testReplayIgnoresTornRecord() throws IOException {
+        MappedPurchaseJournal crashed = MappedPurchaseJournal.open(directory, SEGMENT_SIZE, 4);
+        crashed.recordIntent(1L, 20, 1);
+        crashed.recordIntent(2L, 40, 2);
+        crashed.close();
+        try (RandomAccessFile segment = new RandomAccessFile(listSegments().get(0).toFile(), "rw")) {
+            segment.seek(32 + 16);
+            segment.writeInt(4000);
+        }
+
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_SIZE, 4)) {
+            assertEquals(1, journal.getIncompletePurchases().size());
+            assertEquals(1L, journal.getIncompletePurchases().get(0).getAccountId());
+        }
+    }
+
+    /**
+     * Test case for checking full segments are rolled and only the newest segments are kept.
+     */
+    @Test
+    void testSegmentsRollAndOldSegmentsAreDeleted() throws IOException {
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, 32 * 10, 2)) {
+            for (long accountId = 1; accountId <= 20; accountId++) {
+                long purchaseId = journal.recordIntent(accountId, 20, 1);
+                journal.recordPaymentTaken(purchaseId);
+                journal.recordCompleted(purchaseId);
+            }
+        }
+        assertEquals(2, listSegments().size());
+    }
+
+    /**
+     * Test case for checking concurrent purchases through the ticket service all reach a final outcome in the journal.
+     */
+    @Test
+    void testConcurrentPurchasesAreJournaled() throws Exception {
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_SIZE, 4)) {
+            TicketServiceImpl ticketService = ticketService(journal);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            for (int i = 0; i < 8; i++) {
+                long accountId = i + 1;
+                executor.submit(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        ticketService.purchaseTickets(accountId, new TicketTypeRequest(TicketTypeRequest.Type.adult, 1));
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        try (MappedPurchaseJournal journal = MappedPurchaseJournal.open(directory, SEGMENT_SIZE, 4)) {
+            assertTrue(journal.getIncompletePurchases().isEmpty());
+            assertEquals(1601L, journal.recordIntent(1L, 20, 1));
+        }
+    }
+
+    /**
+     * Test case for checking a purchase journals its reserved seats before it completes, so a crash between the two
+     * does not leave the reconciler to reserve its seats again.
+     */
+    @Test
+    void testReservedSeatsAreJournaledBeforeCompleting() {
+        PurchaseJournal journal = Mockito.mock(PurchaseJournal.class);
+        Mockito.when(journal.recordIntent(1L, 50, 2)).thenReturn(7L);
+
+        ticketService(journal).purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.adult, 2));
+
+        InOrder inOrder = Mockito.inOrder(journal);
+        inOrder.verify(journal).recordIntent(1L, 50, 2);
+        inOrder.verify(journal).recordPaymentTaken(7L);
+        inOrder.verify(journal).recordSeatsReserved(7L);
+        inOrder.verify(journal).recordCompleted(7L);
+    }
+
+    private static TicketServiceImpl ticketService(PurchaseJournal journal) {
+        return new TicketServiceImpl(Mockito.mock(TicketPaymentService.class), Mockito.mock(SeatReservationService.class),
+                ForkJoinPool.commonPool(), new PurchaseIdempotencyCache(10, Duration.ofMinutes(1)), PurchaseMetrics.noop(),
+                new PurchaseEventLogger(PurchaseEventLogger.Mode.SUMMARY, 0.0, "test-account-hash-key"), journal, GatewayCalls.sequential(),
+                PurchaseLedger.noop(), PurchaseAdmission.noop());
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
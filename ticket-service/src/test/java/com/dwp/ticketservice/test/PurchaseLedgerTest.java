@@ -0,0 +1,205 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.dwp.ticketservice.admission.PurchaseAdmission;
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import com.dwp.ticketservice.journal.PurchaseJournal;
+import com.dwp.ticketservice.ledger.RollingPurchaseLedger;
+import com.dwp.ticketservice.logging.PurchaseEventLogger;
+import com.dwp.ticketservice.metrics.PurchaseMetrics;
+import com.dwp.ticketservice.service.GatewayCalls;
+import com.dwp.ticketservice.service.PurchaseIdempotencyCache;
+import com.dwp.ticketservice.service.TicketServiceImpl;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for the rolling purchase ledger, checking orders split over many calls are held to the limits
+ * of their account over the window, and the ledger grows and records without allocating per purchase.
+ */
+class PurchaseLedgerTest {
+
+    private static final long HOUR_MILLIS = Duration.ofHours(1).toMillis();
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final TicketPaymentService paymentService = Mockito.mock(TicketPaymentService.class);
+    private final SeatReservationService reservationService = Mockito.mock(SeatReservationService.class);
+
+    /**
+     * Test case for checking an order split over two calls is rejected once the account passes its rolling ticket limit,
+     * without taking a payment, while other accounts are not affected.
+     */
+    @Test
+    void testSplitOrderIsHeldToRollingTicketLimit() {
+        TicketServiceImpl ticketService = ticketService(ledger(30, 0));
+
+        assertTrue(ticketService.tryPurchase(1L, adults(20)).isAccepted());
+        PurchaseResult secondCall = ticketService.tryPurchase(1L, adults(20));
+        assertEquals(RejectionReason.EXCEEDED_ROLLING_TICKET_LIMIT, secondCall.getRejectionReason());
+        assertTrue(ticketService.tryPurchase(1L, adults(10)).isAccepted());
+        assertTrue(ticketService.tryPurchase(2L, adults(20)).isAccepted());
+
+        Mockito.verify(paymentService).makePayment(1L, 500);
+        Mockito.verify(paymentService).makePayment(1L, 250);
+        Mockito.verify(paymentService).makePayment(2L, 500);
+        Mockito.verifyNoMoreInteractions(paymentService);
+    }
+
+    /**
+     * Test case for checking a purchase is rejected once the account would pass its rolling spend cap.
+     *
+     * 20 adults = 500, then 5 adults = 125 would make 625 over the cap of 600
+     */
+    @Test
+    void testPurchaseOverSpendCapIsRejected() {
+        TicketServiceImpl ticketService = ticketService(ledger(0, 600));
+
+        assertTrue(ticketService.tryPurchase(1L, adults(20)).isAccepted());
+        assertEquals(RejectionReason.EXCEEDED_SPEND_CAP, ticketService.tryPurchase(1L, adults(5)).getRejectionReason());
+        assertTrue(ticketService.tryPurchase(1L, adults(4)).isAccepted());
+    }
+
+    /**
+     * Test case for checking the tickets of a purchase leave the window once it has rolled past their bucket.
+     */
+    @Test
+    void testLimitRollsWithWindow() {
+        RollingPurchaseLedger ledger = ledger(30, 0);
+        long start = clock.get();
+        assertNull(ledger.tryRecord(1L, 20, 500, start));
+        assertNull(ledger.tryRecord(1L, 10, 250, start + 2 * HOUR_MILLIS));
+
+        assertEquals(RejectionReason.EXCEEDED_ROLLING_TICKET_LIMIT, ledger.tryRecord(1L, 1, 25, start + 5 * HOUR_MILLIS));
+        assertEquals(30, ledger.ticketCount(1L, start + 5 * HOUR_MILLIS));
+
+        assertNull(ledger.tryRecord(1L, 20, 500, start + 6 * HOUR_MILLIS));
+        assertEquals(30, ledger.ticketCount(1L, start + 6 * HOUR_MILLIS));
+        assertEquals(750, ledger.spend(1L, start + 6 * HOUR_MILLIS));
+        assertEquals(20, ledger.ticketCount(1L, start + 8 * HOUR_MILLIS));
+    }
+
+    /**
+     * Test case for checking a purchase recorded at a time the account has already rolled past, as a batch does with
+     * its shared ledger time, is released from the bucket it was written to and leaves the other purchases alone.
+     */
+    @Test
+    void testReleaseAfterRollTakesOutItsOwnPurchase() {
+        RollingPurchaseLedger ledger = ledger(30, 0);
+        long start = clock.get();
+        long batchTime = start + 2 * HOUR_MILLIS;
+        assertNull(ledger.tryRecord(1L, 4, 100, batchTime));
+        assertNull(ledger.tryRecord(1L, 5, 125, start + 3 * HOUR_MILLIS));
+
+        assertNull(ledger.tryRecord(1L, 10, 250, batchTime));
+        assertEquals(19, ledger.ticketCount(1L, start + 3 * HOUR_MILLIS));
+        ledger.release(1L, 10, 250, batchTime);
+
+        assertEquals(9, ledger.ticketCount(1L, start + 3 * HOUR_MILLIS));
+        assertEquals(225, ledger.spend(1L, start + 3 * HOUR_MILLIS));
+        assertEquals(5, ledger.ticketCount(1L, start + 8 * HOUR_MILLIS));
+    }
+
+    /**
+     * Test case for checking a purchase whose payment failed is released from the ledger.
+     */
+    @Test
+    void testFailedPurchaseIsReleased() {
+        RollingPurchaseLedger ledger = ledger(30, 0);
+        TicketServiceImpl ticketService = ticketService(ledger);
+        Mockito.doThrow(new IllegalStateException("Payment declined")).doNothing().when(paymentService).makePayment(1L, 500);
+
+        assertEquals(PurchaseResult.Status.FAILED, ticketService.tryPurchase(1L, adults(20)).getStatus());
+        assertEquals(0, ledger.ticketCount(1L, clock.get()));
+        assertTrue(ticketService.tryPurchase(1L, adults(20)).isAccepted());
+        assertEquals(20, ledger.ticketCount(1L, clock.get()));
+    }
+
+    /**
+     * Test case for checking the ledger holds many accounts through its resizes, and drops the accounts
+     * that have left the window when it grows again.
+     */
+    @Test
+    void testManyAccountsAndExpiredAccountsAreDropped() {
+        RollingPurchaseLedger ledger = ledger(30, 0);
+        int accounts = 200_000;
+        long start = clock.get();
+        for (long accountId = 1; accountId <= accounts; accountId++) {
+            assertNull(ledger.tryRecord(accountId, (int) (accountId % 25) + 1, 25, start));
+        }
+        assertEquals(accounts, ledger.size());
+        for (long accountId = 1; accountId <= accounts; accountId += 997) {
+            assertEquals((int) (accountId % 25) + 1, ledger.ticketCount(accountId, start));
+        }
+
+        long nextDay = start + 24 * HOUR_MILLIS;
+        for (long accountId = accounts + 1; accountId <= 2L * accounts; accountId++) {
+            assertNull(ledger.tryRecord(accountId, 1, 25, nextDay));
+        }
+        assertTrue(ledger.size() < 2 * accounts, "Expired accounts were kept: " + ledger.size());
+        assertEquals(0, ledger.ticketCount(1L, nextDay));
+        assertEquals(1, ledger.ticketCount(2L * accounts, nextDay));
+    }
+
+    /**
+     * Test case for checking recording and releasing purchases of known accounts allocates no memory.
+     */
+    @Test
+    void testRecordingDoesNotAllocate() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean, "Thread allocation counters are not available");
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported(), "Thread allocation counters are not supported");
+        allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        RollingPurchaseLedger ledger = ledger(30, 600);
+        long now = clock.get();
+        for (int i = 0; i < 100_000; i++) {
+            recordAndRelease(ledger, i % 1000 + 1, now);
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = allocationMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            recordAndRelease(ledger, i % 1000 + 1, now);
+        }
+        long allocatedBytes = allocationMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertTrue(allocatedBytes < 10_000, "Expected no allocation per purchase but " + allocatedBytes + " bytes were allocated");
+    }
+
+    private static void recordAndRelease(RollingPurchaseLedger ledger, long accountId, long now) {
+        if (ledger.tryRecord(accountId, 4, 100, now) == null) {
+            ledger.release(accountId, 4, 100, now);
+        }
+    }
+
+    /**
+     * Ledger over a 6 hour window of 1 hour buckets, read from the test clock.
+     */
+    private RollingPurchaseLedger ledger(int maxTicketCount, int maxSpend) {
+        return new RollingPurchaseLedger(8, Duration.ofHours(6), 6, maxTicketCount, maxSpend, clock::get);
+    }
+
+    private TicketServiceImpl ticketService(RollingPurchaseLedger ledger) {
+        return new TicketServiceImpl(paymentService, reservationService, ForkJoinPool.commonPool(),
+                new PurchaseIdempotencyCache(10, Duration.ofMinutes(1)), PurchaseMetrics.noop(),
+                new PurchaseEventLogger(PurchaseEventLogger.Mode.SUMMARY, 0.0, "test-account-hash-key"), PurchaseJournal.noop(),
+                GatewayCalls.sequential(), ledger, PurchaseAdmission.noop());
+    }
+
+    private static TicketTypeRequest adults(int quantity) {
+        return new TicketTypeRequest(TicketTypeRequest.Type.adult, quantity);
+    }
+}
@@ -0,0 +1,103 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.dwp.ticketservice.admission.PurchaseAdmission;
+import com.dwp.ticketservice.domain.PurchaseOrder;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import com.dwp.ticketservice.exception.InvalidPurchaseException;
+import com.dwp.ticketservice.journal.PurchaseJournal;
+import com.dwp.ticketservice.ledger.PurchaseLedger;
+import com.dwp.ticketservice.logging.PurchaseEventLogger;
+import com.dwp.ticketservice.metrics.PurchaseMetrics;
+import com.dwp.ticketservice.metrics.PurchaseStage;
+import com.dwp.ticketservice.service.GatewayCalls;
+import com.dwp.ticketservice.service.PurchaseIdempotencyCache;
+import com.dwp.ticketservice.service.TicketServiceImpl;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Unit tests for the purchase pipeline metrics, checking each stage is timed and purchases are counted by outcome.
+ */
+class PurchaseMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TicketServiceImpl ticketService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ticketService = new TicketServiceImpl(Mockito.mock(TicketPaymentService.class), Mockito.mock(SeatReservationService.class),
+                ForkJoinPool.commonPool(), new PurchaseIdempotencyCache(10, Duration.ofMinutes(1)), new PurchaseMetrics(meterRegistry),
+                PurchaseEventLogger.verbose(), PurchaseJournal.noop(), GatewayCalls.sequential(),
+                PurchaseLedger.noop(), PurchaseAdmission.noop());
+    }
+
+    /**
+     * Test case for checking a valid purchase records every stage once and counts one accepted purchase.
+     */
+    @Test
+    void testValidPurchaseRecordsEveryStage() {
+        ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.adult, 2));
+
+        for (PurchaseStage stage : PurchaseStage.values()) {
+            assertEquals(1, meterRegistry.get(PurchaseMetrics.STAGE_TIMER).tag("stage", stage.getTag()).timer().count(), stage.name());
+        }
+        assertEquals(1, meterRegistry.get(PurchaseMetrics.PURCHASE_TIMER).timer().count());
+        assertEquals(1.0, meterRegistry.get(PurchaseMetrics.PURCHASE_COUNTER).tag("outcome", "accepted").counter().count());
+    }
+
+    /**
+     * Test case for checking rejections are counted by reason and do not reach the payment stage.
+     */
+    @Test
+    void testRejectedPurchaseCountedByReason() {
+        assertThrows(InvalidPurchaseException.class, () ->
+                ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.child, 2)));
+        assertThrows(InvalidPurchaseException.class, () ->
+                ticketService.purchaseTickets(1L, new TicketTypeRequest(TicketTypeRequest.Type.adult, 30)));
+        assertThrows(InvalidPurchaseException.class, () -> ticketService.purchaseTickets(1L));
+
+        assertEquals(3.0, meterRegistry.get(PurchaseMetrics.PURCHASE_COUNTER).tag("outcome", "rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get(PurchaseMetrics.REJECTION_COUNTER).tag("reason", "missing_adult_ticket").counter().count());
+        assertEquals(1.0, meterRegistry.get(PurchaseMetrics.REJECTION_COUNTER).tag("reason", "exceeded_ticket_limit").counter().count());
+        assertEquals(1.0, meterRegistry.get(PurchaseMetrics.REJECTION_COUNTER).tag("reason", "no_tickets_requested").counter().count());
+        assertEquals(0, meterRegistry.get(PurchaseMetrics.STAGE_TIMER).tag("stage", PurchaseStage.PAYMENT.getTag()).timer().count());
+    }
+
+    /**
+     * Test case for checking every order of a batch is started once, whether it is rejected or purchased,
+     * and an accepted order is timed like a single purchase.
+     */
+    @Test
+    void testBatchOrdersAreStartedOnce() {
+        PurchaseMetrics metrics = Mockito.spy(new PurchaseMetrics(meterRegistry));
+        TicketServiceImpl batchService = new TicketServiceImpl(Mockito.mock(TicketPaymentService.class), Mockito.mock(SeatReservationService.class),
+                ForkJoinPool.commonPool(), new PurchaseIdempotencyCache(10, Duration.ofMinutes(1)), metrics,
+                PurchaseEventLogger.verbose(), PurchaseJournal.noop(), GatewayCalls.sequential(),
+                PurchaseLedger.noop(), PurchaseAdmission.noop());
+
+        batchService.purchaseTicketsBatch(List.of(
+                new PurchaseOrder(1L, new TicketTypeRequest(TicketTypeRequest.Type.child, 2)),
+                new PurchaseOrder(2L, new TicketTypeRequest(TicketTypeRequest.Type.adult, 2))));
+
+        verify(metrics, times(2)).startPurchase();
+        assertEquals(2, meterRegistry.get(PurchaseMetrics.STAGE_TIMER).tag("stage", PurchaseStage.VALIDATION.getTag()).timer().count());
+        assertEquals(1, meterRegistry.get(PurchaseMetrics.STAGE_TIMER).tag("stage", PurchaseStage.PAYMENT.getTag()).timer().count());
+        assertEquals(1, meterRegistry.get(PurchaseMetrics.PURCHASE_TIMER).timer().count());
+        assertEquals(1.0, meterRegistry.get(PurchaseMetrics.PURCHASE_COUNTER).tag("outcome", "accepted").counter().count());
+        assertEquals(1.0, meterRegistry.get(PurchaseMetrics.PURCHASE_COUNTER).tag("outcome", "rejected").counter().count());
+    }
+}
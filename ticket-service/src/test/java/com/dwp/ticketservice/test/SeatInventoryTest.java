@@ -0,0 +1,199 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.dwp.ticketservice.exception.SeatsUnavailableException;
+import com.dwp.ticketservice.thirdparty.seatbooking.InventorySeatReservationService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatInventory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.platform.commons.logging.Logger;
+import org.junit.platform.commons.logging.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit and concurrency stress tests for the striped seat inventory.
+ *
+ * The stress tests race many threads for the seats of one performance and check the performance is sold
+ * exactly to capacity, never beyond it, at every thread count up to the number of cores.
+ */
+class SeatInventoryTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatInventoryTest.class);
+
+    /**
+     * Test case for checking a reservation is all or nothing.
+     */
+    @Test
+    void testAllocateAllOrNothing() {
+        SeatInventory seatInventory = new SeatInventory("show", 10, 4);
+        assertTrue(seatInventory.tryAllocate(7));
+        assertFalse(seatInventory.tryAllocate(4));
+        assertEquals(3, seatInventory.available());
+        assertTrue(seatInventory.tryAllocate(3));
+        assertEquals(0, seatInventory.available());
+        assertEquals(10, seatInventory.allocated());
+    }
+
+    /**
+     * Test case for checking released seats can be reserved again, and no more than were reserved can be released.
+     */
+    @Test
+    void testReleaseSeats() {
+        SeatInventory seatInventory = new SeatInventory("show", 5, 2);
+        assertTrue(seatInventory.tryAllocate(5));
+        seatInventory.release(2);
+        assertTrue(seatInventory.tryAllocate(2));
+        seatInventory.release(5);
+        assertThrows(IllegalStateException.class, () -> seatInventory.release(1));
+        assertEquals(5, seatInventory.available());
+    }
+
+    /**
+     * Test case for checking the reservation service refuses a reservation beyond capacity.
+     */
+    @Test
+    void testReservationServiceRefusesOverbooking() {
+        InventorySeatReservationService reservationService = new InventorySeatReservationService(new SeatInventory("show", 3, 1));
+        reservationService.reserveSeat(1L, 2);
+        assertThrows(SeatsUnavailableException.class, () -> reservationService.reserveSeat(2L, 2));
+        reservationService.releaseSeat(1L, 2);
+        reservationService.reserveSeat(2L, 3);
+    }
+
+    /**
+     * Stress test racing threads for the seats of one performance, at 1, 2, 4 ... up to the number of cores.
+     * Every run must sell exactly the capacity. The throughput of each run is logged to show the scaling.
+     */
+    @Test
+    void testNoOverbookingUnderContention(TestInfo testInfo) throws Exception {
+        int maxThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        for (int threads = 1; threads <= maxThreads; threads = threads == maxThreads ? threads + 1 : Math.min(threads * 2, maxThreads)) {
+            int capacity = 200_000;
+            SeatInventory seatInventory = new SeatInventory("show", capacity, maxThreads);
+            long startNanos = System.nanoTime();
+            long sold = race(seatInventory, threads);
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            assertEquals(capacity, sold, "Seats sold with " + threads + " threads");
+            assertEquals(0, seatInventory.available());
+            int threadCount = threads;
+            logger.info(() -> testInfo.getDisplayName() + ": " + threadCount + " threads sold " + sold + " seats at "
+                    + (sold * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos)) + " seats per second");
+        }
+    }
+
+    /**
+     * Stress test mixing reservations and releases, checking the seats held by all threads always add up
+     * to the seats allocated in the inventory.
+     */
+    @Test
+    void testAllocateAndReleaseUnderContention() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        SeatInventory seatInventory = new SeatInventory("show", 1_000, threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> held = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                held.add(executor.submit(() -> {
+                    start.await();
+                    long seatsHeld = 0;
+                    for (int attempt = 0; attempt < 50_000; attempt++) {
+                        int seats = ThreadLocalRandom.current().nextInt(1, 6);
+                        if (seatsHeld >= seats && ThreadLocalRandom.current().nextBoolean()) {
+                            seatInventory.release(seats);
+                            seatsHeld -= seats;
+                        } else if (seatInventory.tryAllocate(seats)) {
+                            seatsHeld += seats;
+                        }
+                    }
+                    return seatsHeld;
+                }));
+            }
+            start.countDown();
+            long totalHeld = 0;
+            for (Future<Long> future : held) {
+                totalHeld += future.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(totalHeld, seatInventory.allocated());
+            assertTrue(seatInventory.available() >= 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Stress test racing threads for blocks of seats that soon have to be gathered from several stripes, checking
+     * no thread is refused while the performance still has seats, so every block is sold.
+     */
+    @Test
+    void testGatheredReservationsSellOut() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int run = 0; run < 500; run++) {
+                SeatInventory seatInventory = new SeatInventory("show", 8 * 6, 8);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> buyers = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    buyers.add(executor.submit(() -> {
+                        start.await();
+                        while (seatInventory.tryAllocate(4)) {
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> buyer : buyers) {
+                    buyer.get(60, TimeUnit.SECONDS);
+                }
+                assertEquals(0, seatInventory.available(), "Seats left unsold in run " + run);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long race(SeatInventory seatInventory, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> sold = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<Long> buyer = () -> {
+                    start.await();
+                    long seatsSold = 0;
+                    while (seatInventory.available() > 0) {
+                        int seats = Math.min(ThreadLocalRandom.current().nextInt(1, 6), Math.max(1, seatInventory.available()));
+                        if (seatInventory.tryAllocate(seats)) {
+                            seatsSold += seats;
+                        }
+                    }
+                    return seatsSold;
+                };
+                sold.add(executor.submit(buyer));
+            }
+            start.countDown();
+            long totalSold = 0;
+            for (Future<Long> future : sold) {
+                totalSold += future.get(60, TimeUnit.SECONDS);
+            }
+            return totalSold;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.dwp.ticketservice.component.TicketServiceMessageHandler;
+import com.dwp.ticketservice.controller.TicketPurchaseController;
+import com.dwp.ticketservice.service.PartitionedPurchaseEngine;
+import com.dwp.ticketservice.service.TicketServiceImpl;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Unit tests for the streaming bulk purchase endpoint, covering one result line per order line
+ * including rejected and malformed orders.
+ */
+class TicketPurchaseControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TicketPaymentService paymentService;
+    private SeatReservationService reservationService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        paymentService = Mockito.mock(TicketPaymentService.class);
+        reservationService = Mockito.mock(SeatReservationService.class);
+        TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, reservationService);
+        mockMvc = MockMvcBuilders.standaloneSetup(new TicketPurchaseController(ticketService, objectMapper)).build();
+    }
+
+    /**
+     * Test case for checking each order line of the upload gets its own result line, in upload order.
+     *
+     * line 1: 1 adult + 2 child = 45, 3 seats
+     * line 2: blank, skipped
+     * line 3: 1 child without adult, rejected
+     * line 4: malformed JSON, rejected
+     * line 5: unknown ticket type, rejected
+     */
+    @Test
+    void testStreamPurchases() throws Exception {
+        String upload = "{\"accountId\":1,\"tickets\":[{\"type\":\"adult\",\"quantity\":1},{\"type\":\"child\",\"quantity\":2}]}\n"
+                + "\n"
+                + "{\"accountId\":2,\"tickets\":[{\"type\":\"child\",\"quantity\":1}]}\n"
+                + "{\"accountId\":3,\"tickets\":[\n"
+                + "{\"accountId\":4,\"tickets\":[{\"type\":\"senior\",\"quantity\":1}]}\n";
+
+        String body = mockMvc.perform(post("/tickets/purchases/stream")
+                        .contentType(TicketPurchaseController.APPLICATION_NDJSON)
+                        .content(upload))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(TicketPurchaseController.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(4, lines.length);
+        JsonNode accepted = objectMapper.readTree(lines[0]);
+        assertEquals(1, accepted.get("line").asInt());
+        assertEquals("ACCEPTED", accepted.get("status").asText());
+        assertEquals(45, accepted.get("totalTicketCost").asInt());
+        assertEquals(3, accepted.get("totalSeatCount").asInt());
+
+        JsonNode rejected = objectMapper.readTree(lines[1]);
+        assertEquals(3, rejected.get("line").asInt());
+        assertEquals(TicketServiceMessageHandler.MISSING_ADULT_TICKET, rejected.get("reason").asText());
+
+        assertEquals(TicketServiceMessageHandler.MALFORMED_PURCHASE_ORDER, objectMapper.readTree(lines[2]).get("reason").asText());
+        assertEquals(TicketServiceMessageHandler.MALFORMED_PURCHASE_ORDER, objectMapper.readTree(lines[3]).get("reason").asText());
+        verify(paymentService).makePayment(1L, 45);
+        verify(reservationService).reserveSeat(1L, 3);
+    }
+
+    /**
+     * Test case for checking orders with null parts are rejected with a reason and the stream carries on.
+     *
+     * line 1: JSON null, malformed
+     * line 2: null ticket, malformed
+     * line 3: ticket without a type, malformed
+     * line 4: no account ID, invalid account
+     * line 5: 1 adult = 25, 1 seat
+     */
+    @Test
+    void testStreamPurchasesRejectsNullParts() throws Exception {
+        String upload = "null\n"
+                + "{\"accountId\":1,\"tickets\":[null]}\n"
+                + "{\"accountId\":2,\"tickets\":[{\"type\":null,\"quantity\":1}]}\n"
+                + "{\"tickets\":[{\"type\":\"adult\",\"quantity\":1}]}\n"
+                + "{\"accountId\":5,\"tickets\":[{\"type\":\"adult\",\"quantity\":1}]}\n";
+
+        String body = mockMvc.perform(post("/tickets/purchases/stream")
+                        .contentType(TicketPurchaseController.APPLICATION_NDJSON)
+                        .content(upload))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(5, lines.length);
+        for (int i = 0; i < 3; i++) {
+            JsonNode malformed = objectMapper.readTree(lines[i]);
+            assertEquals("REJECTED", malformed.get("status").asText());
+            assertEquals(TicketServiceMessageHandler.MALFORMED_PURCHASE_ORDER, malformed.get("reason").asText());
+        }
+        JsonNode noAccount = objectMapper.readTree(lines[3]);
+        assertEquals("REJECTED", noAccount.get("status").asText());
+        assertEquals(TicketServiceMessageHandler.INVALID_ACCOUNT_ID, noAccount.get("reason").asText());
+        assertEquals("ACCEPTED", objectMapper.readTree(lines[4]).get("status").asText());
+        verify(paymentService).makePayment(5L, 25);
+        Mockito.verifyNoMoreInteractions(paymentService);
+    }
+
+    /**
+     * Test case for checking the engine mode writes one result line per order in upload order,
+     * holding the upload back while the two-slot partition queue is full.
+     */
+    @Test
+    void testStreamPurchasesThroughEngine() throws Exception {
+        TicketServiceImpl ticketService = new TicketServiceImpl(paymentService, reservationService);
+        StringBuilder upload = new StringBuilder();
+        for (long accountId = 1; accountId <= 20; accountId++) {
+            upload.append("{\"accountId\":").append(accountId).append(",\"tickets\":[{\"type\":\"adult\",\"quantity\":1}]}\n");
+        }
+        upload.append("{\"accountId\":21,\"tickets\":[{\"type\":\"child\",\"quantity\":1}]}\n");
+
+        String body;
+        try (PartitionedPurchaseEngine engine = new PartitionedPurchaseEngine(ticketService, 1, 1)) {
+            MockMvc engineMockMvc = MockMvcBuilders.standaloneSetup(new TicketPurchaseController(ticketService, objectMapper, engine)).build();
+            body = engineMockMvc.perform(post("/tickets/purchases/stream")
+                            .contentType(TicketPurchaseController.APPLICATION_NDJSON)
+                            .content(upload.toString()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+        }
+
+        String[] lines = body.split("\n");
+        assertEquals(21, lines.length);
+        for (int i = 0; i < 20; i++) {
+            JsonNode accepted = objectMapper.readTree(lines[i]);
+            assertEquals(i + 1, accepted.get("line").asInt());
+            assertEquals("ACCEPTED", accepted.get("status").asText());
+        }
+        assertEquals(TicketServiceMessageHandler.MISSING_ADULT_TICKET, objectMapper.readTree(lines[20]).get("reason").asText());
+        verify(paymentService, Mockito.times(20)).makePayment(Mockito.anyLong(), Mockito.eq(25));
+    }
+}
@@ -0,0 +1,162 @@
+package com.dwp.ticketservice.test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import ch.qos.logback.classic.Level;
+import com.dwp.ticketservice.domain.TicketTypeRequest;
+import com.dwp.ticketservice.exception.InvalidPurchaseException;
+import com.dwp.ticketservice.service.TicketServiceImpl;
+import com.dwp.ticketservice.thirdparty.paymentgateway.TicketPaymentService;
+import com.dwp.ticketservice.thirdparty.seatbooking.SeatReservationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Allocation test for the purchase hot path.
+ *
+ * A valid purchase must not allocate anything apart from the varargs array built by the caller,
+ * which is created once here and reused. Logging is switched off so that only the service itself is measured.
+ */
+class TicketServiceImplAllocationTest {
+
+    private static final int WARM_UP_PURCHASES = 50_000;
+    private static final int MEASURED_PURCHASES = 10_000;
+
+    private final ch.qos.logback.classic.Logger serviceLogger =
+            (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(TicketServiceImpl.class);
+    private Level previousLevel;
+    private TicketServiceImpl ticketService;
+
+    @BeforeEach
+    void setUp() {
+        previousLevel = serviceLogger.getLevel();
+        serviceLogger.setLevel(Level.OFF);
+        NoOpGateway gateway = new NoOpGateway();
+        ticketService = new TicketServiceImpl(gateway, gateway);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serviceLogger.setLevel(previousLevel);
+    }
+
+    /**
+     * Test case for checking a valid purchase of 1 adult, 2 child and 1 infant ticket allocates no memory per call.
+     */
+    @Test
+    void testValidPurchaseDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+        Long accountId = 1L;
+        TicketTypeRequest[] ticketTypeRequests = {
+                new TicketTypeRequest(TicketTypeRequest.Type.adult, 1),
+                new TicketTypeRequest(TicketTypeRequest.Type.child, 2),
+                new TicketTypeRequest(TicketTypeRequest.Type.infant, 1)
+        };
+        for (int i = 0; i < WARM_UP_PURCHASES; i++) {
+            ticketService.purchaseTickets(accountId, ticketTypeRequests);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_PURCHASES; i++) {
+            ticketService.purchaseTickets(accountId, ticketTypeRequests);
+        }
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertTrue(allocatedBytes < MEASURED_PURCHASES,
+                "Expected no allocation per purchase but " + allocatedBytes + " bytes were allocated for " + MEASURED_PURCHASES + " purchases");
+    }
+
+    /**
+     * Test case for checking a valid purchase of 10 adult tickets allocates no memory per call, as its cost of 250
+     * is outside the Integer cache and would be boxed if it were passed to the logger.
+     */
+    @Test
+    void testCostlyPurchaseDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+        Long accountId = 1L;
+        TicketTypeRequest[] ticketTypeRequests = {new TicketTypeRequest(TicketTypeRequest.Type.adult, 10)};
+        for (int i = 0; i < WARM_UP_PURCHASES; i++) {
+            ticketService.purchaseTickets(accountId, ticketTypeRequests);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_PURCHASES; i++) {
+            ticketService.purchaseTickets(accountId, ticketTypeRequests);
+        }
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertTrue(allocatedBytes < MEASURED_PURCHASES,
+                "Expected no allocation per purchase but " + allocatedBytes + " bytes were allocated for " + MEASURED_PURCHASES + " purchases");
+    }
+
+    /**
+     * Test case for checking a rejected purchase of 2 child tickets without an adult allocates no memory per call,
+     * the same as a valid purchase.
+     */
+    @Test
+    void testRejectedPurchaseDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+        Long accountId = 1L;
+        TicketTypeRequest[] ticketTypeRequests = {new TicketTypeRequest(TicketTypeRequest.Type.child, 2)};
+        for (int i = 0; i < WARM_UP_PURCHASES; i++) {
+            purchaseRejected(accountId, ticketTypeRequests);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_PURCHASES; i++) {
+            purchaseRejected(accountId, ticketTypeRequests);
+        }
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertTrue(allocatedBytes < MEASURED_PURCHASES,
+                "Expected no allocation per rejection but " + allocatedBytes + " bytes were allocated for " + MEASURED_PURCHASES + " rejections");
+    }
+
+    private void purchaseRejected(Long accountId, TicketTypeRequest[] ticketTypeRequests) {
+        try {
+            ticketService.purchaseTickets(accountId, ticketTypeRequests);
+        } catch (InvalidPurchaseException e) {
+            // Expected, the shared exception of the rejection reason.
+        }
+    }
+
+    private com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean, "Thread allocation counters are not available");
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported(), "Thread allocation counters are not supported");
+        allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+        return allocationMXBean;
+    }
+
+    private static final class NoOpGateway implements TicketPaymentService, SeatReservationService {
+
+        @Override
+        public void makePayment(long accountId, int totalAmountToPay) {
+            // Intentionally empty, Mockito would allocate while recording the invocation.
+        }
+
+        @Override
+        public void reserveSeat(long accountId, int totalSeatsToAllocate) {
+            // Intentionally empty.
+        }
+
+        @Override
+        public void refundPayment(long accountId, int totalAmountToRefund) {
+            // Intentionally empty.
+        }
+
+        @Override
+        public void releaseSeat(long accountId, int totalSeatsToRelease) {
+            // Intentionally empty.
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.dwp.ticketservice.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 import com.dwp.ticketservice.component.TicketServiceMessageHandler;
+import com.dwp.ticketservice.domain.PurchaseOrder;
+import com.dwp.ticketservice.domain.PurchaseResult;
+import com.dwp.ticketservice.domain.RejectionReason;
+import com.dwp.ticketservice.domain.TicketQuote;
 import com.dwp.ticketservice.domain.TicketTypeRequest;
 import com.dwp.ticketservice.exception.InvalidPurchaseException;
 import com.dwp.ticketservice.service.TicketServiceImpl;
@@ -18,6 +23,10 @@ import org.junit.platform.commons.logging.Logger;
 import org.junit.platform.commons.logging.LoggerFactory;
 import org.mockito.Mockito;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
 /**
  * Unit tests for the testing ticket purchasing functionality.
  * The tests consist validating input parameter, business rules, calculating total price, ensuring the max ticket limit,
@@ -203,6 +212,224 @@ class TicketServiceImplTest {
         verifyPayment(1L,35,2);
     }
 
+    /**
+     * Test case for checking a quote of 1 adult, 2 child and 3 infant tickets without making any payment or reservation.
+     *
+     * Total Cost = 1 Adult* 25 + 2 child * 10 = 45
+     * Seat Allocation = 3
+     */
+    @Test
+    void testQuoteValidTickets() {
+        TicketQuote quote = ticketService.quote(ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1),
+                ticketTypeRequestObjectCreation(TicketTypeRequest.Type.child, 2),
+                ticketTypeRequestObjectCreation(TicketTypeRequest.Type.infant, 3));
+        Assertions.assertTrue(quote.isValid());
+        assertEquals(6, quote.getTotalTicketCount());
+        assertEquals(45, quote.getTotalTicketCost());
+        assertEquals(3, quote.getTotalSeatCount());
+        verifyNoInteractions(paymentService, reservationService);
+    }
+
+    /**
+     * Test case for checking an invalid quote carries the rejection reason instead of throwing.
+     */
+    @Test
+    void testQuoteInvalidTickets() {
+        assertEquals(TicketServiceMessageHandler.MISSING_ADULT_TICKET,
+                ticketService.quote(ticketTypeRequestObjectCreation(TicketTypeRequest.Type.child, 2)).getReason());
+        assertEquals(TicketServiceMessageHandler.EXCEEDED_TICKET_LIMIT,
+                ticketService.quote(ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 20),
+                        ticketTypeRequestObjectCreation(TicketTypeRequest.Type.infant, 6)).getReason());
+        assertEquals(TicketServiceMessageHandler.EXCEEDED_TICKET_LIMIT,
+                ticketService.quote(ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1000)).getReason());
+        assertEquals(TicketServiceMessageHandler.NO_TICKETS_REQUESTED, ticketService.quote().getReason());
+        Assertions.assertFalse(ticketService.quote(ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 26)).isValid());
+    }
+
+    /**
+     * Test case for checking a quote of a missing ticket request or one without a type carries the malformed order reason,
+     * the same as a purchase of it.
+     */
+    @Test
+    void testQuoteWithMissingFields() {
+        assertEquals(RejectionReason.MALFORMED_PURCHASE_ORDER,
+                ticketService.quote(new TicketTypeRequest(null, 1)).getRejectionReason());
+        assertEquals(RejectionReason.MALFORMED_PURCHASE_ORDER,
+                ticketService.quote(ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1), null).getRejectionReason());
+        assertEquals(RejectionReason.NO_TICKETS_REQUESTED, ticketService.quote((TicketTypeRequest[]) null).getRejectionReason());
+    }
+
+    /**
+     * Test case for checking a retried purchase with the same idempotency key pays and reserves seats only once.
+     */
+    @Test
+    void testIdempotentPurchaseRetry() {
+        TicketTypeRequest adultTicket = ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1);
+        ticketService.purchaseTickets("order-1", 1L, adultTicket);
+        ticketService.purchaseTickets("order-1", 1L, adultTicket);
+        verify(paymentService, times(1)).makePayment(1L, 25);
+        verify(reservationService, times(1)).reserveSeat(1L, 1);
+    }
+
+    /**
+     * Test case for checking the same idempotency key used by different accounts is treated as different purchases.
+     */
+    @Test
+    void testIdempotencyKeyScopedToAccount() {
+        TicketTypeRequest adultTicket = ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1);
+        ticketService.purchaseTickets("order-1", 1L, adultTicket);
+        ticketService.purchaseTickets("order-1", 2L, adultTicket);
+        verifyPayment(1L,25,1);
+        verifyPayment(2L,25,1);
+    }
+
+    /**
+     * Test case for checking an asynchronous purchase makes the payment and seat reservation once it completes.
+     */
+    @Test
+    void testPurchaseTicketsAsync() {
+        TicketTypeRequest adultTicket = ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 2);
+        ticketService.purchaseTicketsAsync(1L, adultTicket).join();
+        verifyPayment(1L,50,2);
+    }
+
+    /**
+     * Test case for checking an invalid asynchronous purchase completes exceptionally with the InvalidPurchaseException.
+     */
+    @Test
+    void testPurchaseTicketsAsyncWithoutAdult() {
+        TicketTypeRequest childTicket = ticketTypeRequestObjectCreation(TicketTypeRequest.Type.child, 1);
+        CompletionException exception = assertThrows(CompletionException.class, () ->
+                ticketService.purchaseTicketsAsync(1L, childTicket).join());
+        assertEquals(InvalidPurchaseException.class, exception.getCause().getClass());
+        assertEquals(TicketServiceMessageHandler.MISSING_ADULT_TICKET, exception.getCause().getMessage());
+        verifyNoInteractions(paymentService, reservationService);
+    }
+
+    /**
+     * Test case for checking tryPurchase returns the outcome of accepted, rejected and failed purchases without throwing.
+     */
+    @Test
+    void testTryPurchase() {
+        PurchaseResult accepted = ticketService.tryPurchase(1L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1),
+                ticketTypeRequestObjectCreation(TicketTypeRequest.Type.child, 2));
+        assertEquals(PurchaseResult.Status.ACCEPTED, accepted.getStatus());
+        assertEquals(45, accepted.getTotalTicketCost());
+        assertEquals(3, accepted.getTotalSeatCount());
+        verifyPayment(1L,45,3);
+
+        PurchaseResult rejected = ticketService.tryPurchase(0L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1));
+        assertEquals(PurchaseResult.Status.REJECTED, rejected.getStatus());
+        assertEquals(RejectionReason.INVALID_ACCOUNT_ID, rejected.getRejectionReason());
+        assertEquals(TicketServiceMessageHandler.INVALID_ACCOUNT_ID, rejected.getReason());
+
+        doThrow(new IllegalStateException("Payment declined")).when(paymentService).makePayment(2L, 25);
+        PurchaseResult failed = ticketService.tryPurchase(2L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1));
+        assertEquals(PurchaseResult.Status.FAILED, failed.getStatus());
+        assertEquals(null, failed.getRejectionReason());
+    }
+
+    /**
+     * Test case for checking a missing account ID, ticket request or ticket type is rejected with a reason, not failed.
+     */
+    @Test
+    void testTryPurchaseWithMissingFields() {
+        PurchaseResult noAccount = ticketService.tryPurchase(null, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1));
+        assertEquals(PurchaseResult.Status.REJECTED, noAccount.getStatus());
+        assertEquals(RejectionReason.INVALID_ACCOUNT_ID, noAccount.getRejectionReason());
+
+        PurchaseResult noType = ticketService.tryPurchase(1L, ticketTypeRequestObjectCreation(null, 1));
+        assertEquals(PurchaseResult.Status.REJECTED, noType.getStatus());
+        assertEquals(RejectionReason.MALFORMED_PURCHASE_ORDER, noType.getRejectionReason());
+
+        PurchaseResult noRequest = ticketService.tryPurchase(1L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1), null);
+        assertEquals(RejectionReason.MALFORMED_PURCHASE_ORDER, noRequest.getRejectionReason());
+        verifyNoInteractions(paymentService, reservationService);
+    }
+
+    /**
+     * Test case for checking rejections throw the shared stackless exception of their reason code.
+     */
+    @Test
+    void testRejectionThrowsStacklessException() {
+        InvalidPurchaseException first = assertThrows(InvalidPurchaseException.class, () ->
+                ticketService.purchaseTickets(1L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.child, 2)));
+        InvalidPurchaseException second = assertThrows(InvalidPurchaseException.class, () ->
+                ticketService.purchaseTickets(2L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.infant, 1)));
+
+        assertSame(first, second);
+        assertEquals(RejectionReason.MISSING_ADULT_TICKET, first.getRejectionReason());
+        assertEquals(0, first.getStackTrace().length);
+    }
+
+    /**
+     * Test case for checking a batch pays and reserves seats for valid orders only,
+     * and returns the rejection reason of the invalid orders in the same order as requested.
+     *
+     * account 1: 1 adult + 2 child = 45, 3 seats
+     * account 2: 2 child without adult, rejected
+     * account 3: 2 adult + 1 infant = 50, 2 seats
+     */
+    @Test
+    void testPurchaseTicketsBatch() {
+        List<PurchaseResult> results = ticketService.purchaseTicketsBatch(Arrays.asList(
+                new PurchaseOrder(1L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1),
+                        ticketTypeRequestObjectCreation(TicketTypeRequest.Type.child, 2)),
+                new PurchaseOrder(2L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.child, 2)),
+                new PurchaseOrder(3L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 2),
+                        ticketTypeRequestObjectCreation(TicketTypeRequest.Type.infant, 1))));
+
+        assertEquals(3, results.size());
+        assertEquals(PurchaseResult.Status.ACCEPTED, results.get(0).getStatus());
+        assertEquals(45, results.get(0).getTotalTicketCost());
+        assertEquals(PurchaseResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals(TicketServiceMessageHandler.MISSING_ADULT_TICKET, results.get(1).getReason());
+        assertEquals(PurchaseResult.Status.ACCEPTED, results.get(2).getStatus());
+        verifyPayment(1L,45,3);
+        verifyPayment(3L,50,2);
+        verify(paymentService, never()).makePayment(eq(2L), anyInt());
+        verify(reservationService, never()).reserveSeat(eq(2L), anyInt());
+    }
+
+    /**
+     * Test case for checking a gateway failure on one order of a batch is reported for that order only.
+     */
+    @Test
+    void testPurchaseTicketsBatchGatewayFailure() {
+        doThrow(new IllegalStateException("Payment declined")).when(paymentService).makePayment(1L, 25);
+        List<PurchaseResult> results = ticketService.purchaseTicketsBatch(Arrays.asList(
+                new PurchaseOrder(1L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1)),
+                new PurchaseOrder(2L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1))));
+
+        assertEquals(PurchaseResult.Status.FAILED, results.get(0).getStatus());
+        assertEquals(PurchaseResult.Status.ACCEPTED, results.get(1).getStatus());
+        verify(reservationService, never()).reserveSeat(eq(1L), anyInt());
+        verifyPayment(2L,25,1);
+    }
+
+    /**
+     * Test case for checking a missing order is rejected as malformed without stopping the orders around it,
+     * and a missing list of orders is rejected as a whole.
+     */
+    @Test
+    void testPurchaseTicketsBatchWithMissingOrders() {
+        List<PurchaseResult> results = ticketService.purchaseTicketsBatch(Arrays.asList(
+                new PurchaseOrder(1L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 1)),
+                null,
+                new PurchaseOrder(3L, ticketTypeRequestObjectCreation(TicketTypeRequest.Type.adult, 2))));
+
+        assertEquals(3, results.size());
+        assertEquals(PurchaseResult.Status.ACCEPTED, results.get(0).getStatus());
+        assertEquals(PurchaseResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals(RejectionReason.MALFORMED_PURCHASE_ORDER, results.get(1).getRejectionReason());
+        assertEquals(PurchaseResult.Status.ACCEPTED, results.get(2).getStatus());
+        verifyPayment(1L,25,1);
+        verifyPayment(3L,50,2);
+
+        InvalidPurchaseException exception = assertThrows(InvalidPurchaseException.class, () -> ticketService.purchaseTicketsBatch(null));
+        assertEquals(TicketServiceMessageHandler.MALFORMED_PURCHASE_ORDER, exception.getMessage());
+    }
+
     /**
      * Verifies the payment service and seat reservation service with the correct parameters.
      *